@@ -4,6 +4,7 @@ import lombok.NonNull;
 import lombok.Value;
 import org.springframework.core.MethodParameter;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
@@ -28,10 +29,18 @@ public class BodyAdvice implements ResponseBodyAdvice {
         if (body == null) {
             throw new NotFoundException("Resource was not found!");
         }
+        ResponseCacheFilter.recordEntity(request, body);
+        if (body instanceof Page) {
+            //pages already carry their content and are handled by ResourceSizeAdvice
+            return body;
+        }
         if (isArray(body)) {
+            //same envelope for json, smile and cbor so caches need to keep the variants apart
+            varyOnAccept(response);
             return new Wrapper(Arrays.asList(body));
         }
-        if (body instanceof Iterable && !(body instanceof Page)) {
+        if (body instanceof Iterable) {
+            varyOnAccept(response);
             return new Wrapper((Iterable)body);
         }
         return body;
@@ -43,6 +52,13 @@ public class BodyAdvice implements ResponseBodyAdvice {
 
     }
 
+    public static void varyOnAccept(ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        if (!headers.getVary().contains(HttpHeaders.ACCEPT)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+    }
+
     public static boolean isArray(Object obj)
     {
         return obj != null && (obj.getClass().isArray() || obj instanceof Iterable) && !(obj instanceof byte[]);
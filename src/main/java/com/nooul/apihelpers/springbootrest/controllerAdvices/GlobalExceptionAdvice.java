@@ -6,7 +6,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import com.nooul.apihelpers.springbootrest.exceptions.ConflictException;
 import com.nooul.apihelpers.springbootrest.exceptions.NotFoundException;
+import com.nooul.apihelpers.springbootrest.exceptions.TooManyRequestsException;
 
 import java.util.Date;
 //extend them and add @ControllerAdvice
@@ -45,4 +47,16 @@ public class GlobalExceptionAdvice {
                 request.getDescription(false));
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
+    @ExceptionHandler(TooManyRequestsException.class)
+    public final ResponseEntity<ErrorDetails> tooManyRequestsHandler(Exception ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(),
+                request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.TOO_MANY_REQUESTS);
+    }
+    @ExceptionHandler(ConflictException.class)
+    public final ResponseEntity<ErrorDetails> conflictHandler(Exception ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(),
+                request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
 }
@@ -20,6 +20,9 @@ public class ResourceSizeAdvice implements ResponseBodyAdvice<Page<?>> {
     @Override
     public Page<?> beforeBodyWrite(Page<?> page, MethodParameter methodParameter, MediaType mediaType, Class<? extends HttpMessageConverter<?>> aClass, ServerHttpRequest serverHttpRequest, ServerHttpResponse serverHttpResponse) {
         serverHttpResponse.getHeaders().add("X-Total-Count",String.valueOf(page.getTotalElements()));
+        ResponseCacheFilter.recordEntity(serverHttpRequest, page);
+        //pages can be negotiated as json, smile or cbor
+        BodyAdvice.varyOnAccept(serverHttpResponse);
         return page;
     }
 
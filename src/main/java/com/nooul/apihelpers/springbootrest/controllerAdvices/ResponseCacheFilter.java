@@ -0,0 +1,288 @@
+package com.nooul.apihelpers.springbootrest.controllerAdvices;
+
+import com.nooul.apihelpers.springbootrest.services.EntityChangeTracker;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.persistence.Entity;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+//keeps the serialized bytes (and a gzip variant) of GET responses that BodyAdvice/ResourceSizeAdvice saw returning entities.
+//a hit is written before the controller runs, so there is no query and no serialization, as long as neither the entity
+//nor anything reachable from it changed since (EntityChangeTracker.dataVersion). off unless response-cache-size is set,
+//expose it as a @Bean so that it is added to the filter chain. bodies always go straight to the client, a copy is kept
+//only of the ones the advices marked before their first byte, so streams, exports and server-sent events are untouched
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String ENTITY_ATTRIBUTE = ResponseCacheFilter.class.getName() + ".entity";
+    private static final int DEFAULT_MAX_ENTRY_BYTES = 1024 * 1024;
+    //hop-by-hop headers belong to the connection, cookies to the user and the content headers are set by write
+    private static final Set<String> UNCACHED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        UNCACHED_HEADERS.addAll(Arrays.asList(HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.PROXY_AUTHENTICATE, HttpHeaders.PROXY_AUTHORIZATION,
+                HttpHeaders.TE, HttpHeaders.TRAILER, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.UPGRADE, HttpHeaders.SET_COOKIE, "Set-Cookie2",
+                HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING, HttpHeaders.DATE));
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class CachedResponse {
+        private final Class<?> entityClass;
+        private final long sequence;
+        private final String contentType;
+        private final Map<String, Collection<String>> headers;
+        private final byte[] body;
+        private final byte[] gzipBody;
+    }
+
+    //writes through to the response and copies the body when the request was marked as cacheable before it started,
+    //a copy that grows past maxBytes is dropped
+    private static class CopyingResponse extends HttpServletResponseWrapper {
+        private final HttpServletRequest request;
+        private final int maxBytes;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+        private ByteArrayOutputStream copy;
+        private boolean started;
+
+        private CopyingResponse(HttpServletRequest request, HttpServletResponse response, int maxBytes) {
+            super(response);
+            this.request = request;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                ServletOutputStream out = super.getOutputStream();
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        copy(1).ifPresent(copy -> copy.write(b));
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        copy(len).ifPresent(copy -> copy.write(b, off, len));
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        out.flush();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return out.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        out.setWriteListener(listener);
+                    }
+                };
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+
+        //decided at the first byte: the advices run before the converters write
+        private Optional<ByteArrayOutputStream> copy(int length) {
+            if (!started) {
+                started = true;
+                if (request.getAttribute(ENTITY_ATTRIBUTE) != null) {
+                    copy = new ByteArrayOutputStream();
+                }
+            }
+            if (copy != null && copy.size() + length > maxBytes) {
+                copy = null;
+            }
+            return Optional.ofNullable(copy);
+        }
+
+        private byte[] getCopy() {
+            if (writer != null) {
+                writer.flush();
+            }
+            return copy == null ? null : copy.toByteArray();
+        }
+    }
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private EntityChangeTracker tracker;
+
+    private Map<String, CachedResponse> entries;
+    private int size;
+    private int maxEntryBytes;
+    private boolean gzip;
+
+    //called by the advices with the body returned from the controller
+    public static void recordEntity(ServerHttpRequest request, Object body) {
+        if (!(request instanceof ServletServerHttpRequest)) {
+            return;
+        }
+        Iterator<?> iterator = null;
+        if (body instanceof Page) {
+            iterator = ((Page<?>) body).getContent().iterator();
+        } else if (body instanceof Iterable) {
+            iterator = ((Iterable<?>) body).iterator();
+        } else if (body != null && body.getClass().isArray() && !(body instanceof byte[])) {
+            iterator = Arrays.asList((Object[]) body).iterator();
+        }
+        //the entity of an empty result is unknown so it is not cached
+        if (iterator != null && iterator.hasNext()) {
+            Class<?> clazz = Hibernate.getClass(iterator.next());
+            if (clazz.isAnnotationPresent(Entity.class)) {
+                ((ServletServerHttpRequest) request).getServletRequest().setAttribute(ENTITY_ATTRIBUTE, clazz);
+            }
+        }
+    }
+
+    @Override
+    protected void initFilterBean() {
+        size = env.getProperty("spring-boot-rest-api-helpers.response-cache-size", Integer.class, 0);
+        maxEntryBytes = env.getProperty("spring-boot-rest-api-helpers.response-cache-max-entry-bytes", Integer.class, DEFAULT_MAX_ENTRY_BYTES);
+        gzip = env.getProperty("spring-boot-rest-api-helpers.response-cache-gzip", Boolean.class, false);
+        entries = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return size <= 0 || !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String key = key(request);
+        CachedResponse cached = get(key);
+        if (cached != null && tracker.dataVersion(cached.getEntityClass()) <= cached.getSequence()) {
+            write(cached, request, response);
+            return;
+        }
+
+        long sequence = tracker.sequence();
+        CopyingResponse wrapper = new CopyingResponse(request, response, maxEntryBytes);
+        if (gzip) {
+            wrapper.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        filterChain.doFilter(request, wrapper);
+
+        //async responses are still being written
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        Class<?> entityClass = (Class<?>) request.getAttribute(ENTITY_ATTRIBUTE);
+        byte[] body = wrapper.getCopy();
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && entityClass != null && body != null && tracker.dataVersion(entityClass) <= sequence) {
+            Map<String, Collection<String>> headers = new LinkedCaseInsensitiveMap<>();
+            for (String header : wrapper.getHeaderNames()) {
+                if (!UNCACHED_HEADERS.contains(header)) {
+                    headers.put(header, new ArrayList<>(wrapper.getHeaders(header)));
+                }
+            }
+            put(key, new CachedResponse(entityClass, sequence, wrapper.getContentType(), headers, body, gzip ? gzip(body) : null));
+        }
+    }
+
+    private void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        for (Map.Entry<String, Collection<String>> header : cached.getHeaders().entrySet()) {
+            //e.g. the ones of filters that ran before this one
+            if (response.containsHeader(header.getKey())) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                response.addHeader(header.getKey(), value);
+            }
+        }
+        //the etag ETagService gave the cached response is still current
+        Collection<String> etag = cached.getHeaders().get(HttpHeaders.ETAG);
+        if (etag != null && new ServletWebRequest(request, response).checkNotModified(etag.iterator().next())) {
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.getContentType());
+        byte[] body = cached.getBody();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (cached.getGzipBody() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = cached.getGzipBody();
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    //the same request from the same user asking for the same representation, parameters in any order
+    private String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            key.append('&').append(parameter.getKey()).append('=').append(String.join(",", parameter.getValue()));
+        }
+        return key.append('|').append(request.getHeader(HttpHeaders.ACCEPT))
+                .append('|').append(request.getUserPrincipal() != null ? request.getUserPrincipal().getName() : "")
+                .toString();
+    }
+
+    private synchronized CachedResponse get(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(String key, CachedResponse response) {
+        entries.put(key, response);
+    }
+
+    private byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream stream = new GZIPOutputStream(out)) {
+            stream.write(body);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,26 @@
+package com.nooul.apihelpers.springbootrest.entities;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+//the number of rows matching a filter and their metrics, overall and per value of each group-by field.
+//buckets are ordered by value with nulls first, associations are bucketed by id and numeric ranges by their lower bound
+@Getter
+@RequiredArgsConstructor
+public class Aggregation {
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Bucket {
+        private final Object value;
+        private final long count;
+        private final Map<String, Object> metrics;
+    }
+
+    private final long count;
+    private final Map<String, Object> metrics;
+    private final Map<String, List<Bucket>> facets;
+}
@@ -0,0 +1,18 @@
+package com.nooul.apihelpers.springbootrest.entities;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+//the rows matching a filter that were created or updated since a cursor and the ids deleted since then.
+//reset means the changes since the cursor are not known (no cursor, it is too old or rows were deleted in bulk)
+//and rows holds the whole result: the client should replace what it has
+@Getter
+@RequiredArgsConstructor
+public class ChangeSet<T> {
+    private final List<T> rows;
+    private final List<Object> deleted;
+    private final String cursor;
+    private final boolean reset;
+}
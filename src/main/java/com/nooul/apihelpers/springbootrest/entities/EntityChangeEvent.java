@@ -0,0 +1,21 @@
+package com.nooul.apihelpers.springbootrest.entities;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+//published when rows of an entity were changed without going through the persistence context (bulk update/delete)
+//so caches of that entity can be invalidated, listen with @TransactionalEventListener to act after the commit
+@Getter
+@RequiredArgsConstructor
+public class EntityChangeEvent {
+
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+    private final Class<?> entityClass;
+    private final Type type;
+    private final long rows;
+}
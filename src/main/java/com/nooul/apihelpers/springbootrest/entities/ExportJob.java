@@ -0,0 +1,48 @@
+package com.nooul.apihelpers.springbootrest.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.nio.file.Path;
+import java.util.Date;
+
+//state of a background export as reported by the status endpoint, updated by the export thread
+@Getter
+@Setter
+@RequiredArgsConstructor
+public class ExportJob {
+
+    public enum Status {QUEUED, RUNNING, DONE, FAILED, CANCELLED}
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String mediaType;
+        private final String extension;
+    }
+
+    private final String id;
+    private final Format format;
+    private final Date createdAt = new Date();
+    @JsonIgnore
+    private final Path file;
+
+    private volatile Status status = Status.QUEUED;
+    //-1 until the matching rows are counted
+    private volatile long total = -1;
+    private volatile long rowsWritten;
+    //between 0 and 1, rowsWritten / total
+    private volatile double progress;
+    private volatile Date startedAt;
+    private volatile Date finishedAt;
+    private volatile String error;
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED || status == Status.CANCELLED;
+    }
+}
@@ -0,0 +1,17 @@
+package com.nooul.apihelpers.springbootrest.entities;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+//outcome of one batch of an import, a failed batch is rolled back on its own and the import goes on
+@Getter
+@RequiredArgsConstructor
+public class ImportBatch {
+    private final int batch;
+    private final String from;
+    private final String to;
+    private final int rowsSaved;
+    private final int rowsFailed;
+    private final long elapsedMillis;
+    private final String error;
+}
@@ -0,0 +1,27 @@
+package com.nooul.apihelpers.springbootrest.entities;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+//snapshot of a running import, reported after every batch and returned when the import is done
+@Getter
+@RequiredArgsConstructor
+public class ImportProgress {
+    private final long rowsRead;
+    private final long rowsSaved;
+    private final long rowsSkipped;
+    private final long rowsFailed;
+    private final int batches;
+    private final int failedBatches;
+    private final long elapsedMillis;
+    //only the first errors are kept so memory stays constant for any input size
+    private final List<String> errors;
+    //the batch saved just before this snapshot, earlier ones are only counted
+    private final ImportBatch lastBatch;
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsSaved : rowsSaved * 1000.0 / elapsedMillis;
+    }
+}
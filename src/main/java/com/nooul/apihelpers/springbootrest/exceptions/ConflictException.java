@@ -0,0 +1,17 @@
+package com.nooul.apihelpers.springbootrest.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "conflict")
+public class ConflictException extends RuntimeException {
+    public ConflictException(String msg) {
+        super(msg);
+    }
+    public ConflictException() {}
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
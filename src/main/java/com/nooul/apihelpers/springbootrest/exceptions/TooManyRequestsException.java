@@ -0,0 +1,17 @@
+package com.nooul.apihelpers.springbootrest.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS, reason = "too many requests")
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String msg) {
+        super(msg);
+    }
+    public TooManyRequestsException() {}
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,356 @@
+package com.nooul.apihelpers.springbootrest.processors;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.util.*;
+
+//generates a JsonSerializer for each @Entity so that the fields are written without reflection. the properties are the
+//ones of ObjectMapperProvider's mapper: every non static, non transient field read as a field (private ones through a
+//MethodHandle), except that a getter annotated with @IdReference is read instead of its field or adds a property of its own.
+//entities that use other jackson annotations (directly or through @JacksonAnnotationsInside, apart from @JsonIgnore)
+//or inheritance are skipped and keep the reflective bean serializer
+@SupportedAnnotationTypes("javax.persistence.Entity")
+public class EntitySerializerProcessor extends AbstractProcessor {
+
+    private static final String REGISTRY_INTERFACE = "com.nooul.apihelpers.springbootrest.serializers.EntitySerializerRegistry";
+    private static final String REGISTRY_NAME = "GeneratedEntitySerializers";
+    private static final String SERIALIZER_SUFFIX = "JsonSerializer";
+
+    private static final Set<String> BOXED_TYPES = new HashSet<>(Arrays.asList(
+            "java.lang.String", "java.lang.Integer", "java.lang.Long", "java.lang.Short", "java.lang.Byte",
+            "java.lang.Double", "java.lang.Float", "java.lang.Boolean", "java.lang.Character"));
+
+    private static final Set<String> ASSOCIATIONS = new HashSet<>(Arrays.asList(
+            "javax.persistence.ManyToOne", "javax.persistence.OneToOne",
+            "javax.persistence.OneToMany", "javax.persistence.ManyToMany"));
+
+    private static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+    private static final String ID_REFERENCE = "com.nooul.apihelpers.springbootrest.serializers.IdReference";
+
+    private static final PropertyNamingStrategy.SnakeCaseStrategy SNAKE_CASE = new PropertyNamingStrategy.SnakeCaseStrategy();
+
+    private final List<String> generated = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!generated.isEmpty()) {
+                writeRegistry();
+            }
+            return false;
+        }
+        for (TypeElement annotation : annotations) {
+            for (TypeElement entity : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                List<Property> properties = collectProperties(entity);
+                if (properties != null) {
+                    writeSerializer(entity, properties);
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<Property> collectProperties(TypeElement entity) {
+        if (entity.getNestingKind() != NestingKind.TOP_LEVEL || !entity.getTypeParameters().isEmpty()) {
+            return skip(entity, "is nested or generic");
+        }
+        if (!entity.getSuperclass().toString().equals("java.lang.Object")) {
+            return skip(entity, "extends another class");
+        }
+        if (hasJacksonAnnotation(entity)) {
+            return skip(entity, "uses jackson annotations");
+        }
+
+        //getters annotated with @IdReference are visible to jackson and win over the field, @JsonIgnore drops the property
+        Map<String, ExecutableElement> annotatedGetters = new LinkedHashMap<>();
+        Set<String> ignored = new HashSet<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(entity.getEnclosedElements())) {
+            if (!hasJacksonAnnotation(method) && !ProcessorUtils.hasAnnotation(method, JSON_IGNORE) && !ProcessorUtils.hasAnnotation(method, ID_REFERENCE)) {
+                continue;
+            }
+            String property = propertyOfGetter(method);
+            if (property == null || hasJacksonAnnotation(method)) {
+                return skip(entity, "uses jackson annotations on " + method.getSimpleName());
+            }
+            if (ProcessorUtils.hasAnnotation(method, JSON_IGNORE)) {
+                ignored.add(property);
+            } else if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                return skip(entity, "has a private @IdReference getter " + method.getSimpleName());
+            } else {
+                annotatedGetters.put(property, method);
+            }
+        }
+
+        List<Property> properties = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(entity.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            String name = field.getSimpleName().toString();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT) || ProcessorUtils.hasAnnotation(field, JSON_IGNORE) || ignored.contains(name)) {
+                continue;
+            }
+            if (hasJacksonAnnotation(field)) {
+                return skip(entity, "uses jackson annotations on " + name);
+            }
+            ExecutableElement getter = annotatedGetters.remove(name);
+            if (getter != null) {
+                properties.add(new Property(name, getter.getReturnType(), getter.getSimpleName() + "()", false,
+                        ProcessorUtils.getAnnotation(getter, ID_REFERENCE), isAssociation(field)));
+            } else {
+                properties.add(new Property(name, field.asType(), name, modifiers.contains(Modifier.PRIVATE),
+                        ProcessorUtils.getAnnotation(field, ID_REFERENCE), isAssociation(field)));
+            }
+        }
+        //annotated getters without a field come after the fields like in jackson
+        for (Map.Entry<String, ExecutableElement> e : annotatedGetters.entrySet()) {
+            ExecutableElement getter = e.getValue();
+            properties.add(new Property(e.getKey(), getter.getReturnType(), getter.getSimpleName() + "()", false,
+                    ProcessorUtils.getAnnotation(getter, ID_REFERENCE), false));
+        }
+        return properties;
+    }
+
+    private void writeSerializer(TypeElement entity, List<Property> properties) {
+        String packageName = ProcessorUtils.packageOf(processingEnv, entity);
+        String entityName = entity.getQualifiedName().toString();
+        String serializerName = entity.getSimpleName() + SERIALIZER_SUFFIX;
+
+        StringBuilder src = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            src.append("package ").append(packageName).append(";\n\n");
+        }
+        src.append("//generated by ").append(getClass().getName()).append(" - do not edit\n");
+        src.append("public final class ").append(serializerName)
+                .append(" extends com.nooul.apihelpers.springbootrest.serializers.GeneratedEntitySerializer<").append(entityName).append("> {\n\n");
+
+        boolean usesHandles = false;
+        for (Property p : properties) {
+            if (p.handle) {
+                usesHandles = true;
+                src.append("    private static final java.lang.invoke.MethodHandle ").append(p.handleField())
+                        .append(" = fieldGetter(").append(entityName).append(".class, \"").append(p.name).append("\");\n");
+            }
+        }
+        if (usesHandles) {
+            src.append("\n");
+        }
+        for (Property p : properties) {
+            src.append("    private final com.fasterxml.jackson.core.io.SerializedString ").append(p.nameField()).append(";\n");
+            if (p.kind() == Kind.OBJECT) {
+                src.append("    private final com.fasterxml.jackson.databind.JsonSerializer<Object> ").append(p.serializerField()).append(";\n");
+            }
+        }
+
+        src.append("\n    public ").append(serializerName)
+                .append("(boolean useSnakeCase, com.nooul.apihelpers.springbootrest.serializers.IdReferenceSerializer associationSerializer) {\n");
+        src.append("        super(").append(entityName).append(".class);\n");
+        for (Property p : properties) {
+            src.append("        this.").append(p.nameField()).append(" = new com.fasterxml.jackson.core.io.SerializedString(useSnakeCase ? \"")
+                    .append(SNAKE_CASE.translate(p.name)).append("\" : \"").append(p.name).append("\");\n");
+            if (p.kind() == Kind.OBJECT) {
+                src.append("        this.").append(p.serializerField()).append(" = ").append(p.serializerInitializer()).append(";\n");
+            }
+        }
+        src.append("    }\n\n");
+
+        src.append("    @Override\n");
+        src.append("    protected void serializeProperties(").append(entityName)
+                .append(" value, com.fasterxml.jackson.core.JsonGenerator gen, com.fasterxml.jackson.databind.SerializerProvider provider) throws java.io.IOException {\n");
+        String indent = usesHandles ? "            " : "        ";
+        if (usesHandles) {
+            src.append("        try {\n");
+        }
+        for (Property p : properties) {
+            src.append(indent).append("gen.writeFieldName(").append(p.nameField()).append(");\n");
+            src.append(indent).append(p.writeStatement(erasure(p.type))).append(";\n");
+        }
+        if (usesHandles) {
+            src.append("        } catch (java.io.IOException | RuntimeException | Error e) {\n");
+            src.append("            throw e;\n");
+            src.append("        } catch (Throwable t) {\n");
+            src.append("            throw new IllegalStateException(t);\n");
+            src.append("        }\n");
+        }
+        src.append("    }\n");
+        src.append("}\n");
+
+        String qualifiedSerializerName = packageName.isEmpty() ? serializerName : packageName + "." + serializerName;
+        ProcessorUtils.writeSource(processingEnv, qualifiedSerializerName, src.toString(), entity);
+        generated.add(entityName);
+    }
+
+    private void writeRegistry() {
+        String packageName = ProcessorUtils.commonPackage(generated);
+        String registryName = packageName.isEmpty() ? REGISTRY_NAME : packageName + "." + REGISTRY_NAME;
+
+        StringBuilder src = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            src.append("package ").append(packageName).append(";\n\n");
+        }
+        src.append("//generated by ").append(getClass().getName()).append(" - do not edit\n");
+        src.append("public final class ").append(REGISTRY_NAME).append(" implements ").append(REGISTRY_INTERFACE).append(" {\n\n");
+        src.append("    @Override\n");
+        src.append("    public java.util.Map<Class<?>, com.fasterxml.jackson.databind.JsonSerializer<?>> serializers(boolean useSnakeCase, com.nooul.apihelpers.springbootrest.serializers.IdReferenceSerializer associationSerializer) {\n");
+        src.append("        java.util.Map<Class<?>, com.fasterxml.jackson.databind.JsonSerializer<?>> serializers = new java.util.HashMap<>();\n");
+        for (String entityName : generated) {
+            src.append("        serializers.put(").append(entityName).append(".class, new ").append(entityName).append(SERIALIZER_SUFFIX)
+                    .append("(useSnakeCase, associationSerializer));\n");
+        }
+        src.append("        return serializers;\n");
+        src.append("    }\n");
+        src.append("}\n");
+
+        ProcessorUtils.writeSource(processingEnv, registryName, src.toString());
+        ProcessorUtils.writeService(processingEnv, REGISTRY_INTERFACE, registryName);
+    }
+
+    private List<Property> skip(TypeElement entity, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "no serializer generated for " + entity.getQualifiedName() + " because it " + reason, entity);
+        return null;
+    }
+
+    //the property of getX()/isX() with jackson's default name mangling (leading upper case letters are lower cased)
+    private static String propertyOfGetter(ExecutableElement method) {
+        if (!method.getParameters().isEmpty() || method.getModifiers().contains(Modifier.STATIC) || method.getReturnType().getKind() == TypeKind.VOID) {
+            return null;
+        }
+        String name = method.getSimpleName().toString();
+        String base;
+        if (name.startsWith("get") && name.length() > 3) {
+            base = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2 && method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+            base = name.substring(2);
+        } else {
+            return null;
+        }
+        StringBuilder property = new StringBuilder(base);
+        for (int i = 0; i < property.length() && Character.isUpperCase(property.charAt(i)); i++) {
+            property.setCharAt(i, Character.toLowerCase(property.charAt(i)));
+        }
+        return property.toString();
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private static boolean isAssociation(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (ASSOCIATIONS.contains(mirror.getAnnotationType().toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //jackson annotations and bundles of them (@JacksonAnnotationsInside) that the generated code does not follow,
+    //@JsonIgnore and @IdReference are handled
+    private static boolean hasJacksonAnnotation(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            String annotationName = mirror.getAnnotationType().toString();
+            if (annotationName.equals(JSON_IGNORE) || annotationName.equals(ID_REFERENCE)) {
+                continue;
+            }
+            if (annotationName.startsWith("com.fasterxml.jackson.")
+                    || ProcessorUtils.hasAnnotation(mirror.getAnnotationType().asElement(), "com.fasterxml.jackson.annotation.JacksonAnnotationsInside")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private enum Kind {
+        PRIMITIVE, CHAR, BYTE, BOXED, OBJECT
+    }
+
+    private static class Property {
+        private final String name;
+        private final TypeMirror type;
+        //field name or getter call, read through a MethodHandle when handle is set
+        private final String accessor;
+        private final boolean handle;
+        private final AnnotationMirror idReference;
+        private final boolean association;
+
+        private Property(String name, TypeMirror type, String accessor, boolean handle, AnnotationMirror idReference, boolean association) {
+            this.name = name;
+            this.type = type;
+            this.accessor = accessor;
+            this.handle = handle;
+            this.idReference = idReference;
+            this.association = association;
+        }
+
+        private Kind kind() {
+            if (type.getKind() == TypeKind.CHAR) {
+                return Kind.CHAR;
+            } else if (type.getKind() == TypeKind.BYTE) {
+                return Kind.BYTE;
+            } else if (type.getKind().isPrimitive()) {
+                return Kind.PRIMITIVE;
+            } else if (BOXED_TYPES.contains(type.toString())) {
+                return Kind.BOXED;
+            }
+            return Kind.OBJECT;
+        }
+
+        private String nameField() {
+            return name + "Name";
+        }
+
+        private String serializerField() {
+            return name + "Serializer";
+        }
+
+        private String handleField() {
+            return name.toUpperCase() + "_FIELD";
+        }
+
+        private String serializerInitializer() {
+            if (idReference != null) {
+                boolean wrapped = true;
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : idReference.getElementValues().entrySet()) {
+                    if (e.getKey().getSimpleName().contentEquals("wrapped")) {
+                        wrapped = (Boolean) e.getValue().getValue();
+                    }
+                }
+                return "new com.nooul.apihelpers.springbootrest.serializers.IdReferenceSerializer(" + wrapped + ")";
+            }
+            if (association) {
+                return "(com.fasterxml.jackson.databind.JsonSerializer) associationSerializer";
+            }
+            return "null";
+        }
+
+        //erasure is the declared type of the field that invokeExact has to be cast to
+        private String writeStatement(String erasure) {
+            String value = handle ? "((" + erasure + ") " + handleField() + ".invokeExact(value))" : "value." + accessor;
+            switch (kind()) {
+                case CHAR:
+                    return "gen.writeString(String.valueOf(" + value + "))";
+                case BYTE:
+                    return "gen.writeNumber((int) " + value + ")";
+                case PRIMITIVE:
+                    return (type.getKind() == TypeKind.BOOLEAN ? "gen.writeBoolean(" : "gen.writeNumber(") + value + ")";
+                case BOXED:
+                    return "writeValue(gen, " + value + ")";
+                default:
+                    return "writeValue(gen, provider, " + value + ", " + serializerField() + ")";
+            }
+        }
+    }
+}
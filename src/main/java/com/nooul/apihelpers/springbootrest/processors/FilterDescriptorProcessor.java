@@ -0,0 +1,197 @@
+package com.nooul.apihelpers.springbootrest.processors;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+//generates a FilterDescriptor for each @Entity with the same information the JPA static metamodel carries
+//(attributes, kinds, id types and association targets) plus the snake_case aliases of the filter language
+@SupportedAnnotationTypes("javax.persistence.Entity")
+public class FilterDescriptorProcessor extends AbstractProcessor {
+
+    private static final String REGISTRY_INTERFACE = "com.nooul.apihelpers.springbootrest.specifications.FilterDescriptorRegistry";
+    private static final String REGISTRY_NAME = "GeneratedFilterDescriptors";
+    private static final String DESCRIPTOR_SUFFIX = "FilterDescriptor";
+    private static final String ATTRIBUTE = "com.nooul.apihelpers.springbootrest.specifications.FilterAttribute";
+
+    private static final PropertyNamingStrategy.SnakeCaseStrategy SNAKE_CASE = new PropertyNamingStrategy.SnakeCaseStrategy();
+
+    private final List<String> generated = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!generated.isEmpty()) {
+                writeRegistry();
+            }
+            return false;
+        }
+        for (TypeElement annotation : annotations) {
+            for (TypeElement entity : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                if (entity.getNestingKind() == NestingKind.TOP_LEVEL) {
+                    writeDescriptor(entity);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void writeDescriptor(TypeElement entity) {
+        String packageName = ProcessorUtils.packageOf(processingEnv, entity);
+        String entityName = entity.getQualifiedName().toString();
+        String descriptorName = entity.getSimpleName() + DESCRIPTOR_SUFFIX;
+        VariableElement idField = ProcessorUtils.findIdField(processingEnv, entity);
+
+        StringBuilder src = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            src.append("package ").append(packageName).append(";\n\n");
+        }
+        src.append("//generated by ").append(getClass().getName()).append(" - do not edit\n");
+        src.append("public final class ").append(descriptorName)
+                .append(" extends com.nooul.apihelpers.springbootrest.specifications.FilterDescriptor {\n\n");
+        src.append("    public ").append(descriptorName).append("() {\n");
+        src.append("        super(").append(entityName).append(".class,\n");
+        src.append("                ").append(idField == null ? "null" : "\"" + idField.getSimpleName() + "\"").append(",\n");
+        src.append("                ").append(ProcessorUtils.classLiteral(processingEnv, idField == null ? null : idField.asType()));
+
+        //attributes of mapped superclasses are part of the metamodel of the entity too
+        for (TypeElement current = entity; current != null; current = ProcessorUtils.superclassOf(processingEnv, current)) {
+            if (current != entity && !ProcessorUtils.hasAnnotation(current, "javax.persistence.MappedSuperclass")) {
+                break;
+            }
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT) || ProcessorUtils.hasAnnotation(field, "javax.persistence.Transient")) {
+                    continue;
+                }
+                src.append(",\n                ").append(attribute(field));
+            }
+        }
+        src.append(");\n");
+        src.append("    }\n");
+        src.append("}\n");
+
+        String qualifiedDescriptorName = packageName.isEmpty() ? descriptorName : packageName + "." + descriptorName;
+        ProcessorUtils.writeSource(processingEnv, qualifiedDescriptorName, src.toString(), entity);
+        generated.add(entityName);
+    }
+
+    private String attribute(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        TypeMirror type = processingEnv.getTypeUtils().erasure(field.asType());
+        String simpleName = simpleName(type);
+
+        String kind;
+        TypeMirror targetType = null;
+        if (ProcessorUtils.hasAnnotation(field, "javax.persistence.ManyToOne") || ProcessorUtils.hasAnnotation(field, "javax.persistence.OneToOne")) {
+            kind = "TO_ONE";
+            targetType = field.asType();
+        } else if (ProcessorUtils.hasAnnotation(field, "javax.persistence.OneToMany") || ProcessorUtils.hasAnnotation(field, "javax.persistence.ManyToMany")) {
+            kind = "TO_MANY";
+            targetType = elementType(field.asType());
+        } else if (ProcessorUtils.hasAnnotation(field, "javax.persistence.ElementCollection")) {
+            kind = "ELEMENT_COLLECTION";
+            targetType = elementType(field.asType());
+        } else if (type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) {
+            kind = "ENUM";
+        } else if (simpleName.equalsIgnoreCase("uuid")) {
+            kind = "UUID";
+        } else if (isPrimitive(simpleName)) {
+            kind = "BASIC";
+        } else {
+            kind = "OTHER";
+        }
+
+        String targetIdName = null;
+        TypeMirror targetIdType = null;
+        if (targetType != null && targetType.getKind() == TypeKind.DECLARED) {
+            VariableElement targetId = ProcessorUtils.findIdField(processingEnv, (TypeElement) ((DeclaredType) targetType).asElement());
+            if (targetId != null) {
+                targetIdName = targetId.getSimpleName().toString();
+                targetIdType = targetId.asType();
+            }
+        }
+
+        return "new " + ATTRIBUTE + "(\"" + name + "\", \"" + SNAKE_CASE.translate(name) + "\", "
+                + ProcessorUtils.classLiteral(processingEnv, type) + ", "
+                + ATTRIBUTE + ".Kind." + kind + ", "
+                + isPrimitive(simpleName) + ", "
+                + simpleName.equalsIgnoreCase("string") + ", "
+                + ProcessorUtils.classLiteral(processingEnv, targetType == null ? null : processingEnv.getTypeUtils().erasure(targetType)) + ", "
+                + (targetIdName == null ? "null" : "\"" + targetIdName + "\"") + ", "
+                + ProcessorUtils.classLiteral(processingEnv, targetIdType) + ")";
+    }
+
+    private void writeRegistry() {
+        String packageName = ProcessorUtils.commonPackage(generated);
+        String registryName = packageName.isEmpty() ? REGISTRY_NAME : packageName + "." + REGISTRY_NAME;
+
+        StringBuilder src = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            src.append("package ").append(packageName).append(";\n\n");
+        }
+        src.append("//generated by ").append(getClass().getName()).append(" - do not edit\n");
+        src.append("public final class ").append(REGISTRY_NAME).append(" implements ").append(REGISTRY_INTERFACE).append(" {\n\n");
+        src.append("    @Override\n");
+        src.append("    public java.util.Map<Class<?>, com.nooul.apihelpers.springbootrest.specifications.FilterDescriptor> descriptors() {\n");
+        src.append("        java.util.Map<Class<?>, com.nooul.apihelpers.springbootrest.specifications.FilterDescriptor> descriptors = new java.util.HashMap<>();\n");
+        for (String entityName : generated) {
+            src.append("        descriptors.put(").append(entityName).append(".class, new ").append(entityName).append(DESCRIPTOR_SUFFIX).append("());\n");
+        }
+        src.append("        return descriptors;\n");
+        src.append("    }\n");
+        src.append("}\n");
+
+        ProcessorUtils.writeSource(processingEnv, registryName, src.toString());
+        ProcessorUtils.writeService(processingEnv, REGISTRY_INTERFACE, registryName);
+    }
+
+    //element type of collections and value type of maps
+    private TypeMirror elementType(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+        if (typeArguments.isEmpty()) {
+            return null;
+        }
+        return typeArguments.get(typeArguments.size() - 1);
+    }
+
+    private static String simpleName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.toString();
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return ((DeclaredType) type).asElement().getSimpleName().toString();
+        }
+        return type.toString();
+    }
+
+    //same rules as CustomSpecifications.isPrimitive on the simple name of the java type
+    private static boolean isPrimitive(String simpleName) {
+        String name = simpleName.toLowerCase();
+        return name.startsWith("int") ||
+                name.startsWith("long") ||
+                name.equals("boolean") ||
+                name.equals("string") ||
+                name.equals("float") ||
+                name.equals("double");
+    }
+}
@@ -0,0 +1,111 @@
+package com.nooul.apihelpers.springbootrest.processors;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+class ProcessorUtils {
+
+    private ProcessorUtils() {
+
+    }
+
+    static String packageOf(ProcessingEnvironment processingEnv, TypeElement type) {
+        return processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    }
+
+    static String commonPackage(List<String> classNames) {
+        String common = null;
+        for (String className : classNames) {
+            int lastDot = className.lastIndexOf('.');
+            String packageName = lastDot < 0 ? "" : className.substring(0, lastDot);
+            if (common == null) {
+                common = packageName;
+            }
+            while (!packageName.equals(common) && !packageName.startsWith(common + ".")) {
+                int dot = common.lastIndexOf('.');
+                common = dot < 0 ? "" : common.substring(0, dot);
+                if (common.isEmpty()) {
+                    break;
+                }
+            }
+        }
+        return common == null ? "" : common;
+    }
+
+    static boolean hasAnnotation(Element element, String annotationName) {
+        return getAnnotation(element, annotationName) != null;
+    }
+
+    static AnnotationMirror getAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().toString().equals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    //first field annotated with @Id or @EmbeddedId of the type or its superclasses
+    static VariableElement findIdField(ProcessingEnvironment processingEnv, TypeElement type) {
+        for (TypeElement current = type; current != null; current = superclassOf(processingEnv, current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (hasAnnotation(field, "javax.persistence.Id") || hasAnnotation(field, "javax.persistence.EmbeddedId")) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    static TypeElement superclassOf(ProcessingEnvironment processingEnv, TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) processingEnv.getTypeUtils().asElement(superclass);
+    }
+
+    //java source literal of the erased type e.g. long.class or java.util.List.class
+    static String classLiteral(ProcessingEnvironment processingEnv, TypeMirror type) {
+        if (type == null) {
+            return "null";
+        }
+        if (type.getKind().isPrimitive()) {
+            return type.toString() + ".class";
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return "Object.class";
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        return processingEnv.getElementUtils().getBinaryName(element).toString().replace('$', '.') + ".class";
+    }
+
+    static void writeSource(ProcessingEnvironment processingEnv, String qualifiedName, String source, Element... originatingElements) {
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, originatingElements).openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "could not generate " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    static void writeService(ProcessingEnvironment processingEnv, String serviceInterface, String implementation) {
+        try {
+            FileObject services = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + serviceInterface);
+            try (Writer writer = services.openWriter()) {
+                writer.write(implementation + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "could not register " + implementation + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.nooul.apihelpers.springbootrest.providers;
+
+import org.hibernate.NullPrecedence;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+
+//every order by of the query gets an explicit NULLS FIRST (unless hibernate.order_by.default_null_ordering is set)
+//instead of the database default, so InMemorySpecifications and ColumnarSnapshots can sort nulls the same way
+@Service
+public class NullOrderingProvider implements HibernatePropertiesCustomizer {
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.putIfAbsent(AvailableSettings.DEFAULT_NULL_ORDERING, "first");
+    }
+
+    //nulls last only when the application asked for it, in both directions like the query
+    public static boolean nullsLast(EntityManagerFactory entityManagerFactory) {
+        NullPrecedence precedence = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getSessionFactoryOptions().getDefaultNullPrecedence();
+        return precedence == NullPrecedence.LAST;
+    }
+}
@@ -3,28 +3,143 @@ package com.nooul.apihelpers.springbootrest.providers;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.nooul.apihelpers.springbootrest.serializers.EntitySerializersModule;
+import com.nooul.apihelpers.springbootrest.serializers.IdReferenceModule;
+import com.nooul.apihelpers.springbootrest.utils.JSON;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+
 @Service
 public class ObjectMapperProvider {
 
+    public enum Profile {
+        DEFAULT,
+        //bytecode generated property access through Afterburner and no flushing after each value
+        FAST
+    }
+
     @Autowired
     private Environment env;
 
+    private ObjectMapper mapper;
+
+    private ObjectMapper smileMapper;
+
+    private ObjectMapper cborMapper;
+
+    @PostConstruct
+    public void init() {
+        boolean useSnakeCase = usesSnakeCase();
+        Profile profile = profile();
+        Boolean associationsWrapped = associationsWrapped();
+        //serializers generated at compile time by EntitySerializerProcessor if it ran on the entities, unless turned off
+        EntitySerializersModule entitySerializers = new EntitySerializersModule(useSnakeCase, associationsWrapped);
+        mapper = configureSerializers(configure(new ObjectMapper(), useSnakeCase, profile), associationsWrapped, entitySerializers);
+        smileMapper = configureSerializers(configure(new ObjectMapper(new SmileFactory()), useSnakeCase, profile), associationsWrapped, entitySerializers);
+        cborMapper = configureSerializers(configure(new ObjectMapper(new CBORFactory()), useSnakeCase, profile), associationsWrapped, entitySerializers);
+        //keep the static JSON utility in line with the naming strategy of the API
+        JSON.configure(useSnakeCase, profile);
+    }
+
+    //the mapper is shared so that Jackson's serializer and deserializer caches are reused between requests.
+    //do not reconfigure it, that changes every response - take copyObjectMapper() instead
     public ObjectMapper getObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
+        return mapper;
+    }
+
+    //a mapper of its own with the same configuration and modules, to change without affecting the shared one
+    public ObjectMapper copyObjectMapper() {
+        return mapper.copy();
+    }
+
+    public ObjectMapper getSmileObjectMapper() {
+        return smileMapper;
+    }
+
+    public ObjectMapper getCborObjectMapper() {
+        return cborMapper;
+    }
+
+    //application/x-jackson-smile through content negotiation - expose as @Bean to replace the default converter
+    public MappingJackson2SmileHttpMessageConverter getSmileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(smileMapper);
+    }
+
+    //application/cbor through content negotiation - expose as @Bean to replace the default converter
+    public MappingJackson2CborHttpMessageConverter getCborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper);
+    }
+
+    public static ObjectMapper configure(ObjectMapper mapper, boolean useSnakeCase) {
+        return configure(mapper, useSnakeCase, Profile.DEFAULT);
+    }
+
+    public static ObjectMapper configure(ObjectMapper mapper, boolean useSnakeCase, Profile profile) {
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         mapper.configure(MapperFeature.DEFAULT_VIEW_INCLUSION, true);
         mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
 
         mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
         mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-        String usesSnakeCase = env.getProperty("spring-boot-rest-api-helpers.use-snake-case");
-        if (usesSnakeCase != null && usesSnakeCase.equals("true")) {
+        if (useSnakeCase) {
             mapper.setPropertyNamingStrategy(PropertyNamingStrategy.SNAKE_CASE);
         }
+        if (profile == Profile.FAST) {
+            mapper.registerModule(new AfterburnerModule());
+            mapper.configure(SerializationFeature.FLUSH_AFTER_WRITE_VALUE, false);
+        }
         return mapper;
     }
+
+    private ObjectMapper configureSerializers(ObjectMapper mapper, Boolean associationsWrapped, EntitySerializersModule entitySerializers) {
+        if (associationsWrapped != null) {
+            mapper.registerModule(new IdReferenceModule(associationsWrapped));
+        }
+        if (!entitySerializers.isEmpty() && usesGeneratedSerializers()) {
+            mapper.registerModule(entitySerializers);
+        }
+        return mapper;
+    }
+
+    //full (default) serializes association graphs, id-reference writes {id: ...} and id writes the bare id
+    private Boolean associationsWrapped() {
+        String associations = env.getProperty("spring-boot-rest-api-helpers.serialize-associations-as");
+        if ("id-reference".equals(associations)) {
+            return true;
+        } else if ("id".equals(associations)) {
+            return false;
+        }
+        return null;
+    }
+
+    private boolean usesGeneratedSerializers() {
+        return env.getProperty("spring-boot-rest-api-helpers.generated-serializers", Boolean.class, true);
+    }
+
+    private boolean usesSnakeCase() {
+        String usesSnakeCase = env.getProperty("spring-boot-rest-api-helpers.use-snake-case");
+        return usesSnakeCase != null && usesSnakeCase.equals("true");
+    }
+
+    private Profile profile() {
+        String profile = env.getProperty("spring-boot-rest-api-helpers.object-mapper-profile");
+        if (profile == null || profile.trim().isEmpty()) {
+            return Profile.DEFAULT;
+        }
+        try {
+            return Profile.valueOf(profile.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("spring-boot-rest-api-helpers.object-mapper-profile must be one of "
+                    + Arrays.toString(Profile.values()).toLowerCase() + ", not " + profile, e);
+        }
+    }
 }
@@ -0,0 +1,278 @@
+package com.nooul.apihelpers.springbootrest.repositories;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerGroup;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.PostInsertIdentifierGenerator;
+import org.hibernate.jpa.event.spi.CallbackRegistryConsumer;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+//repository base class that implements the batched writes of BatchWriteRepository: one INSERT ... VALUES (...), (...) statement per batch
+//instead of one statement per entity, which also works for IDENTITY ids because the generated keys of all rows are read back
+public class BaseRepositoryImpl<T, ID extends Serializable> extends SimpleJpaRepository<T, ID> implements BaseRepository<T, ID>, BatchWriteRepository<T, ID> {
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    //stays below the bind parameter limits of the databases (32767 on PostgreSQL)
+    private static final int MAX_PARAMETERS = 30000;
+
+    private final JpaEntityInformation<T, ?> entityInformation;
+    private final EntityManager em;
+
+    public BaseRepositoryImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager em) {
+        super(entityInformation, em);
+        this.entityInformation = entityInformation;
+        this.em = em;
+    }
+
+    @Override
+    @Transactional
+    public List<ID> insertAll(Iterable<? extends T> entities) {
+        return insertAll(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    @Transactional
+    public List<ID> insertAll(Iterable<? extends T> entities, int batchSize) {
+        return write(entities, batchSize, false);
+    }
+
+    @Override
+    @Transactional
+    public List<ID> upsertAll(Iterable<? extends T> entities) {
+        return upsertAll(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    @Transactional
+    public List<ID> upsertAll(Iterable<? extends T> entities, int batchSize) {
+        return write(entities, batchSize, true);
+    }
+
+    private List<ID> write(Iterable<? extends T> entities, int batchSize, boolean upsert) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        List<T> rows = new ArrayList<>();
+        entities.forEach(rows::add);
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        //pending changes of the persistence context go first so that referenced rows exist
+        session.flush();
+        Table table = new Table(session, entityInformation.getJavaType(), upsert);
+        return session.doReturningWork(connection -> table.write(connection, rows, batchSize, upsert));
+    }
+
+    //the columns of a single table entity as hibernate maps them
+    private class Table {
+        private final SessionImplementor session;
+        private final AbstractEntityPersister persister;
+        private final Dialect dialect;
+        private final boolean identity;
+        private final List<Integer> properties = new ArrayList<>();
+        private final List<String> columns = new ArrayList<>();
+
+        Table(SessionImplementor session, Class<?> clazz, boolean upsert) {
+            this.session = session;
+            this.persister = (AbstractEntityPersister) session.getFactory().getMetamodel().entityPersister(clazz);
+            if (persister.getTableSpan() != 1 || persister.getEntityMetamodel().isPolymorphic() || persister.getIdentifierColumnNames().length != 1) {
+                throw new IllegalArgumentException(clazz.getName() + " is not mapped to a single table with a single id column");
+            }
+            this.dialect = session.getJdbcServices().getDialect();
+            if (upsert && !(dialect instanceof H2Dialect || dialect instanceof PostgreSQL81Dialect || dialect instanceof MySQLDialect)) {
+                throw new IllegalArgumentException("upserts are only supported on H2, PostgreSQL and MySQL, not on " + dialect.getClass().getName());
+            }
+            this.identity = persister.getIdentifierGenerator() instanceof PostInsertIdentifierGenerator;
+
+            boolean[] insertable = persister.getPropertyInsertability();
+            for (int i = 0; i < persister.getPropertyNames().length; i++) {
+                //collections live in other tables and have no columns here
+                if (insertable[i] && persister.getPropertyColumnSpan(i) > 0) {
+                    properties.add(i);
+                    columns.addAll(Arrays.asList(persister.getPropertyColumnNames(i)));
+                }
+            }
+        }
+
+        List<ID> write(Connection connection, List<T> rows, int batchSize, boolean upsert) throws SQLException {
+            List<T> inserts = new ArrayList<>();
+            List<T> merges = new ArrayList<>();
+            for (T row : rows) {
+                if (upsert && !isUnsaved(persister.getIdentifier(row, session))) {
+                    merges.add(row);
+                } else {
+                    inserts.add(row);
+                }
+            }
+
+            int rowsPerStatement = Math.max(1, Math.min(batchSize, MAX_PARAMETERS / (columns.size() + 1)));
+            for (int from = 0; from < inserts.size(); from += rowsPerStatement) {
+                insert(connection, inserts.subList(from, Math.min(inserts.size(), from + rowsPerStatement)));
+            }
+            for (int from = 0; from < merges.size(); from += rowsPerStatement) {
+                merge(connection, merges.subList(from, Math.min(merges.size(), from + rowsPerStatement)));
+            }
+            forgetCopies(merges);
+
+            List<ID> ids = new ArrayList<>(rows.size());
+            for (T row : rows) {
+                ids.add((ID) persister.getIdentifier(row, session));
+            }
+            notifyListeners(inserts, merges);
+            return ids;
+        }
+
+        //merged rows were overwritten behind hibernate's back, so cached and managed copies of them are stale
+        private void forgetCopies(List<T> merges) {
+            for (T row : merges) {
+                Serializable id = persister.getIdentifier(row, session);
+                session.getFactory().getCache().evictEntityData(persister.getEntityName(), id);
+                Object managed = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+                if (managed != null) {
+                    session.evict(managed);
+                }
+            }
+        }
+
+        //the statements bypass the action queue, so post insert/update listeners (caches, auditing) are called here
+        //except the ones running JPA callbacks, which need managed entities and do not run for bulk writes either
+        private void notifyListeners(List<T> inserts, List<T> merges) {
+            EventListenerRegistry listeners = session.getFactory().getServiceRegistry().getService(EventListenerRegistry.class);
+            EventListenerGroup<PostInsertEventListener> postInsert = listeners.getEventListenerGroup(EventType.POST_INSERT);
+            for (T row : inserts) {
+                PostInsertEvent event = new PostInsertEvent(row, persister.getIdentifier(row, session), persister.getPropertyValues(row), persister, (EventSource) session);
+                for (PostInsertEventListener listener : postInsert.listeners()) {
+                    if (!(listener instanceof CallbackRegistryConsumer)) {
+                        listener.onPostInsert(event);
+                    }
+                }
+            }
+            EventListenerGroup<PostUpdateEventListener> postUpdate = listeners.getEventListenerGroup(EventType.POST_UPDATE);
+            for (T row : merges) {
+                PostUpdateEvent event = new PostUpdateEvent(row, persister.getIdentifier(row, session), persister.getPropertyValues(row), null, null, persister, (EventSource) session);
+                for (PostUpdateEventListener listener : postUpdate.listeners()) {
+                    if (!(listener instanceof CallbackRegistryConsumer)) {
+                        listener.onPostUpdate(event);
+                    }
+                }
+            }
+        }
+
+        private void insert(Connection connection, List<T> rows) throws SQLException {
+            if (!identity) {
+                for (T row : rows) {
+                    if (isUnsaved(persister.getIdentifier(row, session))) {
+                        persister.setIdentifier(row, persister.getIdentifierGenerator().generate(session, row), session);
+                    }
+                }
+            }
+            String sql = "insert into " + persister.getTableName(0) + " (" + columnList(!identity) + ") values " + valuesList(rows.size(), !identity);
+            String idColumn = persister.getIdentifierColumnNames()[0];
+            try (PreparedStatement statement = identity ? connection.prepareStatement(sql, new String[]{idColumn}) : connection.prepareStatement(sql)) {
+                bind(statement, rows, !identity);
+                statement.executeUpdate();
+                if (identity) {
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (T row : rows) {
+                            if (!keys.next()) {
+                                throw new SQLException("the database returned fewer generated keys than inserted rows");
+                            }
+                            persister.setIdentifier(row, IdentifierGeneratorHelper.get(keys, idColumn, persister.getIdentifierType(), dialect), session);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void merge(Connection connection, List<T> rows) throws SQLException {
+            String idColumn = persister.getIdentifierColumnNames()[0];
+            String sql;
+            if (dialect instanceof H2Dialect) {
+                sql = "merge into " + persister.getTableName(0) + " (" + columnList(true) + ") key (" + idColumn + ") values " + valuesList(rows.size(), true);
+            } else if (dialect instanceof PostgreSQL81Dialect) {
+                List<String> updates = new ArrayList<>();
+                columns.forEach(column -> updates.add(column + " = excluded." + column));
+                sql = "insert into " + persister.getTableName(0) + " (" + columnList(true) + ") values " + valuesList(rows.size(), true)
+                        + " on conflict (" + idColumn + ") do update set " + String.join(", ", updates);
+            } else {
+                //mysql, the constructor rejects the other dialects
+                List<String> updates = new ArrayList<>();
+                columns.forEach(column -> updates.add(column + " = values(" + column + ")"));
+                sql = "insert into " + persister.getTableName(0) + " (" + columnList(true) + ") values " + valuesList(rows.size(), true)
+                        + " on duplicate key update " + String.join(", ", updates);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                bind(statement, rows, true);
+                statement.executeUpdate();
+            }
+        }
+
+        private void bind(PreparedStatement statement, List<T> rows, boolean withId) throws SQLException {
+            Type[] types = persister.getPropertyTypes();
+            int index = 1;
+            for (T row : rows) {
+                if (withId) {
+                    persister.getIdentifierType().nullSafeSet(statement, persister.getIdentifier(row, session), index, session);
+                    index++;
+                }
+                Object[] values = persister.getPropertyValues(row);
+                if (persister.isVersioned() && values[persister.getVersionProperty()] == null) {
+                    values[persister.getVersionProperty()] = persister.getVersionType().seed(session);
+                    persister.setPropertyValue(row, persister.getVersionProperty(), values[persister.getVersionProperty()]);
+                }
+                for (int property : properties) {
+                    types[property].nullSafeSet(statement, values[property], index, session);
+                    index += persister.getPropertyColumnSpan(property);
+                }
+            }
+        }
+
+        private String columnList(boolean withId) {
+            List<String> names = new ArrayList<>();
+            if (withId) {
+                names.add(persister.getIdentifierColumnNames()[0]);
+            }
+            names.addAll(columns);
+            return String.join(", ", names);
+        }
+
+        private String valuesList(int rows, boolean withId) {
+            int parameters = columns.size() + (withId ? 1 : 0);
+            String row = "(" + String.join(", ", Collections.nCopies(parameters, "?")) + ")";
+            return String.join(", ", Collections.nCopies(rows, row));
+        }
+
+        private boolean isUnsaved(Object id) {
+            Boolean unsaved = persister.getEntityMetamodel().getIdentifierProperty().getUnsavedValue().isUnsaved(id);
+            return unsaved == null ? id == null : unsaved;
+        }
+    }
+}
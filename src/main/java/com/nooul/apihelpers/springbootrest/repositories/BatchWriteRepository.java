@@ -0,0 +1,24 @@
+package com.nooul.apihelpers.springbootrest.repositories;
+
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.io.Serializable;
+import java.util.List;
+
+//opt-in multi-row writes: extend it next to BaseRepository and set BaseRepositoryImpl as repositoryBaseClass
+//in @EnableJpaRepositories, which implements them
+@NoRepositoryBean
+public interface BatchWriteRepository<T, ID extends Serializable> {
+
+    //multi-row INSERT statements written straight through JDBC, returns the ids in the order of the entities and sets them on the entities
+    //the rows are not added to the persistence context and collections (join tables) are not written
+    List<ID> insertAll(Iterable<? extends T> entities);
+
+    List<ID> insertAll(Iterable<? extends T> entities, int batchSize);
+
+    //entities with an id are inserted or overwritten (MERGE INTO on H2, ON CONFLICT on PostgreSQL, ON DUPLICATE KEY on MySQL,
+    //other dialects are rejected), the others are inserted. managed and cached copies of overwritten rows are evicted
+    List<ID> upsertAll(Iterable<? extends T> entities);
+
+    List<ID> upsertAll(Iterable<? extends T> entities, int batchSize);
+}
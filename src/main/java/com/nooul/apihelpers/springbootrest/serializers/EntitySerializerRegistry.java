@@ -0,0 +1,12 @@
+package com.nooul.apihelpers.springbootrest.serializers;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+
+import java.util.Map;
+
+//implemented by the classes generated by EntitySerializerProcessor and found through ServiceLoader
+public interface EntitySerializerRegistry {
+
+    //associationSerializer is null when associations are serialized as full graphs
+    Map<Class<?>, JsonSerializer<?>> serializers(boolean useSnakeCase, IdReferenceSerializer associationSerializer);
+}
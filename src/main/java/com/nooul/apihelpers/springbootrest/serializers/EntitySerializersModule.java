@@ -0,0 +1,60 @@
+package com.nooul.apihelpers.springbootrest.serializers;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.Serializers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+//registers the serializers generated at compile time by EntitySerializerProcessor
+public class EntitySerializersModule extends SimpleModule {
+
+    private final Map<Class<?>, JsonSerializer<?>> serializers = new HashMap<>();
+
+    //associationsWrapped is null when associations are serialized as full graphs
+    public EntitySerializersModule(boolean useSnakeCase, Boolean associationsWrapped) {
+        this(useSnakeCase, associationsWrapped, EntitySerializersModule.class.getClassLoader());
+    }
+
+    public EntitySerializersModule(boolean useSnakeCase, Boolean associationsWrapped, ClassLoader classLoader) {
+        super(EntitySerializersModule.class.getSimpleName());
+        IdReferenceSerializer associationSerializer = (associationsWrapped == null) ? null : new IdReferenceSerializer(associationsWrapped);
+        for (EntitySerializerRegistry registry : ServiceLoader.load(EntitySerializerRegistry.class, classLoader)) {
+            serializers.putAll(registry.serializers(useSnakeCase, associationSerializer));
+        }
+    }
+
+    //the generated serializers write every property the way the default mapper configuration does, mappers that
+    //leave out properties by their value or change them through a mix-in keep the bean serializer
+    private static boolean writesEveryProperty(SerializationConfig config, Class<?> clazz) {
+        JsonInclude.Include inclusion = config.getDefaultPropertyInclusion(clazz).getValueInclusion();
+        return (inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS)
+                && config.findMixInClassFor(clazz) == null;
+    }
+
+    public boolean isEmpty() {
+        return serializers.isEmpty();
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+        //exact class matches only - subclasses and hibernate proxies keep the reflective bean serializer
+        context.addSerializers(new Serializers.Base() {
+            @Override
+            public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type, BeanDescription beanDesc) {
+                JsonSerializer<?> serializer = serializers.get(type.getRawClass());
+                if (serializer == null || !writesEveryProperty(config, type.getRawClass())) {
+                    return null;
+                }
+                return serializer;
+            }
+        });
+    }
+}
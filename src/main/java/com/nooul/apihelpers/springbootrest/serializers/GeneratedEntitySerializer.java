@@ -0,0 +1,146 @@
+package com.nooul.apihelpers.springbootrest.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+
+//base class of the serializers generated by EntitySerializerProcessor
+public abstract class GeneratedEntitySerializer<T> extends StdSerializer<T> {
+
+    protected GeneratedEntitySerializer(Class<T> t) {
+        super(t);
+    }
+
+    //the properties between the braces of the object
+    protected abstract void serializeProperties(T value, JsonGenerator gen, SerializerProvider provider) throws IOException;
+
+    @Override
+    public final void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        if (includesProperties(provider)) {
+            serializeProperties(value, gen, provider);
+        }
+        gen.writeEndObject();
+    }
+
+    //default typing or @JsonTypeInfo on a supertype, the type id is written around the properties like the bean serializer does
+    @Override
+    public final void serializeWithType(T value, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+        gen.setCurrentValue(value);
+        WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(value, JsonToken.START_OBJECT));
+        if (includesProperties(provider)) {
+            serializeProperties(value, gen, provider);
+        }
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+    //entities with @JsonView are left to the bean serializer, so with an active view their properties are all
+    //in it or, without DEFAULT_VIEW_INCLUSION, none of them is. checked per call since writers with and without
+    //a view share the serializers of their mapper
+    private static boolean includesProperties(SerializerProvider provider) {
+        return provider.getActiveView() == null || provider.isEnabled(MapperFeature.DEFAULT_VIEW_INCLUSION);
+    }
+
+    //reads a private field like jackson's field access does, invokeExact on a static final handle is as fast as the field
+    protected static MethodHandle fieldGetter(Class<?> clazz, String name) {
+        try {
+            Field field = clazz.getDeclaredField(name);
+            return MethodHandles.privateLookupIn(clazz, MethodHandles.lookup()).findGetter(clazz, name, field.getType());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("cannot read field " + name + " of " + clazz.getName(), e);
+        }
+    }
+
+    protected static void writeValue(JsonGenerator gen, String value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    protected static void writeValue(JsonGenerator gen, Integer value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    protected static void writeValue(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    protected static void writeValue(JsonGenerator gen, Short value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    protected static void writeValue(JsonGenerator gen, Byte value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.intValue());
+        }
+    }
+
+    protected static void writeValue(JsonGenerator gen, Double value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    protected static void writeValue(JsonGenerator gen, Float value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    protected static void writeValue(JsonGenerator gen, Boolean value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeBoolean(value);
+        }
+    }
+
+    protected static void writeValue(JsonGenerator gen, Character value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(String.valueOf(value));
+        }
+    }
+
+    //serializer is null for values that are left to the serializers of the provider
+    protected static void writeValue(JsonGenerator gen, SerializerProvider provider, Object value, JsonSerializer<Object> serializer) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (serializer == null) {
+            provider.defaultSerializeValue(value, gen);
+        } else {
+            serializer.serialize(value, gen, provider);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.nooul.apihelpers.springbootrest.serializers;
+
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//serializes an association (single entity or collection of entities) as references to their primary keys
+//e.g. {director: {id: 1}} or {director: 1} when wrapped = false
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@JacksonAnnotationsInside
+@JsonSerialize(using = IdReferenceSerializer.class)
+public @interface IdReference {
+    boolean wrapped() default true;
+}
@@ -0,0 +1,47 @@
+package com.nooul.apihelpers.springbootrest.serializers;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+
+import javax.persistence.ManyToMany;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OneToOne;
+import java.util.List;
+
+//serializes every JPA association as id references unless it has its own @IdReference/@JsonSerialize
+public class IdReferenceModule extends SimpleModule {
+
+    private final boolean wrapped;
+
+    public IdReferenceModule(boolean wrapped) {
+        super(IdReferenceModule.class.getSimpleName());
+        this.wrapped = wrapped;
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+        context.addBeanSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc, List<BeanPropertyWriter> beanProperties) {
+                for (BeanPropertyWriter writer : beanProperties) {
+                    if (isAssociation(writer) && !writer.hasSerializer()) {
+                        writer.assignSerializer(new IdReferenceSerializer(wrapped));
+                    }
+                }
+                return beanProperties;
+            }
+        });
+    }
+
+    private boolean isAssociation(BeanPropertyWriter writer) {
+        return writer.getAnnotation(ManyToOne.class) != null ||
+                writer.getAnnotation(OneToOne.class) != null ||
+                writer.getAnnotation(OneToMany.class) != null ||
+                writer.getAnnotation(ManyToMany.class) != null;
+    }
+}
@@ -0,0 +1,149 @@
+package com.nooul.apihelpers.springbootrest.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+
+import javax.persistence.EmbeddedId;
+import javax.persistence.Id;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//writes entities as {id: ...} (or the bare id) for Long, UUID, @EmbeddedId and @IdClass keys
+//the id of a hibernate proxy is read from its LazyInitializer so the association is never initialized
+public class IdReferenceSerializer extends StdSerializer<Object> implements ContextualSerializer {
+
+    private static final Map<Class<?>, Field[]> ID_FIELDS = new ConcurrentHashMap<>();
+
+    private final boolean wrapped;
+
+    public IdReferenceSerializer() {
+        this(true);
+    }
+
+    public IdReferenceSerializer(boolean wrapped) {
+        super(Object.class);
+        this.wrapped = wrapped;
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider sp, BeanProperty property) {
+        if (property != null) {
+            IdReference idReference = property.getAnnotation(IdReference.class);
+            if (idReference != null && idReference.wrapped() != wrapped) {
+                return new IdReferenceSerializer(idReference.wrapped());
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void serialize(Object value, JsonGenerator jgen, SerializerProvider sp) throws IOException {
+        if (value instanceof Iterable) {
+            jgen.writeStartArray();
+            for (Object entity : (Iterable) value) {
+                serializeEntity(entity, jgen, sp);
+            }
+            jgen.writeEndArray();
+        } else if (value instanceof Object[]) {
+            jgen.writeStartArray();
+            for (Object entity : (Object[]) value) {
+                serializeEntity(entity, jgen, sp);
+            }
+            jgen.writeEndArray();
+        } else {
+            serializeEntity(value, jgen, sp);
+        }
+    }
+
+    private void serializeEntity(Object entity, JsonGenerator jgen, SerializerProvider sp) throws IOException {
+        if (entity == null) {
+            jgen.writeNull();
+            return;
+        }
+
+        Class<?> entityClass;
+        Object proxiedId = null;
+        if (entity instanceof HibernateProxy) {
+            LazyInitializer initializer = ((HibernateProxy) entity).getHibernateLazyInitializer();
+            entityClass = initializer.getPersistentClass();
+            proxiedId = initializer.getIdentifier();
+        } else {
+            entityClass = entity.getClass();
+        }
+
+        Field[] idFields = getIdFields(entityClass);
+        if (idFields.length == 0) {
+            throw JsonMappingException.from(jgen, "no @Id or @EmbeddedId found on " + entityClass.getName());
+        }
+
+        //@IdClass keys are always written as an object of their id attributes
+        if (idFields.length > 1) {
+            jgen.writeStartObject();
+            for (Field idField : idFields) {
+                jgen.writeFieldName(propertyName(sp, idField));
+                sp.defaultSerializeValue(idValue(entity, proxiedId, idField), jgen);
+            }
+            jgen.writeEndObject();
+            return;
+        }
+
+        Object id = (proxiedId != null) ? proxiedId : idValue(entity, null, idFields[0]);
+        if (wrapped) {
+            jgen.writeStartObject();
+            jgen.writeFieldName(propertyName(sp, idFields[0]));
+            sp.defaultSerializeValue(id, jgen);
+            jgen.writeEndObject();
+        } else {
+            sp.defaultSerializeValue(id, jgen);
+        }
+    }
+
+    private Object idValue(Object entity, Object proxiedId, Field idField) throws IOException {
+        try {
+            //the identifier of an @IdClass proxy is an instance carrying the same id attributes
+            if (proxiedId != null) {
+                Field field = proxiedId.getClass().getDeclaredField(idField.getName());
+                field.setAccessible(true);
+                return field.get(proxiedId);
+            }
+            return idField.get(entity);
+        } catch (IllegalAccessException | NoSuchFieldException e) {
+            throw new IOException("could not read id of " + entity.getClass().getName(), e);
+        }
+    }
+
+    private String propertyName(SerializerProvider sp, Field idField) {
+        PropertyNamingStrategy namingStrategy = sp.getConfig().getPropertyNamingStrategy();
+        if (namingStrategy == null) {
+            return idField.getName();
+        }
+        return namingStrategy.nameForField(sp.getConfig(), null, idField.getName());
+    }
+
+    private static Field[] getIdFields(Class<?> entityClass) {
+        return ID_FIELDS.computeIfAbsent(entityClass, clazz -> {
+            List<Field> idFields = new ArrayList<>();
+            for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(EmbeddedId.class)) {
+                        field.setAccessible(true);
+                        idFields.add(field);
+                    }
+                }
+            }
+            return idFields.toArray(new Field[0]);
+        });
+    }
+}
@@ -7,6 +7,8 @@ import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 
 import java.io.IOException;
 
+//superseded by @IdReference which also handles Long, UUID and composite keys
+@Deprecated
 public class IdWrapperSerializer extends StdSerializer<Integer> {
 
     public IdWrapperSerializer() {
@@ -0,0 +1,769 @@
+package com.nooul.apihelpers.springbootrest.services;
+
+import com.google.common.base.CaseFormat;
+import com.nooul.apihelpers.springbootrest.entities.EntityChangeEvent;
+import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
+import com.nooul.apihelpers.springbootrest.providers.NullOrderingProvider;
+import com.nooul.apihelpers.springbootrest.specifications.FilterAttribute;
+import com.nooul.apihelpers.springbootrest.specifications.FilterDescriptors;
+import com.nooul.apihelpers.springbootrest.utils.EntityAccessors;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.io.Serializable;
+import java.lang.reflect.AnnotatedElement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+//large, read-mostly entities held as columns: numbers in long arrays, strings, enums and booleans as codes of a
+//dictionary with a bitmap of rows per enum and boolean value. filters are evaluated with bitmap and/or/not in the
+//three valued logic of sql, totals are cardinalities and only the ids of the requested page leave the snapshot, so
+//FilterService loads just that page. a snapshot is built on the first read and then kept up to date row by row from
+//EntityChangeTracker, bulk changes drop it. filters and sorts it cannot answer (associations, other attribute types)
+//give null and the caller goes to the database
+@Service
+public class ColumnarSnapshots implements EntityChangeTracker.Listener {
+
+    private static final int INITIAL_ROWS = 1024;
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+        private final List<Serializable> ids;
+        private final long total;
+    }
+
+    //the rows a condition is TRUE and FALSE for, rows in neither are unknown (a comparison with null)
+    @RequiredArgsConstructor
+    private static class Tri {
+        private final BitSet t;
+        private final BitSet f;
+    }
+
+    private abstract static class Column {
+        final Class<?> type;
+        final BitSet nulls = new BitSet();
+
+        Column(Class<?> type) {
+            this.type = type;
+        }
+
+        abstract void set(int row, Object value);
+
+        abstract Object get(int row);
+
+        //the non null rows (below size) whose value passes the test
+        abstract BitSet matching(java.util.function.Predicate<Object> test, int size);
+
+        //null when val is not of the type of the column
+        abstract BitSet equal(Object val, int size);
+
+        abstract Comparator<Integer> comparator();
+    }
+
+    private static class LongColumn extends Column {
+        long[] values = new long[INITIAL_ROWS];
+
+        LongColumn(Class<?> type) {
+            super(type);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+            }
+            if (value == null) {
+                nulls.set(row);
+            } else {
+                nulls.clear(row);
+                values[row] = ((Number) value).longValue();
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        @Override
+        BitSet matching(java.util.function.Predicate<Object> test, int size) {
+            BitSet rows = new BitSet(size);
+            for (int row = nulls.nextClearBit(0); row < size; row = nulls.nextClearBit(row + 1)) {
+                if (test.test(values[row])) {
+                    rows.set(row);
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        BitSet equal(Object val, int size) {
+            if (!(val instanceof Integer || val instanceof Long || val instanceof Short || val instanceof Byte)) {
+                return null;
+            }
+            long number = ((Number) val).longValue();
+            return compare(number, c -> c == 0, size);
+        }
+
+        BitSet compare(long number, IntPredicate test, int size) {
+            BitSet rows = new BitSet(size);
+            for (int row = nulls.nextClearBit(0); row < size; row = nulls.nextClearBit(row + 1)) {
+                if (test.test(Long.compare(values[row], number))) {
+                    rows.set(row);
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        Comparator<Integer> comparator() {
+            return (a, b) -> Long.compare(values[a], values[b]);
+        }
+    }
+
+    //strings, enums and booleans: each distinct value is stored once and rows hold its code, -1 for null
+    private static class CodeColumn extends Column {
+        final boolean indexed;
+        final boolean byName;
+        int[] codes = new int[INITIAL_ROWS];
+        final List<Object> dictionary = new ArrayList<>();
+        final Map<Object, Integer> codesByValue = new HashMap<>();
+        final List<BitSet> bitmaps = new ArrayList<>();
+
+        CodeColumn(Class<?> type, boolean indexed, boolean byName) {
+            super(type);
+            this.indexed = indexed;
+            this.byName = byName;
+            Arrays.fill(codes, -1);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (row >= codes.length) {
+                int length = codes.length;
+                codes = Arrays.copyOf(codes, Math.max(row + 1, length * 2));
+                Arrays.fill(codes, length, codes.length, -1);
+            }
+            if (indexed && codes[row] >= 0) {
+                bitmaps.get(codes[row]).clear(row);
+            }
+            if (value == null) {
+                nulls.set(row);
+                codes[row] = -1;
+                return;
+            }
+            nulls.clear(row);
+            int code = codesByValue.computeIfAbsent(value, key -> {
+                dictionary.add(key);
+                if (indexed) {
+                    bitmaps.add(new BitSet());
+                }
+                return dictionary.size() - 1;
+            });
+            codes[row] = code;
+            if (indexed) {
+                bitmaps.get(code).set(row);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return codes[row] < 0 ? null : dictionary.get(codes[row]);
+        }
+
+        //the test runs once per distinct value
+        @Override
+        BitSet matching(java.util.function.Predicate<Object> test, int size) {
+            boolean[] passes = new boolean[dictionary.size()];
+            for (int code = 0; code < passes.length; code++) {
+                passes[code] = test.test(dictionary.get(code));
+            }
+            BitSet rows = new BitSet(size);
+            if (indexed) {
+                for (int code = 0; code < passes.length; code++) {
+                    if (passes[code]) {
+                        rows.or(bitmaps.get(code));
+                    }
+                }
+                return rows;
+            }
+            for (int row = 0; row < size; row++) {
+                if (codes[row] >= 0 && passes[codes[row]]) {
+                    rows.set(row);
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        BitSet equal(Object val, int size) {
+            Object value;
+            if (type.isEnum() && val instanceof String) {
+                value = Enum.valueOf((Class) type, (String) val);
+            } else if (type.isInstance(val)) {
+                value = val;
+            } else {
+                return null;
+            }
+            Integer code = codesByValue.get(value);
+            if (code == null) {
+                return new BitSet();
+            }
+            if (indexed) {
+                return (BitSet) bitmaps.get(code).clone();
+            }
+            BitSet rows = new BitSet(size);
+            for (int row = 0; row < size; row++) {
+                if (codes[row] == code) {
+                    rows.set(row);
+                }
+            }
+            return rows;
+        }
+
+        //codes ranked once per sort, enums by name when stored as strings and by ordinal otherwise
+        @Override
+        Comparator<Integer> comparator() {
+            Integer[] sorted = new Integer[dictionary.size()];
+            for (int code = 0; code < sorted.length; code++) {
+                sorted[code] = code;
+            }
+            Comparator<Object> byValue = byName ? Comparator.comparing(value -> ((Enum) value).name()) : (a, b) -> ((Comparable) a).compareTo(b);
+            Arrays.sort(sorted, (a, b) -> byValue.compare(dictionary.get(a), dictionary.get(b)));
+            int[] ranks = new int[sorted.length];
+            for (int rank = 0; rank < sorted.length; rank++) {
+                ranks[sorted[rank]] = rank;
+            }
+            return (a, b) -> Integer.compare(ranks[codes[a]], ranks[codes[b]]);
+        }
+    }
+
+    private static class Table {
+        final Class<?> entityClass;
+        final String idName;
+        final Map<String, Column> columns = new LinkedHashMap<>();
+        final Map<Object, Integer> positions = new HashMap<>();
+        final BitSet live = new BitSet();
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        //changes that arrive while the table loads, applied in order once it is loaded
+        final List<Object[]> pending = new ArrayList<>();
+        volatile boolean ready;
+        int idIndex;
+        int size;
+        int dead;
+
+        Table(Class<?> entityClass, String idName) {
+            this.entityClass = entityClass;
+            this.idName = idName;
+        }
+
+        Object id(int row) {
+            return columns.get(idName).get(row);
+        }
+
+        void upsert(Object[] values) {
+            Object id = values[idIndex];
+            Integer row = positions.get(id);
+            if (row == null) {
+                row = size++;
+                positions.put(id, row);
+            }
+            int i = 0;
+            for (Column column : columns.values()) {
+                column.set(row, values[i++]);
+            }
+            live.set(row);
+        }
+
+        void apply(EntityChangeEvent.Type type, Object entity) {
+            if (type == EntityChangeEvent.Type.DELETE) {
+                Integer row = positions.remove(EntityAccessors.read(entity, idName));
+                if (row != null) {
+                    live.clear(row);
+                    dead++;
+                }
+                return;
+            }
+            Object[] values = new Object[columns.size()];
+            int i = 0;
+            for (String name : columns.keySet()) {
+                values[i++] = EntityAccessors.read(entity, name);
+            }
+            upsert(values);
+        }
+    }
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private EntityChangeTracker tracker;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Set<Class<?>> columnar = ConcurrentHashMap.newKeySet();
+    private final Map<Class<?>, Table> tables = new ConcurrentHashMap<>();
+
+    //entity names (or class names) separated by commas
+    @PostConstruct
+    public void init() {
+        for (String name : org.springframework.util.StringUtils.commaDelimitedListToSet(env.getProperty("spring-boot-rest-api-helpers.columnar-entities", ""))) {
+            register(entityClass(name.trim()));
+        }
+        tracker.addListener(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        tracker.removeListener(this);
+    }
+
+    public void register(Class<?> entityClass) {
+        entityManagerFactory.getMetamodel().entity(entityClass);
+        columnar.add(entityClass);
+    }
+
+    public boolean isEnabled() {
+        return !columnar.isEmpty();
+    }
+
+    public boolean isColumnar(Class<?> entityClass) {
+        return !columnar.isEmpty() && columnar.contains(entityClass);
+    }
+
+    //the ids of the page in the order of the sort and the total, null when the snapshot cannot answer the query
+    public Result query(Class<?> entityClass, QueryParamWrapper queryParamWrapper, Sort sort, List<String> searchOnlyInFields,
+                        int page, int size) {
+        Table table = table(entityClass);
+        table.lock.readLock().lock();
+        try {
+            BitSet rows = matching(table, queryParamWrapper, searchOnlyInFields);
+            Comparator<Integer> comparator = comparator(table, sort);
+            if (rows == null || comparator == null) {
+                return null;
+            }
+            int total = rows.cardinality();
+            int end = (int) Math.min(total, (long) page * size + size);
+            int from = (int) Math.min(end, (long) page * size);
+            List<Integer> sorted = first(rows, comparator, end);
+            List<Serializable> ids = new ArrayList<>(end - from);
+            for (int i = from; i < end; i++) {
+                ids.add((Serializable) table.id(sorted.get(i)));
+            }
+            return new Result(ids, total);
+        } finally {
+            table.lock.readLock().unlock();
+        }
+    }
+
+    //null when the snapshot cannot answer the filter
+    public Long count(Class<?> entityClass, QueryParamWrapper queryParamWrapper) {
+        Table table = table(entityClass);
+        table.lock.readLock().lock();
+        try {
+            BitSet rows = matching(table, queryParamWrapper, new ArrayList<>());
+            return rows == null ? null : (long) rows.cardinality();
+        } finally {
+            table.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onChange(Class<?> entityClass, EntityChangeEvent.Type type, Object entity) {
+        Table table = tables.get(entityClass);
+        if (table == null) {
+            return;
+        }
+        if (entity == null) {
+            tables.remove(entityClass, table);
+            return;
+        }
+        table.lock.writeLock().lock();
+        try {
+            if (!table.ready) {
+                table.pending.add(new Object[]{type, entity});
+                return;
+            }
+            table.apply(type, entity);
+            //deleted rows keep their place until the next build
+            if (table.dead > INITIAL_ROWS && table.dead > table.size / 2) {
+                tables.remove(entityClass, table);
+            }
+        } finally {
+            table.lock.writeLock().unlock();
+        }
+    }
+
+    private Table table(Class<?> entityClass) {
+        Table table = tables.get(entityClass);
+        if (table != null && table.ready) {
+            return table;
+        }
+        return build(entityClass);
+    }
+
+    //one build at a time, the readers that waited for it use its table
+    private synchronized Table build(Class<?> entityClass) {
+        Table table = tables.get(entityClass);
+        if (table != null && table.ready) {
+            return table;
+        }
+        EntityType<?> entityType = entityManagerFactory.getMetamodel().entity(entityClass);
+        table = new Table(entityClass, entityType.getId(entityType.getIdType().getJavaType()).getName());
+        for (SingularAttribute<?, ?> attribute : entityType.getSingularAttributes()) {
+            Column column = column(attribute);
+            if (column != null) {
+                table.columns.put(attribute.getName(), column);
+            }
+        }
+        if (!table.columns.containsKey(table.idName)) {
+            throw new IllegalArgumentException("columnar entity " + entityType.getName() + " needs a numeric, string or enum id");
+        }
+        table.idIndex = new ArrayList<>(table.columns.keySet()).indexOf(table.idName);
+        tables.put(entityClass, table);
+        try {
+            load(entityType, table);
+        } catch (RuntimeException e) {
+            tables.remove(entityClass, table);
+            throw e;
+        }
+        table.lock.writeLock().lock();
+        try {
+            for (Object[] change : table.pending) {
+                table.apply((EntityChangeEvent.Type) change[0], change[1]);
+            }
+            table.pending.clear();
+            table.ready = true;
+        } finally {
+            table.lock.writeLock().unlock();
+        }
+        return table;
+    }
+
+    //only the columns are selected and streamed, no entity is instantiated
+    private void load(EntityType<?> entityType, Table table) {
+        StringJoiner select = new StringJoiner(", ", "select ", " from " + entityType.getName() + " e");
+        for (String name : table.columns.keySet()) {
+            select.add("e." + name);
+        }
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try (Stream<Object> rows = em.createQuery(select.toString()).getResultStream()) {
+            rows.forEach(row -> table.upsert(row instanceof Object[] ? (Object[]) row : new Object[]{row}));
+        } finally {
+            em.close();
+        }
+    }
+
+    private Column column(SingularAttribute<?, ?> attribute) {
+        if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+            return null;
+        }
+        Class<?> type = attribute.getJavaType();
+        if (type == int.class || type == long.class || type == short.class || type == byte.class
+                || type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+            return new LongColumn(type);
+        } else if (type == String.class) {
+            return new CodeColumn(type, false, false);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return new CodeColumn(Boolean.class, true, false);
+        } else if (type.isEnum()) {
+            Enumerated enumerated = attribute.getJavaMember() instanceof AnnotatedElement
+                    ? ((AnnotatedElement) attribute.getJavaMember()).getAnnotation(Enumerated.class) : null;
+            return new CodeColumn(type, true, enumerated != null && enumerated.value() == EnumType.STRING);
+        }
+        return null;
+    }
+
+    private BitSet matching(Table table, QueryParamWrapper queryParamWrapper, List<String> includeOnlyFields) {
+        JSONObject filter = queryParamWrapper.getFilter();
+        JSONArray filterOr = queryParamWrapper.getFilterOr();
+        Tri tri;
+        if (filter != null && filter.length() > 0) {
+            tri = handleMap(table, camelCaseKeys(filter.toMap()), includeOnlyFields);
+        } else if (filterOr != null && filterOr.length() > 0) {
+            tri = none(table);
+            for (Object map : filterOr.toList()) {
+                Tri any = handleMap(table, (Map<String, Object>) map, new ArrayList<>());
+                if (any == null) {
+                    return null;
+                }
+                tri = or(tri, any);
+            }
+        } else {
+            return (BitSet) table.live.clone();
+        }
+        if (tri == null) {
+            return null;
+        }
+        //deleted rows keep their values and bits
+        tri.t.and(table.live);
+        return tri.t;
+    }
+
+    private Tri handleMap(Table table, Map<String, Object> map, List<String> includeOnlyFields) {
+        Tri result = all(table);
+        if (map.containsKey("q") && map.get("q") instanceof String) {
+            result = and(result, search(table, (String) map.get("q"), includeOnlyFields));
+            map = new HashMap<>(map);
+            map.remove("q");
+        }
+        for (Map.Entry<String, Object> e : map.entrySet()) {
+            String cleanKey = cleanUpKey(e.getKey());
+            Column column = table.columns.get(attributeName(table, cleanKey));
+            if (column == null || e.getValue() instanceof Map) {
+                return null;
+            }
+            Tri tri = handleAllCases(table, column, e.getKey(), cleanKey, e.getValue());
+            if (tri == null) {
+                return null;
+            }
+            result = and(result, tri);
+        }
+        return result;
+    }
+
+    private Tri handleAllCases(Table table, Column column, String key, String cleanKey, Object val) {
+        if (cleanKey.equals(key)) {
+            return handleCleanKeyCase(table, column, val);
+        } else if (key.endsWith("Not")) {
+            Tri tri = handleCleanKeyCase(table, column, val);
+            return tri == null ? null : new Tri(tri.f, tri.t);
+        } else if (key.endsWith("And")) {
+            if (val instanceof Collection) {
+                Tri result = all(table);
+                for (Object value : (Collection) val) {
+                    Tri tri = handleCleanKeyCase(table, column, value);
+                    if (tri == null) {
+                        return null;
+                    }
+                    result = and(result, tri);
+                }
+                return result;
+            }
+        } else if (key.endsWith("Lte")) {
+            return compare(table, column, val, c -> c <= 0);
+        } else if (key.endsWith("Gte")) {
+            return compare(table, column, val, c -> c >= 0);
+        } else if (key.endsWith("Lt")) {
+            return compare(table, column, val, c -> c < 0);
+        } else if (key.endsWith("Gt")) {
+            return compare(table, column, val, c -> c > 0);
+        }
+        return all(table);
+    }
+
+    private Tri handleCleanKeyCase(Table table, Column column, Object val) {
+        if (val instanceof Collection) {
+            Tri result = none(table);
+            for (Object value : (Collection) val) {
+                Tri tri = value instanceof Map ? null : handleCleanKeyCase(table, column, value);
+                if (tri == null) {
+                    return null;
+                }
+                result = or(result, tri);
+            }
+            return result;
+        } else if (val instanceof String && ((String) val).contains("%")) {
+            Pattern pattern = likePattern((String) val);
+            return known(table, column, column.matching(value -> pattern.matcher(value.toString()).matches(), table.size));
+        } else if (isNull(column, val)) {
+            BitSet notNull = universe(table);
+            notNull.andNot(column.nulls);
+            return new Tri((BitSet) column.nulls.clone(), notNull);
+        }
+        BitSet equal = column.equal(val, table.size);
+        return equal == null ? null : known(table, column, equal);
+    }
+
+    //strings are compared in lower case and numbers as integers like the Gt/Gte/Lt/Lte predicates of CustomSpecifications
+    private Tri compare(Table table, Column column, Object val, IntPredicate test) {
+        if (val instanceof String) {
+            String lower = ((String) val).toLowerCase();
+            return known(table, column, column.matching(value -> test.test(value.toString().toLowerCase().compareTo(lower)), table.size));
+        } else if (val instanceof Integer) {
+            return column instanceof LongColumn ? known(table, column, ((LongColumn) column).compare((Integer) val, test, table.size)) : null;
+        }
+        throw new IllegalArgumentException("val type not supported yet");
+    }
+
+    private Tri search(Table table, String text, List<String> includeOnlyFields) {
+        if (!text.contains("%")) {
+            text = "%" + text + "%";
+        }
+        Pattern pattern = likePattern(text);
+        Tri result = none(table);
+        for (Map.Entry<String, Column> e : table.columns.entrySet()) {
+            Column column = e.getValue();
+            if (column.type == String.class && (includeOnlyFields.isEmpty() || includeOnlyFields.contains(e.getKey()))) {
+                result = or(result, known(table, column, column.matching(value -> pattern.matcher((String) value).matches(), table.size)));
+            }
+        }
+        return result;
+    }
+
+    //nulls where the query puts them (NullOrderingProvider) in both directions, the row order breaks ties
+    private Comparator<Integer> comparator(Table table, Sort sort) {
+        int nullRank = NullOrderingProvider.nullsLast(entityManagerFactory) ? 1 : -1;
+        Comparator<Integer> comparator = null;
+        for (Sort.Order order : sort) {
+            Column column = table.columns.get(order.getProperty());
+            if (column == null) {
+                return null;
+            }
+            Comparator<Integer> byValues = order.isDescending() ? column.comparator().reversed() : column.comparator();
+            Comparator<Integer> byColumn = (a, b) -> {
+                boolean aNull = column.nulls.get(a);
+                boolean bNull = column.nulls.get(b);
+                if (aNull || bNull) {
+                    return aNull == bNull ? 0 : aNull ? nullRank : -nullRank;
+                }
+                return byValues.compare(a, b);
+            };
+            comparator = comparator == null ? byColumn : comparator.thenComparing(byColumn);
+        }
+        Comparator<Integer> byRow = Comparator.naturalOrder();
+        return comparator == null ? byRow : comparator.thenComparing(byRow);
+    }
+
+    //the first rows in order: a bounded heap when the page ends well before the matching rows do
+    private List<Integer> first(BitSet rows, Comparator<Integer> comparator, int limit) {
+        int total = rows.cardinality();
+        List<Integer> sorted;
+        if (limit < total / 2) {
+            PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1, comparator.reversed());
+            for (int row = rows.nextSetBit(0); row >= 0 && limit > 0; row = rows.nextSetBit(row + 1)) {
+                heap.add(row);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+            sorted = new ArrayList<>(heap);
+        } else {
+            sorted = new ArrayList<>(total);
+            rows.stream().forEach(sorted::add);
+        }
+        sorted.sort(comparator);
+        return sorted;
+    }
+
+    private Tri known(Table table, Column column, BitSet t) {
+        BitSet f = universe(table);
+        f.andNot(column.nulls);
+        f.andNot(t);
+        return new Tri(t, f);
+    }
+
+    private Tri all(Table table) {
+        return new Tri(universe(table), new BitSet());
+    }
+
+    private Tri none(Table table) {
+        return new Tri(new BitSet(), universe(table));
+    }
+
+    private BitSet universe(Table table) {
+        BitSet rows = new BitSet(table.size);
+        rows.set(0, table.size);
+        return rows;
+    }
+
+    private static Tri and(Tri a, Tri b) {
+        BitSet t = (BitSet) a.t.clone();
+        t.and(b.t);
+        BitSet f = (BitSet) a.f.clone();
+        f.or(b.f);
+        return new Tri(t, f);
+    }
+
+    private static Tri or(Tri a, Tri b) {
+        BitSet t = (BitSet) a.t.clone();
+        t.or(b.t);
+        BitSet f = (BitSet) a.f.clone();
+        f.and(b.f);
+        return new Tri(t, f);
+    }
+
+    //% is any text, _ any character and \ escapes them
+    private static Pattern likePattern(String like) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < like.length(); i++) {
+            char c = like.charAt(i);
+            if (c == '\\' && i + 1 < like.length()) {
+                regex.append(Pattern.quote(String.valueOf(like.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private boolean isNull(Column column, Object val) {
+        if (column.type == String.class && val instanceof String) {
+            return StringUtils.isBlank((String) val) || ((String) val).equalsIgnoreCase("null");
+        }
+        return val == null;
+    }
+
+    private String attributeName(Table table, String key) {
+        FilterAttribute described = table.columns.containsKey(key) ? null : FilterDescriptors.get(table.entityClass, key);
+        return described == null ? key : described.getName();
+    }
+
+    private Map<String, Object> camelCaseKeys(Map<String, Object> map) {
+        String usesSnakeCase = env.getProperty("spring-boot-rest-api-helpers.use-snake-case");
+        if (usesSnakeCase == null || !usesSnakeCase.equals("true")) {
+            return map;
+        }
+        Map<String, Object> camelCaseMap = new HashMap<>();
+        for (Map.Entry<String, Object> e : map.entrySet()) {
+            String key = e.getKey().contains("_") ? CaseFormat.LOWER_UNDERSCORE.to(CaseFormat.LOWER_CAMEL, e.getKey()) : e.getKey();
+            camelCaseMap.put(key, e.getValue());
+        }
+        return camelCaseMap;
+    }
+
+    private String cleanUpKey(String key) {
+        List<String> postfixes = Arrays.asList("Gte", "Gt", "Lte", "Lt", "Not", "And");
+        for (String postfix : postfixes) {
+            if (key.endsWith(postfix)) {
+                return key.substring(0, key.length() - postfix.length());
+            }
+        }
+        return key;
+    }
+
+    private Class<?> entityClass(String name) {
+        for (EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+            if (entityType.getName().equals(name) || entityType.getJavaType().getName().equals(name)) {
+                return entityType.getJavaType();
+            }
+        }
+        throw new IllegalArgumentException("columnar entity " + name + " is not an entity");
+    }
+}
@@ -0,0 +1,45 @@
+package com.nooul.apihelpers.springbootrest.services;
+
+import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+
+//weak etags for lists of an entity built from its data version (EntityChangeTracker.dataVersion) and the normalized
+//query, so that they can be checked before anything is loaded. the data version is taken before the query runs
+//so a response is never tagged newer than its content
+@Service
+public class ETagService {
+
+    @Autowired
+    private EntityChangeTracker tracker;
+
+    //versions are counted in memory and start over with the application, the epoch keeps etags of earlier runs from matching
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    public String etag(Class<?> entityClass, QueryParamWrapper queryParamWrapper, String accept) {
+        String query = entityClass.getName() + "|" + QueryParamExtractor.normalize(queryParamWrapper) + "|" + accept;
+        return "W/\"" + epoch + "-" + Long.toString(tracker.dataVersion(entityClass), 36) + "-"
+                + DigestUtils.md5DigestAsHex(query.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    //call it first thing in the controller: when it returns true the response is already a 304 and the controller
+    //should return null, otherwise the etag is set and the response is built as usual
+    public boolean checkNotModified(Class<?> entityClass, QueryParamWrapper queryParamWrapper, WebRequest request) {
+        if (request instanceof NativeWebRequest) {
+            HttpServletResponse response = ((NativeWebRequest) request).getNativeResponse(HttpServletResponse.class);
+            //same headers as the 200 response that ResourceSizeAdvice/BodyAdvice would write
+            if (response != null && !response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+        return request.checkNotModified(etag(entityClass, queryParamWrapper, request.getHeader(HttpHeaders.ACCEPT)));
+    }
+}
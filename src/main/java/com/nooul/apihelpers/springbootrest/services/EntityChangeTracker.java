@@ -0,0 +1,240 @@
+package com.nooul.apihelpers.springbootrest.services;
+
+import com.nooul.apihelpers.springbootrest.entities.EntityChangeEvent;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+//sees every insert, update and delete that goes through hibernate (and the bulk ones through EntityChangeEvent)
+//and gives each entity class a data version: the value of a global sequence at its last committed change.
+//changes made in a transaction are applied after it commits so nothing reads a version ahead of the data
+@Component
+public class EntityChangeTracker implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+    public interface Listener {
+        //entity is null for bulk changes
+        void onChange(Class<?> entityClass, EntityChangeEvent.Type type, Object entity);
+
+        //previous is a copy of an updated entity with the state it was loaded with, null when hibernate did not have it
+        default void onChange(Class<?> entityClass, EntityChangeEvent.Type type, Object entity, Object previous) {
+            onChange(entityClass, type, entity);
+        }
+
+        //the copy is made while the session flushes, so it is only made when a listener asks for it
+        default boolean needsPrevious(Class<?> entityClass) {
+            return false;
+        }
+    }
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Class<?>, Long> versions = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Set<Class<?>>> reachable = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private SessionFactoryImplementor sessionFactory;
+
+    @PostConstruct
+    public void init() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    //the current value of the global sequence, any later change gets a greater version
+    public long sequence() {
+        return sequence.get();
+    }
+
+    //0 until the entity class (or a subclass) changes
+    public long version(Class<?> entityClass) {
+        return versions.getOrDefault(entityClass, 0L);
+    }
+
+    //the latest version of the entity class and of every entity reachable through its associations,
+    //which is everything a serialized instance of it can contain
+    public long dataVersion(Class<?> entityClass) {
+        long version = 0;
+        for (Class<?> clazz : reachable.computeIfAbsent(entityClass, this::reachableHelper)) {
+            version = Math.max(version, version(clazz));
+        }
+        return version;
+    }
+
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        changed(event.getEntityClass(), event.getType(), null);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getPersister(), EntityChangeEvent.Type.INSERT, event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Class<?> entityClass = event.getPersister().getMappedClass();
+        changed(entityClass, EntityChangeEvent.Type.UPDATE, event.getEntity(), needsPrevious(entityClass) ? previousHelper(event) : null);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getPersister(), EntityChangeEvent.Type.DELETE, event.getEntity());
+    }
+
+    //a changed many-to-many or element collection changes the rows of a join table: both sides are affected
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        //the collections of a new entity are recreated too, no rows are written when they are empty
+        if (!event.getCollection().empty()) {
+            collectionChanged(event);
+        }
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        collectionChanged(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        collectionChanged(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void collectionChanged(AbstractCollectionEvent event) {
+        changed(sessionFactory.getMetamodel().entityPersister(event.getAffectedOwnerEntityName()), EntityChangeEvent.Type.UPDATE, event.getAffectedOwnerOrNull());
+        CollectionEntry entry = event.getSession().getPersistenceContext().getCollectionEntry(event.getCollection());
+        CollectionPersister persister = entry == null ? null : entry.getCurrentPersister() != null ? entry.getCurrentPersister() : entry.getLoadedPersister();
+        Type elementType = persister == null ? null : persister.getElementType();
+        if (elementType != null && elementType.isEntityType()) {
+            changed(elementType.getReturnedClass(), EntityChangeEvent.Type.UPDATE, null);
+        }
+    }
+
+    private void changed(EntityPersister persister, EntityChangeEvent.Type type, Object entity) {
+        changed(persister.getMappedClass(), type, entity);
+    }
+
+    private void changed(Class<?> entityClass, EntityChangeEvent.Type type, Object entity) {
+        changed(entityClass, type, entity, null);
+    }
+
+    private void changed(Class<?> entityClass, EntityChangeEvent.Type type, Object entity, Object previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(entityClass, type, entity, previous);
+            return;
+        }
+        List<Runnable> pending = (List<Runnable>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Runnable> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EntityChangeTracker.this);
+                    if (status == STATUS_COMMITTED) {
+                        changes.forEach(Runnable::run);
+                    }
+                }
+            });
+            pending = changes;
+        }
+        pending.add(() -> apply(entityClass, type, entity, previous));
+    }
+
+    private boolean needsPrevious(Class<?> entityClass) {
+        for (Listener listener : listeners) {
+            if (listener.needsPrevious(entityClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object previousHelper(PostUpdateEvent event) {
+        if (event.getOldState() == null) {
+            return null;
+        }
+        Object previous = event.getPersister().instantiate(event.getId(), event.getSession());
+        event.getPersister().setPropertyValues(previous, event.getOldState());
+        return previous;
+    }
+
+    private Set<Class<?>> reachableHelper(Class<?> entityClass) {
+        Set<Class<?>> classes = new HashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(entityClass);
+        while (!pending.isEmpty()) {
+            Class<?> clazz = pending.poll();
+            if (!classes.add(clazz)) {
+                continue;
+            }
+            for (Attribute<?, ?> attribute : sessionFactory.getMetamodel().managedType(clazz).getAttributes()) {
+                javax.persistence.metamodel.Type<?> type = attribute instanceof PluralAttribute
+                        ? ((PluralAttribute<?, ?, ?>) attribute).getElementType()
+                        : ((SingularAttribute<?, ?>) attribute).getType();
+                //entities and embeddables
+                if (type.getPersistenceType() != javax.persistence.metamodel.Type.PersistenceType.BASIC) {
+                    pending.add(type.getJavaType());
+                }
+            }
+        }
+        return classes;
+    }
+
+    //superclasses change with their subclasses since queries on them return both
+    private void apply(Class<?> entityClass, EntityChangeEvent.Type type, Object entity, Object previous) {
+        long version = sequence.incrementAndGet();
+        for (Class<?> clazz = entityClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            versions.put(clazz, version);
+        }
+        for (Listener listener : listeners) {
+            listener.onChange(entityClass, type, entity, previous);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.nooul.apihelpers.springbootrest.services;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.nooul.apihelpers.springbootrest.entities.ExportJob;
+import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
+import com.nooul.apihelpers.springbootrest.exceptions.NotFoundException;
+import com.nooul.apihelpers.springbootrest.exceptions.TooManyRequestsException;
+import com.nooul.apihelpers.springbootrest.providers.ObjectMapperProvider;
+import com.nooul.apihelpers.springbootrest.repositories.BaseRepository;
+import com.nooul.apihelpers.springbootrest.utils.CsvUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//runs exports in the background on a small bounded pool and spools them to local files
+//every page is read with keyset pagination in its own short transaction so an export never holds
+//a connection for long and the pool size caps how many connections exports use at the same time
+@Service
+public class ExportJobService {
+
+    private static final int DEFAULT_CONCURRENCY = 2;
+    private static final int DEFAULT_QUEUE_SIZE = 10;
+    private static final int DEFAULT_FETCH_SIZE = 500;
+    private static final long DEFAULT_RETENTION_MINUTES = 60;
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private ObjectMapperProvider objectMapperProvider;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Future<?>> futures = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private Path directory;
+    private int fetchSize;
+    private long retentionMillis;
+
+    @PostConstruct
+    public void init() throws IOException {
+        int concurrency = env.getProperty("spring-boot-rest-api-helpers.export-concurrency", Integer.class, DEFAULT_CONCURRENCY);
+        int queueSize = env.getProperty("spring-boot-rest-api-helpers.export-queue-size", Integer.class, DEFAULT_QUEUE_SIZE);
+        fetchSize = env.getProperty("spring-boot-rest-api-helpers.export-fetch-size", Integer.class, DEFAULT_FETCH_SIZE);
+        retentionMillis = TimeUnit.MINUTES.toMillis(env.getProperty("spring-boot-rest-api-helpers.export-retention-minutes", Long.class, DEFAULT_RETENTION_MINUTES));
+        directory = Files.createDirectories(Paths.get(env.getProperty("spring-boot-rest-api-helpers.export-dir", System.getProperty("java.io.tmpdir"))));
+
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "export-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        for (ExportJob job : jobs.values()) {
+            deleteFile(job);
+        }
+    }
+
+    public <T, I extends Serializable> ExportJob submit(FilterService<T, I> filterService, BaseRepository<T, I> repo, Class<T> clazz,
+                                                        QueryParamWrapper queryParamWrapper, ExportJob.Format format) throws IOException {
+        return submit(filterService, repo, clazz, queryParamWrapper, "id", new ArrayList<>(), format);
+    }
+
+    //throws TooManyRequestsException when all export threads are busy and the queue is full
+    public <T, I extends Serializable> ExportJob submit(FilterService<T, I> filterService, BaseRepository<T, I> repo, Class<T> clazz,
+                                                        QueryParamWrapper queryParamWrapper, String primaryKeyName, List<String> searchOnlyInFields,
+                                                        ExportJob.Format format) throws IOException {
+        evictExpired();
+        String id = UUID.randomUUID().toString();
+        Path file = Files.createTempFile(directory, "export-" + id, "." + format.getExtension());
+        ExportJob job = new ExportJob(id, format, file);
+        jobs.put(id, job);
+        try {
+            futures.put(id, executor.submit(() -> run(job, filterService, repo, clazz, queryParamWrapper, primaryKeyName, searchOnlyInFields)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            deleteFile(job);
+            throw new TooManyRequestsException("too many exports running, try again later");
+        }
+        return job;
+    }
+
+    public ExportJob getJob(String id) {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            throw new NotFoundException("export " + id + " not found");
+        }
+        return job;
+    }
+
+    public ExportJob cancel(String id) {
+        ExportJob job = getJob(id);
+        Future<?> future = futures.remove(id);
+        if (future != null) {
+            future.cancel(true);
+            //a queued job would hold its place in the queue until a thread takes it
+            executor.purge();
+        }
+        if (!job.isFinished()) {
+            finish(job, ExportJob.Status.CANCELLED, null);
+        }
+        return job;
+    }
+
+    //409 with the job as body until the export is done
+    public ResponseEntity<?> download(String id) {
+        ExportJob job = getJob(id);
+        if (job.getStatus() != ExportJob.Status.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getFormat().getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"export-" + id + "." + job.getFormat().getExtension() + "\"")
+                .body(new FileSystemResource(job.getFile()));
+    }
+
+    private <T, I extends Serializable> void run(ExportJob job, FilterService<T, I> filterService, BaseRepository<T, I> repo, Class<T> clazz,
+                                                 QueryParamWrapper queryParamWrapper, String primaryKeyName, List<String> searchOnlyInFields) {
+        if (!start(job)) {
+            return;
+        }
+        try {
+            job.setTotal(filterService.countBy(queryParamWrapper, repo));
+            ObjectWriter objectWriter = job.getFormat() == ExportJob.Format.CSV
+                    ? CsvUtils.writer(clazz, true, ',')
+                    : objectMapperProvider.getObjectMapper().writer().withRootValueSeparator("\n");
+
+            try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(job.getFile()));
+                 SequenceWriter writer = objectWriter.writeValues(stream)) {
+                T last = null;
+                List<T> page;
+                do {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedException();
+                    }
+                    page = filterService.filterAfter(queryParamWrapper, clazz, primaryKeyName, searchOnlyInFields, last, fetchSize);
+                    for (T row : page) {
+                        writer.write(row);
+                    }
+                    if (!page.isEmpty()) {
+                        last = page.get(page.size() - 1);
+                        job.setRowsWritten(job.getRowsWritten() + page.size());
+                        job.setProgress(job.getTotal() > 0 ? Math.min(1.0, (double) job.getRowsWritten() / job.getTotal()) : 0);
+                    }
+                } while (page.size() == fetchSize);
+
+                if (job.getFormat() == ExportJob.Format.NDJSON && job.getRowsWritten() > 0) {
+                    writer.flush();
+                    stream.write('\n');
+                }
+            }
+            finish(job, ExportJob.Status.DONE, null);
+        } catch (InterruptedException e) {
+            finish(job, ExportJob.Status.CANCELLED, null);
+            //cancel may have deleted the file before the stream created it again
+            deleteFile(job);
+        } catch (Exception e) {
+            finish(job, ExportJob.Status.FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        } finally {
+            futures.remove(job.getId());
+        }
+    }
+
+    //under the lock of finish so a cancel can not land between the check and the status change
+    private synchronized boolean start(ExportJob job) {
+        if (job.isFinished()) {
+            return false;
+        }
+        job.setStatus(ExportJob.Status.RUNNING);
+        job.setStartedAt(new Date());
+        return true;
+    }
+
+    private synchronized void finish(ExportJob job, ExportJob.Status status, String error) {
+        if (job.isFinished()) {
+            return;
+        }
+        if (status == ExportJob.Status.DONE) {
+            job.setProgress(1.0);
+        } else {
+            deleteFile(job);
+        }
+        job.setError(error);
+        job.setFinishedAt(new Date());
+        job.setStatus(status);
+    }
+
+    //finished jobs and their files are kept for the retention period so they can be downloaded
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        for (ExportJob job : jobs.values()) {
+            if (job.isFinished() && now - job.getFinishedAt().getTime() > retentionMillis) {
+                jobs.remove(job.getId());
+                deleteFile(job);
+            }
+        }
+    }
+
+    private void deleteFile(ExportJob job) {
+        try {
+            Files.deleteIfExists(job.getFile());
+        } catch (IOException e) {
+            //the file is in the temporary directory so it will be cleaned up eventually
+        }
+    }
+}
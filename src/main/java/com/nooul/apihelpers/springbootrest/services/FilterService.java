@@ -1,37 +1,154 @@
 package com.nooul.apihelpers.springbootrest.services;
 
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.google.common.base.CaseFormat;
+import com.nooul.apihelpers.springbootrest.entities.Aggregation;
+import com.nooul.apihelpers.springbootrest.entities.ChangeSet;
+import com.nooul.apihelpers.springbootrest.entities.EntityChangeEvent;
 import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
+import com.nooul.apihelpers.springbootrest.providers.ObjectMapperProvider;
 import com.nooul.apihelpers.springbootrest.repositories.BaseRepository;
 import com.nooul.apihelpers.springbootrest.specifications.CustomSpecifications;
+import com.nooul.apihelpers.springbootrest.specifications.InMemorySpecifications;
+import com.nooul.apihelpers.springbootrest.utils.CsvUtils;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.ResolvableType;
 import org.springframework.core.env.Environment;
+import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.AbstractQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.criteria.Subquery;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.Bindable;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.IdentifiableType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Service
 //from: https://github.com/zifnab87/spring-boot-rest-api-helpers/blob/master/src/main/java/springboot/rest/services/FilterService.java
 public class FilterService<T, I extends Serializable> {
 
+    private static final int DEFAULT_FETCH_SIZE = 500;
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final long DEFAULT_SINCE_OVERLAP_MILLIS = 1000;
+    private static final int DEFAULT_AGGREGATE_MAX_COMBINATIONS = 10000;
+
     @Autowired
     private Environment env;
 
     @Autowired
     private CustomSpecifications<T> specifications;
 
+    @PersistenceContext
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapperProvider objectMapperProvider;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private QueryResultCache queryResultCache;
+
+    @Autowired
+    private EntityChangeTracker entityChangeTracker;
+
+    @Autowired
+    private TombstoneService tombstoneService;
+
+    @Autowired
+    private ResidentSnapshots residentSnapshots;
+
+    @Autowired
+    private InMemorySpecifications<T> inMemorySpecifications;
+
+    @Autowired
+    private ColumnarSnapshots columnarSnapshots;
+
+    private final Map<Class<?>, Class<?>> domainClasses = new ConcurrentHashMap<>();
+
 
     public long countBy(QueryParamWrapper queryParamWrapper, BaseRepository<T, I> repo) {
+        if (residentSnapshots.isEnabled() || columnarSnapshots.isEnabled()) {
+            Class<T> clazz = domainClass(repo);
+            if (residentSnapshots.isResident(clazz, queryParamWrapper)) {
+                return residentSnapshots.rows(clazz).stream().filter(inMemorySpecifications.predicate(clazz, queryParamWrapper)).count();
+            }
+            if (columnarSnapshots.isColumnar(clazz)) {
+                Long count = columnarSnapshots.count(clazz, queryParamWrapper);
+                if (count != null) {
+                    return count;
+                }
+            }
+        }
         JSONObject filter = queryParamWrapper.getFilter();
         JSONArray filterOr = queryParamWrapper.getFilterOr();
         String usesSnakeCase = env.getProperty("spring-boot-rest-api-helpers.use-snake-case");
@@ -60,6 +177,47 @@ public class FilterService<T, I extends Serializable> {
         }
     }
 
+    public boolean existsBy(QueryParamWrapper queryParamWrapper, BaseRepository<T, I> repo) {
+        return existsBy(queryParamWrapper, repo, "id", new ArrayList<>());
+    }
+
+    //stops at the first matching row: a single id is selected with setMaxResults(1) instead of counting every match
+    public boolean existsBy(QueryParamWrapper queryParamWrapper, BaseRepository<T, I> repo, String primaryKeyName, List<String> searchOnlyInFields) {
+        Class<T> clazz = domainClass(repo);
+        if (residentSnapshots.isResident(clazz, queryParamWrapper)) {
+            return residentSnapshots.rows(clazz).stream().anyMatch(inMemorySpecifications.predicate(clazz, queryParamWrapper, searchOnlyInFields));
+        }
+        if (columnarSnapshots.isColumnar(clazz)) {
+            ColumnarSnapshots.Result result = columnarSnapshots.query(clazz, queryParamWrapper, Sort.by(primaryKeyName), searchOnlyInFields, 0, 1);
+            if (result != null) {
+                return result.getTotal() > 0;
+            }
+        }
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<Object> query = builder.createQuery();
+        Root<T> root = query.from(clazz);
+        Predicate predicate = predicateHelper(specifications, queryParamWrapper, searchOnlyInFields, builder, query, root);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get(primaryKeyName));
+        return !em.createQuery(query).setMaxResults(1).getResultList().isEmpty();
+    }
+
+    //for HEAD endpoints that only tell whether anything matches: 200 when a row does and 404 otherwise, without a body.
+    //the controller method should return void since BodyAdvice turns a null body into a NotFoundException
+    public void existsResponse(QueryParamWrapper queryParamWrapper, BaseRepository<T, I> repo, List<String> searchOnlyInFields,
+                               HttpServletResponse response) {
+        existsResponse(queryParamWrapper, repo, "id", searchOnlyInFields, response);
+    }
+
+    public void existsResponse(QueryParamWrapper queryParamWrapper, BaseRepository<T, I> repo, String primaryKeyName, List<String> searchOnlyInFields,
+                               HttpServletResponse response) {
+        boolean exists = existsBy(queryParamWrapper, repo, primaryKeyName, searchOnlyInFields);
+        response.setStatus(exists ? HttpServletResponse.SC_OK : HttpServletResponse.SC_NOT_FOUND);
+        response.setContentLength(0);
+    }
+
     public Page<T> filterBy(QueryParamWrapper queryParamWrapper, BaseRepository<T, I> repo) {
         return filterByHelper(repo, specifications, queryParamWrapper, "id", new ArrayList<>());
     }
@@ -79,6 +237,653 @@ public class FilterService<T, I extends Serializable> {
         return filterByHelper(repo, specifications, queryParamWrapper, "id", searchOnlyInFields);
     }
 
+    public long scrollBy(QueryParamWrapper queryParamWrapper, Class<T> clazz, Consumer<T> consumer) {
+        return scrollBy(queryParamWrapper, clazz, "id", new ArrayList<>(), getFetchSize(), consumer);
+    }
+
+    //hands the matching rows to the consumer one at a time from a forward only cursor fetched fetchSize rows per round trip
+    //the persistence context is cleared every fetchSize rows so memory stays flat for any number of rows
+    public long scrollBy(QueryParamWrapper queryParamWrapper, Class<T> clazz, String primaryKeyName, List<String> searchOnlyInFields,
+                         int fetchSize, Consumer<T> consumer) {
+        Specification<T> specification = specificationHelper(specifications, queryParamWrapper, searchOnlyInFields);
+        Sort sortObj = Sort.by(sortHelper(queryParamWrapper.getSort(), primaryKeyName));
+        JSONArray range = queryParamWrapper.getRange();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> {
+            CriteriaBuilder builder = em.getCriteriaBuilder();
+            CriteriaQuery<T> query = builder.createQuery(clazz);
+            Root<T> root = query.from(clazz);
+            if (specification != null) {
+                Predicate predicate = specification.toPredicate(root, query, builder);
+                if (predicate != null) {
+                    query.where(predicate);
+                }
+            }
+            query.select(root);
+            query.orderBy(QueryUtils.toOrders(sortObj, root, builder));
+
+            TypedQuery<T> typedQuery = em.createQuery(query);
+            if (range.length() == 2) {
+                int page = (Integer) range.get(0);
+                int size = (Integer) range.get(1);
+                typedQuery.setFirstResult(page * size);
+                typedQuery.setMaxResults(size);
+            }
+
+            long rows = 0;
+            try (ScrollableResults results = typedQuery.unwrap(org.hibernate.query.Query.class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    consumer.accept((T) results.get(0));
+                    if (++rows % fetchSize == 0) {
+                        em.clear();
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    //keyset pagination: up to limit rows that come after the given row (or the first rows when it is null)
+    //in the requested sort followed by the primary key, each page in its own short transaction
+    //the range is ignored and the values of the sort attributes of the given row must not be null
+    public List<T> filterAfter(QueryParamWrapper queryParamWrapper, Class<T> clazz, String primaryKeyName, List<String> searchOnlyInFields,
+                               T after, int limit) {
+        Specification<T> specification = specificationHelper(specifications, queryParamWrapper, searchOnlyInFields);
+        List<Sort.Order> sortOrders = sortHelper(queryParamWrapper.getSort(), primaryKeyName);
+        if (sortOrders.stream().noneMatch(order -> order.getProperty().equals(primaryKeyName))) {
+            sortOrders.add(new Sort.Order(Sort.Direction.ASC, primaryKeyName));
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> {
+            CriteriaBuilder builder = em.getCriteriaBuilder();
+            CriteriaQuery<T> query = builder.createQuery(clazz);
+            Root<T> root = query.from(clazz);
+            List<Predicate> predicates = new ArrayList<>();
+            if (specification != null) {
+                Predicate predicate = specification.toPredicate(root, query, builder);
+                if (predicate != null) {
+                    predicates.add(predicate);
+                }
+            }
+            if (after != null) {
+                predicates.add(keysetHelper(builder, root, sortOrders, after));
+            }
+            query.where(predicates.toArray(new Predicate[0]));
+            query.select(root);
+            query.orderBy(QueryUtils.toOrders(Sort.by(sortOrders), root, builder));
+            return em.createQuery(query).setMaxResults(limit).getResultList();
+        });
+    }
+
+    public ChangeSet<T> changesSince(QueryParamWrapper queryParamWrapper, BaseRepository<T, I> repo, String since) {
+        return changesSince(queryParamWrapper, repo, since, "id", new ArrayList<>());
+    }
+
+    //rows matching the filter whose modification time (a temporal @Version, @UpdateTimestamp, @LastModifiedDate or updatedAt)
+    //is not before the cursor, sorted but not ranged, and the ids deleted since then. the next cursor lags the query by
+    //since-overlap-millis so that rows of transactions still running while it is read come again next time
+    public ChangeSet<T> changesSince(QueryParamWrapper queryParamWrapper, BaseRepository<T, I> repo, String since,
+                                     String primaryKeyName, List<String> searchOnlyInFields) {
+        Class<T> clazz = domainClass(repo);
+        SingularAttribute<? super T, ?> modified = modifiedAttributeHelper(em.getMetamodel().entity(clazz));
+        if (modified == null) {
+            throw new IllegalArgumentException(clazz.getSimpleName() + " has no modification time attribute");
+        }
+        long now = System.currentTimeMillis();
+        String cursor = String.valueOf(now - env.getProperty("spring-boot-rest-api-helpers.since-overlap-millis", Long.class, DEFAULT_SINCE_OVERLAP_MILLIS));
+        Long from;
+        try {
+            from = since == null || since.isEmpty() ? null : Long.valueOf(since);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid since cursor: " + since);
+        }
+        boolean reset = from == null || from < tombstoneService.horizon(clazz);
+
+        Specification<T> specification = specificationHelper(specifications, queryParamWrapper, searchOnlyInFields);
+        if (!reset) {
+            Object fromValue = timeHelper(modified.getJavaType(), from);
+            Specification<T> changed = (root, query, builder) -> builder.greaterThanOrEqualTo(root.get(modified.getName()), (Comparable) fromValue);
+            specification = specification == null ? changed : specification.and(changed);
+        }
+        Sort sort = Sort.by(sortHelper(queryParamWrapper.getSort(), primaryKeyName));
+        List<T> rows = specification == null ? repo.findAll(sort) : repo.findAll(specification, sort);
+        List<Object> deleted = reset ? new ArrayList<>() : tombstoneService.deletedSince(clazz, from);
+        return new ChangeSet<>(rows, deleted, cursor, reset);
+    }
+
+    //(a > a0) or (a = a0 and b > b0) or ... with < for descending attributes
+    private Predicate keysetHelper(CriteriaBuilder builder, Root<T> root, List<Sort.Order> sortOrders, T after) {
+        DirectFieldAccessor accessor = new DirectFieldAccessor(Hibernate.unproxy(after));
+        List<Predicate> orPredicates = new ArrayList<>();
+        List<Predicate> equalities = new ArrayList<>();
+        for (Sort.Order order : sortOrders) {
+            Object value = accessor.getPropertyValue(order.getProperty());
+            if (value == null) {
+                throw new IllegalStateException("keyset pagination needs non null values for " + order.getProperty());
+            }
+            Path<Comparable> path = pathHelper(root, order.getProperty());
+            Predicate comparison = order.isAscending() ? builder.greaterThan(path, (Comparable) value) : builder.lessThan(path, (Comparable) value);
+
+            List<Predicate> andPredicates = new ArrayList<>(equalities);
+            andPredicates.add(comparison);
+            orPredicates.add(builder.and(andPredicates.toArray(new Predicate[0])));
+            equalities.add(builder.equal(path, value));
+        }
+        return builder.or(orPredicates.toArray(new Predicate[0]));
+    }
+
+    private Path pathHelper(Root<T> root, String property) {
+        Path path = root;
+        for (String part : property.split("\\.")) {
+            path = path.get(part);
+        }
+        return path;
+    }
+
+    public Aggregation aggregateBy(QueryParamWrapper queryParamWrapper, BaseRepository<T, I> repo, List<String> groupBy, List<String> metrics) {
+        return aggregateBy(queryParamWrapper, repo, groupBy, metrics, "id", new ArrayList<>());
+    }
+
+    //counts and metrics of the matching rows overall and per value of every groupBy field, in one round trip: the
+    //query groups by all fields together and every facet is rolled up from the combinations. more combinations than
+    //aggregate-max-combinations fall back to a grouped query per field. groupBy entries are attribute paths
+    //(associations by id) or integralPath:width for ranges of that width, metrics are sum:path, min:path, max:path
+    //and count:path (non nulls). filters needing joins go into an id IN (SELECT ...) subquery so they do not multiply
+    //the rows being aggregated
+    public Aggregation aggregateBy(QueryParamWrapper queryParamWrapper, BaseRepository<T, I> repo, List<String> groupBy, List<String> metrics,
+                                   String primaryKeyName, List<String> searchOnlyInFields) {
+        Class<T> clazz = domainClass(repo);
+        List<String> functions = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        for (String metric : metrics) {
+            String[] parts = metric.split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("metrics should be given as function:attribute e.g. sum:yearReleased");
+            }
+            functions.add(parts[0]);
+            paths.add(parts[1]);
+        }
+
+        int maxCombinations = env.getProperty("spring-boot-rest-api-helpers.aggregate-max-combinations", Integer.class, DEFAULT_AGGREGATE_MAX_COMBINATIONS);
+        List<Tuple> combinations = aggregateQueryHelper(clazz, queryParamWrapper, groupBy, functions, paths, primaryKeyName, searchOnlyInFields, maxCombinations + 1);
+        Object[] totals = null;
+        Map<String, List<Aggregation.Bucket>> facets = new LinkedHashMap<>();
+        if (groupBy.size() <= 1 || combinations.size() <= maxCombinations) {
+            totals = rollUpHelper(combinations, groupBy, functions, metrics, facets);
+        } else {
+            for (String field : groupBy) {
+                List<Tuple> tuples = aggregateQueryHelper(clazz, queryParamWrapper, Collections.singletonList(field), functions, paths, primaryKeyName, searchOnlyInFields, Integer.MAX_VALUE);
+                totals = rollUpHelper(tuples, Collections.singletonList(field), functions, metrics, facets);
+            }
+        }
+        if (totals == null) {
+            totals = new Object[functions.size() + 1];
+            totals[0] = 0L;
+        }
+        return new Aggregation((Long) totals[0], metricsHelper(metrics, totals), facets);
+    }
+
+    //adds a facet per field with the merged buckets of the tuples and returns the merged totals
+    private Object[] rollUpHelper(List<Tuple> tuples, List<String> groupBy, List<String> functions, List<String> metrics,
+                                  Map<String, List<Aggregation.Bucket>> facets) {
+        Object[] totals = null;
+        List<Map<Object, Object[]>> buckets = new ArrayList<>();
+        groupBy.forEach(field -> buckets.add(new HashMap<>()));
+        for (Tuple tuple : tuples) {
+            Object[] values = new Object[functions.size() + 1];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = tuple.get(groupBy.size() + i);
+            }
+            totals = mergeHelper(totals, values, functions);
+            for (int i = 0; i < groupBy.size(); i++) {
+                buckets.get(i).merge(tuple.get(i), values, (a, b) -> mergeHelper(a, b, functions));
+            }
+        }
+        for (int i = 0; i < groupBy.size(); i++) {
+            List<Aggregation.Bucket> facet = new ArrayList<>();
+            buckets.get(i).entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey(Comparator.nullsFirst((a, b) -> ((Comparable) a).compareTo(b))))
+                    .forEach(e -> facet.add(new Aggregation.Bucket(e.getKey(), (Long) e.getValue()[0], metricsHelper(metrics, e.getValue()))));
+            facets.put(groupBy.get(i), facet);
+        }
+        return totals;
+    }
+
+    //the groups, the row count and the metrics of every combination of the groups
+    private List<Tuple> aggregateQueryHelper(Class<T> clazz, QueryParamWrapper queryParamWrapper, List<String> groupBy, List<String> functions, List<String> paths,
+                                             String primaryKeyName, List<String> searchOnlyInFields, int maxResults) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(clazz);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        List<Expression<?>> groups = new ArrayList<>();
+        for (String field : groupBy) {
+            groups.add(groupHelper(builder, root, field));
+        }
+        selections.addAll(groups);
+        selections.add(builder.count(root));
+        for (int i = 0; i < functions.size(); i++) {
+            selections.add(metricHelper(builder, aggregatePathHelper(root, paths.get(i)), functions.get(i)));
+        }
+        Predicate predicate = updatePredicateHelper(builder, query.subquery(Object.class), root, clazz, queryParamWrapper, primaryKeyName, searchOnlyInFields);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(selections);
+        if (!groups.isEmpty()) {
+            query.groupBy(groups);
+        }
+        return em.createQuery(query).setMaxResults(maxResults).getResultList();
+    }
+
+    //ranges start at multiples of the width with floor semantics: MOD keeps the sign of the dividend so a negative
+    //value that is not a multiple is moved one width down, e.g. -3 with width 10 is in the range starting at -10
+    private Expression<?> groupHelper(CriteriaBuilder builder, Root<T> root, String field) {
+        String[] parts = field.split(":", 2);
+        Path path = aggregatePathHelper(root, parts[0]);
+        if (parts.length == 1) {
+            return path;
+        }
+        Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(path.getJavaType());
+        if (!(type == Integer.class || type == Long.class || type == Short.class || type == Byte.class || type == BigInteger.class)) {
+            throw new IllegalArgumentException("ranges are supported on integral attributes, not on " + parts[0]);
+        }
+        int width;
+        try {
+            width = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            width = 0;
+        }
+        if (width <= 0) {
+            throw new IllegalArgumentException("range width should be a positive integer e.g. yearReleased:10");
+        }
+        Expression<Integer> remainder = builder.mod(path, width);
+        Expression<Number> start = builder.diff(path, remainder);
+        return builder.selectCase()
+                .when(builder.lessThan(remainder, 0), builder.diff(start, width))
+                .otherwise(start);
+    }
+
+    private Expression<?> metricHelper(CriteriaBuilder builder, Path path, String function) {
+        switch (function) {
+            case "sum":
+                return builder.sum(path);
+            case "min":
+                return builder.least(path);
+            case "max":
+                return builder.greatest(path);
+            case "count":
+                return builder.count(path);
+            default:
+                throw new IllegalArgumentException("metric functions are sum, min, max and count, not " + function);
+        }
+    }
+
+    //left joins so rows without the association form their own null group, associations end at their id
+    private Path aggregatePathHelper(Root<T> root, String property) {
+        String usesSnakeCase = env.getProperty("spring-boot-rest-api-helpers.use-snake-case");
+        if (usesSnakeCase != null && usesSnakeCase.equals("true")) {
+            property = convertToCamelCase(property);
+        }
+        From<?, ?> from = root;
+        String[] parts = property.split("\\.");
+        for (int i = 0; i < parts.length; i++) {
+            Attribute<?, ?> attribute = em.getMetamodel().managedType(from.getJavaType()).getAttribute(parts[i]);
+            if (attribute.isCollection()) {
+                throw new IllegalArgumentException("aggregations are supported on single valued attributes, not on " + property);
+            }
+            if (!attribute.isAssociation()) {
+                if (i < parts.length - 1) {
+                    throw new IllegalArgumentException("aggregations are supported on attributes and associations, not on " + property);
+                }
+                return from.get(parts[i]);
+            }
+            from = leftJoinHelper(from, parts[i]);
+        }
+        IdentifiableType<?> target = (IdentifiableType<?>) em.getMetamodel().managedType(from.getJavaType());
+        return from.get(target.getId(target.getIdType().getJavaType()).getName());
+    }
+
+    private Join<?, ?> leftJoinHelper(From<?, ?> from, String attributeName) {
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getAttribute().getName().equals(attributeName) && join.getJoinType() == JoinType.LEFT) {
+                return join;
+            }
+        }
+        return from.join(attributeName, JoinType.LEFT);
+    }
+
+    //values[0] is the row count, the others the metrics in the order of functions
+    private Object[] mergeHelper(Object[] a, Object[] b, List<String> functions) {
+        if (a == null) {
+            return b.clone();
+        }
+        Object[] merged = new Object[a.length];
+        merged[0] = (Long) a[0] + (Long) b[0];
+        for (int i = 1; i < a.length; i++) {
+            Object x = a[i];
+            Object y = b[i];
+            String function = functions.get(i - 1);
+            if (x == null || y == null) {
+                merged[i] = x == null ? y : x;
+            } else if (function.equals("min")) {
+                merged[i] = ((Comparable) x).compareTo(y) <= 0 ? x : y;
+            } else if (function.equals("max")) {
+                merged[i] = ((Comparable) x).compareTo(y) >= 0 ? x : y;
+            } else if (x instanceof BigDecimal) {
+                merged[i] = ((BigDecimal) x).add((BigDecimal) y);
+            } else if (x instanceof BigInteger) {
+                merged[i] = ((BigInteger) x).add((BigInteger) y);
+            } else if (x instanceof Double || x instanceof Float) {
+                merged[i] = ((Number) x).doubleValue() + ((Number) y).doubleValue();
+            } else {
+                merged[i] = ((Number) x).longValue() + ((Number) y).longValue();
+            }
+        }
+        return merged;
+    }
+
+    private Map<String, Object> metricsHelper(List<String> metrics, Object[] values) {
+        Map<String, Object> named = new LinkedHashMap<>();
+        for (int i = 0; i < metrics.size(); i++) {
+            named.put(metrics.get(i), values[i + 1]);
+        }
+        return named;
+    }
+
+    public long updateBy(QueryParamWrapper queryParamWrapper, Map<String, Object> changes, BaseRepository<T, I> repo) {
+        return updateBy(queryParamWrapper, changes, repo, "id", new ArrayList<>());
+    }
+
+    //one UPDATE statement for every row matching the filter, returns the number of rows updated
+    //entities with a @Version get it incremented, entity listeners and cascades do not run
+    public long updateBy(QueryParamWrapper queryParamWrapper, Map<String, Object> changes, BaseRepository<T, I> repo,
+                         String primaryKeyName, List<String> searchOnlyInFields) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("changes should not be empty");
+        }
+        Class<T> clazz = domainClass(repo);
+
+        long rows = bulkHelper(status -> {
+            CriteriaBuilder builder = em.getCriteriaBuilder();
+            CriteriaUpdate<T> update = builder.createCriteriaUpdate(clazz);
+            Root<T> root = update.from(clazz);
+            setChangesHelper(builder, update, root, camelCaseKeysHelper(changes));
+            Predicate predicate = updatePredicateHelper(builder, update.subquery(Object.class), root, clazz, queryParamWrapper, primaryKeyName, searchOnlyInFields);
+            if (predicate != null) {
+                update.where(predicate);
+            }
+            return em.createQuery(update).executeUpdate();
+        });
+        eventPublisher.publishEvent(new EntityChangeEvent(clazz, EntityChangeEvent.Type.UPDATE, rows));
+        return rows;
+    }
+
+    public long deleteBy(QueryParamWrapper queryParamWrapper, BaseRepository<T, I> repo) {
+        return deleteBy(queryParamWrapper, repo, "id", new ArrayList<>());
+    }
+
+    //one DELETE statement for every row matching the filter, returns the number of rows deleted
+    //cascades and orphan removal do not run so rows referencing the deleted ones make it fail
+    //hibernate empties the join tables of the entity before deleting it, so filters on associations cannot stay
+    //in a subquery: the matching ids are selected first and deleted in chunks within the same transaction
+    //an empty filter is rejected instead of deleting the whole table, deleteAll does that on purpose
+    public long deleteBy(QueryParamWrapper queryParamWrapper, BaseRepository<T, I> repo, String primaryKeyName, List<String> searchOnlyInFields) {
+        if (!hasFilter(queryParamWrapper)) {
+            throw new IllegalArgumentException("filter should not be empty, use deleteAll to delete every row");
+        }
+        Class<T> clazz = domainClass(repo);
+
+        long rows = bulkHelper(status -> {
+            CriteriaBuilder builder = em.getCriteriaBuilder();
+            CriteriaQuery<Object> idQuery = builder.createQuery();
+            Root<T> idRoot = idQuery.from(clazz);
+            Predicate idPredicate = predicateHelper(specifications, queryParamWrapper, searchOnlyInFields, builder, idQuery, idRoot);
+
+            if (idPredicate == null || !joinsHelper(idQuery, idRoot)) {
+                CriteriaDelete<T> delete = builder.createCriteriaDelete(clazz);
+                Root<T> root = delete.from(clazz);
+                Predicate predicate = predicateHelper(specifications, queryParamWrapper, searchOnlyInFields, builder, delete.subquery(Object.class), root);
+                if (predicate != null) {
+                    delete.where(predicate);
+                }
+                return em.createQuery(delete).executeUpdate();
+            }
+
+            idQuery.select(idRoot.get(primaryKeyName)).where(idPredicate);
+            List<Object> ids = em.createQuery(idQuery).getResultList();
+            int deleted = 0;
+            for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+                CriteriaDelete<T> delete = builder.createCriteriaDelete(clazz);
+                Root<T> root = delete.from(clazz);
+                delete.where(root.get(primaryKeyName).in(ids.subList(from, Math.min(ids.size(), from + DELETE_CHUNK_SIZE))));
+                deleted += em.createQuery(delete).executeUpdate();
+            }
+            return deleted;
+        });
+        eventPublisher.publishEvent(new EntityChangeEvent(clazz, EntityChangeEvent.Type.DELETE, rows));
+        return rows;
+    }
+
+    //every row of the table with one DELETE statement, with the same limits as deleteBy
+    public long deleteAll(BaseRepository<T, I> repo) {
+        Class<T> clazz = domainClass(repo);
+        long rows = bulkHelper(status -> {
+            CriteriaDelete<T> delete = em.getCriteriaBuilder().createCriteriaDelete(clazz);
+            delete.from(clazz);
+            return em.createQuery(delete).executeUpdate();
+        });
+        eventPublisher.publishEvent(new EntityChangeEvent(clazz, EntityChangeEvent.Type.DELETE, rows));
+        return rows;
+    }
+
+    //the changed attributes are set to their new values and a numeric @Version not among them is incremented
+    void setChangesHelper(CriteriaBuilder builder, CriteriaUpdate<T> update, Root<T> root, Map<String, Object> changes) {
+        EntityType<T> entityType = root.getModel();
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            Attribute<? super T, ?> attribute = entityType.getAttribute(change.getKey());
+            update.set(root.get(attribute.getName()), changeValueHelper(attribute, change.getValue()));
+        }
+        if (entityType.hasVersionAttribute()) {
+            SingularAttribute<? super T, ?> version = versionAttributeHelper(entityType);
+            Path<Number> versionPath = root.get(version.getName());
+            if (!changes.containsKey(version.getName()) && Number.class.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(version.getJavaType()))) {
+                update.set(versionPath, builder.sum(versionPath, 1));
+            }
+        }
+        //hibernate does not generate timestamps for bulk updates but changesSince relies on them
+        SingularAttribute<? super T, ?> modified = modifiedAttributeHelper(entityType);
+        if (modified != null && !changes.containsKey(modified.getName())) {
+            update.set(root.get(modified.getName()), timeHelper(modified.getJavaType(), System.currentTimeMillis()));
+        }
+    }
+
+    SingularAttribute<? super T, ?> modifiedAttributeHelper(EntityType<T> entityType) {
+        SingularAttribute<? super T, ?> named = null;
+        for (SingularAttribute<? super T, ?> attribute : entityType.getSingularAttributes()) {
+            if (!isTimeHelper(attribute.getJavaType())) {
+                continue;
+            }
+            Member member = attribute.getJavaMember();
+            if (attribute.isVersion() || (member instanceof AnnotatedElement
+                    && (((AnnotatedElement) member).isAnnotationPresent(UpdateTimestamp.class) || ((AnnotatedElement) member).isAnnotationPresent(LastModifiedDate.class)))) {
+                return attribute;
+            }
+            if (attribute.getName().equals("updatedAt")) {
+                named = attribute;
+            }
+        }
+        return named;
+    }
+
+    private boolean isTimeHelper(Class<?> type) {
+        return Date.class.isAssignableFrom(type) || type == Instant.class || type == LocalDateTime.class || type == OffsetDateTime.class || type == ZonedDateTime.class;
+    }
+
+    private Object timeHelper(Class<?> type, long millis) {
+        Instant instant = Instant.ofEpochMilli(millis);
+        if (type == Instant.class) {
+            return instant;
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        }
+        if (type == OffsetDateTime.class) {
+            return OffsetDateTime.ofInstant(instant, ZoneId.systemDefault());
+        }
+        if (type == ZonedDateTime.class) {
+            return ZonedDateTime.ofInstant(instant, ZoneId.systemDefault());
+        }
+        if (type == java.sql.Timestamp.class) {
+            return new java.sql.Timestamp(millis);
+        }
+        if (type == java.sql.Date.class) {
+            return new java.sql.Date(millis);
+        }
+        return new Date(millis);
+    }
+
+    Map<String, Object> camelCaseKeysHelper(Map<String, Object> changes) {
+        String usesSnakeCase = env.getProperty("spring-boot-rest-api-helpers.use-snake-case");
+        if (usesSnakeCase == null || !usesSnakeCase.equals("true")) {
+            return changes;
+        }
+        Map<String, Object> camelCaseChanges = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            camelCaseChanges.put(convertToCamelCase(change.getKey()), change.getValue());
+        }
+        return camelCaseChanges;
+    }
+
+    long bulkHelper(TransactionCallback<Integer> callback) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer rows = transactionTemplate.execute(status -> {
+            int updated = callback.doInTransaction(status);
+            //entities loaded before no longer match the database. the persistence context of a caller's transaction
+            //is left alone so its entities stay managed, the caller refreshes the ones it still needs
+            if (status.isNewTransaction()) {
+                em.clear();
+            }
+            return updated;
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    //update statements cannot have joins: conditions that stay on the entity's own columns go straight into the WHERE,
+    //the others (associations, nested filters) are evaluated in an id IN (SELECT ...) subquery
+    private Predicate updatePredicateHelper(CriteriaBuilder builder, Subquery<Object> subquery, Root<T> root, Class<T> clazz,
+                                          QueryParamWrapper queryParamWrapper, String primaryKeyName, List<String> searchOnlyInFields) {
+        if (!hasFilter(queryParamWrapper)) {
+            return null;
+        }
+        Root<T> subRoot = subquery.from(clazz);
+        Predicate subPredicate = predicateHelper(specifications, queryParamWrapper, searchOnlyInFields, builder, subquery, subRoot);
+        if (!joinsHelper(subquery, subRoot)) {
+            return predicateHelper(specifications, queryParamWrapper, searchOnlyInFields, builder, subquery, root);
+        }
+        if (subPredicate != null) {
+            subquery.where(subPredicate);
+        }
+        subquery.select(subRoot.get(primaryKeyName));
+        return root.get(primaryKeyName).in(subquery);
+    }
+
+    private boolean joinsHelper(AbstractQuery<?> query, Root<T> root) {
+        return !root.getJoins().isEmpty() || query.getRoots().size() > 1;
+    }
+
+    public long exportCsvBy(QueryParamWrapper queryParamWrapper, Class<T> clazz, OutputStream stream, boolean withHeaders, char separator) throws IOException {
+        return exportCsvBy(queryParamWrapper, clazz, "id", new ArrayList<>(), stream, withHeaders, separator);
+    }
+
+    //rows are written as they are scrolled; the first one is flushed right away so the client starts receiving at once
+    public long exportCsvBy(QueryParamWrapper queryParamWrapper, Class<T> clazz, String primaryKeyName, List<String> searchOnlyInFields,
+                            OutputStream stream, boolean withHeaders, char separator) throws IOException {
+        int fetchSize = getFetchSize();
+        try (SequenceWriter writer = CsvUtils.writer(clazz, withHeaders, separator).writeValues(stream)) {
+            return scrollBy(queryParamWrapper, clazz, primaryKeyName, searchOnlyInFields, fetchSize, new Consumer<T>() {
+                private long rows;
+
+                @Override
+                public void accept(T row) {
+                    try {
+                        writer.write(row);
+                        if (++rows == 1 || rows % fetchSize == 0) {
+                            writer.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    //the entity class from the type arguments of the repository interface, resolved once per repository class
+    Class<T> domainClass(BaseRepository<T, I> repo) {
+        return (Class<T>) domainClasses.computeIfAbsent(repo.getClass(), repositoryClass -> domainClassHelper(repo));
+    }
+
+    private Class<?> domainClassHelper(BaseRepository<T, I> repo) {
+        Class<?> clazz = ResolvableType.forClass(AopUtils.getTargetClass(repo)).as(BaseRepository.class).resolveGeneric(0);
+        if (clazz == null) {
+            for (Class<?> repositoryInterface : repo.getClass().getInterfaces()) {
+                clazz = ResolvableType.forClass(repositoryInterface).as(BaseRepository.class).resolveGeneric(0);
+                if (clazz != null) {
+                    break;
+                }
+            }
+        }
+        if (clazz == null) {
+            throw new IllegalArgumentException("cannot resolve the entity class of " + repo);
+        }
+        return clazz;
+    }
+
+    //json values are converted to the attribute type, associations are given by id
+    Object changeValueHelper(Attribute<? super T, ?> attribute, Object value) {
+        if (attribute.isCollection()) {
+            throw new IllegalArgumentException("collections cannot be updated in bulk: " + attribute.getName());
+        }
+        if (value == null || value == JSONObject.NULL) {
+            return null;
+        }
+        if (attribute.isAssociation()) {
+            Class<?> targetType = attribute.getJavaType();
+            SingularAttribute<?, ?> targetId = versionOrIdHelper(em.getMetamodel().entity(targetType), false);
+            Object id = value instanceof Map ? ((Map) value).get(targetId.getName()) : value;
+            return em.getReference(targetType, objectMapperProvider.getObjectMapper().convertValue(id, targetId.getJavaType()));
+        }
+        return objectMapperProvider.getObjectMapper().convertValue(value, attribute.getJavaType());
+    }
+
+    SingularAttribute<? super T, ?> versionAttributeHelper(EntityType<T> entityType) {
+        return (SingularAttribute<? super T, ?>) versionOrIdHelper(entityType, true);
+    }
+
+    SingularAttribute<?, ?> versionOrIdHelper(EntityType<?> entityType, boolean version) {
+        for (SingularAttribute<?, ?> attribute : entityType.getSingularAttributes()) {
+            if (version ? attribute.isVersion() : attribute.isId()) {
+                return attribute;
+            }
+        }
+        throw new IllegalArgumentException(entityType.getName() + " has no " + (version ? "version" : "id") + " attribute");
+    }
+
+    private int getFetchSize() {
+        return env.getProperty("spring-boot-rest-api-helpers.export-fetch-size", Integer.class, DEFAULT_FETCH_SIZE);
+    }
+
     private List<Sort.Order> sortHelper(JSONArray sort, String primaryKeyName) {
 
         List<Sort.Order> sortOrders = new ArrayList<>();
@@ -108,11 +913,7 @@ public class FilterService<T, I extends Serializable> {
                                        QueryParamWrapper queryParamWrapper,
                                        String primaryKeyName,
                                        List<String> searchOnlyInFields) {
-        String usesSnakeCase = env.getProperty("spring-boot-rest-api-helpers.use-snake-case");
-
         Sort sortObj;
-        JSONObject filter = queryParamWrapper.getFilter();
-        JSONArray filterOr = queryParamWrapper.getFilterOr();
         JSONArray range = queryParamWrapper.getRange();
         JSONArray sort = queryParamWrapper.getSort();
 
@@ -124,37 +925,156 @@ public class FilterService<T, I extends Serializable> {
         }
 
         sortObj = Sort.by(sortHelper(sort, primaryKeyName));
+        if (residentSnapshots.isEnabled() || columnarSnapshots.isEnabled()) {
+            Class clazz = domainClass((BaseRepository) repo);
+            if (residentSnapshots.isResident(clazz, queryParamWrapper)) {
+                return inMemorySpecifications.filterBy(residentSnapshots.rows(clazz), clazz, queryParamWrapper, primaryKeyName, searchOnlyInFields);
+            }
+            if (columnarSnapshots.isColumnar(clazz)) {
+                ColumnarSnapshots.Result result = columnarSnapshots.query(clazz, queryParamWrapper, sortObj, searchOnlyInFields, page, size);
+                if (result != null) {
+                    return new PageImpl<>(loadByIdsHelper(clazz, result.getIds()), PageRequest.of(page, size, sortObj), result.getTotal());
+                }
+            }
+        }
+        if (queryResultCache.isEnabled()) {
+            return (Page) cachedFilterByHelper((BaseRepository) repo, queryParamWrapper, primaryKeyName, searchOnlyInFields, PageRequest.of(page, size, sortObj));
+        }
+        Specification<T> specification = specificationHelper(specifications, queryParamWrapper, searchOnlyInFields);
         Page result;
-        if (filter != null && filter.length() > 0) {
-            result = repo.findAll(
-                    (Specification<T>) (root, query, builder) -> {
+        if (specification != null) {
+            result = repo.findAll(specification, PageRequest.of(page, size, sortObj));
+        } else {
+            result = repo.findAll(PageRequest.of(page, size, sortObj));
+        }
+        return result;
+    }
 
-                        HashMap<String, Object> map = (HashMap<String, Object>) filter.toMap();
+    //a hit runs no query for the ids: the entities are loaded by id, from the persistence context and the
+    //second-level cache when they are there and in batched IN queries otherwise
+    private Page<T> cachedFilterByHelper(BaseRepository<T, I> repo, QueryParamWrapper queryParamWrapper, String primaryKeyName,
+                                         List<String> searchOnlyInFields, PageRequest pageRequest) {
+        Class<T> clazz = domainClass(repo);
+        String key = queryResultCache.key(clazz, queryParamWrapper, primaryKeyName, searchOnlyInFields);
+        QueryResultCache.Entry entry = queryResultCache.get(key);
+        if (entry != null) {
+            return new PageImpl<>(loadByIdsHelper(clazz, entry.getIds()), pageRequest, entry.getTotal());
+        }
 
-                        if (usesSnakeCase != null && usesSnakeCase.equals("true")) {
-                            map = convertToCamelCase(map);
-                        }
+        long sequence = entityChangeTracker.sequence();
+        Set<Class<?>> touched = new HashSet<>();
+        touched.add(clazz);
+        for (Sort.Order order : pageRequest.getSort()) {
+            sortTypesHelper(clazz, order.getProperty(), touched);
+        }
+        Specification<T> specification = specificationHelper(specifications, queryParamWrapper, searchOnlyInFields);
+        Page<T> result;
+        if (specification != null) {
+            result = repo.findAll((Specification<T>) (root, query, builder) -> {
+                Predicate predicate = specification.toPredicate(root, query, builder);
+                for (Root<?> queryRoot : query.getRoots()) {
+                    touched.add(queryRoot.getJavaType());
+                    joinTypesHelper(queryRoot, touched);
+                }
+                return predicate;
+            }, pageRequest);
+        } else {
+            result = repo.findAll(pageRequest);
+        }
 
-                        return specifications.customSpecificationBuilder(builder, query, root,
-                                map, searchOnlyInFields
-                        );
-                    }, PageRequest.of(page, size, sortObj));
+        List<Serializable> ids = new ArrayList<>(result.getNumberOfElements());
+        for (T row : result.getContent()) {
+            ids.add((Serializable) em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(row));
+        }
+        queryResultCache.put(key, new QueryResultCache.Entry(ids, result.getTotalElements(), touched), sequence);
+        return result;
+    }
 
-        } else if (filterOr != null && filterOr.length() > 0) {
-            result = repo.findAll(
-                    (Specification<T>) (root, query, builder) -> {
-                        List list = filterOr.toList();
-                        if (usesSnakeCase != null && usesSnakeCase.equals("true")) {
-                            //map = convertToCamelCase(map); TODO for list
-                        }
-                        return specifications.customSpecificationBuilder(builder, query, root, list);
-                    }
-                    , PageRequest.of(page, size, sortObj));
+    private List<T> loadByIdsHelper(Class<T> clazz, List<Serializable> ids) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> {
+            List<T> rows = new ArrayList<>(ids.size());
+            for (T row : em.unwrap(Session.class).byMultipleIds(clazz).enableSessionCheck(true).multiLoad(ids)) {
+                //deleted after the ids were cached and before the entry was invalidated
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+            return rows;
+        });
+    }
 
-        } else {
-            result = repo.findAll(PageRequest.of(page, size, sortObj));
+    private void joinTypesHelper(From<?, ?> from, Set<Class<?>> touched) {
+        for (Join<?, ?> join : from.getJoins()) {
+            touched.add(join.getJavaType());
+            joinTypesHelper(join, touched);
         }
-        return result;
+    }
+
+    //sorting on director.firstName joins the director
+    private void sortTypesHelper(Class<?> clazz, String property, Set<Class<?>> touched) {
+        ManagedType<?> type = em.getMetamodel().managedType(clazz);
+        for (String part : property.split("\\.")) {
+            Attribute<?, ?> attribute = type.getAttribute(part);
+            if (!(attribute instanceof Bindable)) {
+                return;
+            }
+            Class<?> javaType = ((Bindable<?>) attribute).getBindableJavaType();
+            if (attribute.isAssociation()) {
+                touched.add(javaType);
+            }
+            if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC) {
+                return;
+            }
+            type = em.getMetamodel().managedType(javaType);
+        }
+    }
+
+    //null when there is neither filter nor filterOr
+    private <T> Specification<T> specificationHelper(CustomSpecifications<T> specifications,
+                                                     QueryParamWrapper queryParamWrapper,
+                                                     List<String> searchOnlyInFields) {
+        if (!hasFilter(queryParamWrapper)) {
+            return null;
+        }
+        return (Specification<T>) (root, query, builder) -> predicateHelper(specifications, queryParamWrapper, searchOnlyInFields, builder, query, root);
+    }
+
+    private boolean hasFilter(QueryParamWrapper queryParamWrapper) {
+        JSONObject filter = queryParamWrapper.getFilter();
+        JSONArray filterOr = queryParamWrapper.getFilterOr();
+        return (filter != null && filter.length() > 0) || (filterOr != null && filterOr.length() > 0);
+    }
+
+    //takes any query so the same predicate can be built inside a subquery
+    private <T> Predicate predicateHelper(CustomSpecifications<T> specifications,
+                                          QueryParamWrapper queryParamWrapper,
+                                          List<String> searchOnlyInFields,
+                                          CriteriaBuilder builder, AbstractQuery<?> query, Root<T> root) {
+        String usesSnakeCase = env.getProperty("spring-boot-rest-api-helpers.use-snake-case");
+        JSONObject filter = queryParamWrapper.getFilter();
+        JSONArray filterOr = queryParamWrapper.getFilterOr();
+
+        if (filter != null && filter.length() > 0) {
+            HashMap<String, Object> map = (HashMap<String, Object>) filter.toMap();
+
+            if (usesSnakeCase != null && usesSnakeCase.equals("true")) {
+                map = convertToCamelCase(map);
+            }
+
+            return specifications.customSpecificationBuilder(builder, query, root,
+                    map, searchOnlyInFields
+            );
+
+        } else if (filterOr != null && filterOr.length() > 0) {
+            List list = filterOr.toList();
+            if (usesSnakeCase != null && usesSnakeCase.equals("true")) {
+                //map = convertToCamelCase(map); TODO for list
+            }
+            return specifications.customSpecificationBuilder(builder, query, root, list);
+        }
+        return null;
     }
 
     private HashMap<String, Object> convertToCamelCase(HashMap<String, Object> snakeCaseMap) {
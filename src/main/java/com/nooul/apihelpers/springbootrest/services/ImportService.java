@@ -0,0 +1,238 @@
+package com.nooul.apihelpers.springbootrest.services;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.nooul.apihelpers.springbootrest.entities.ImportBatch;
+import com.nooul.apihelpers.springbootrest.entities.ImportProgress;
+import com.nooul.apihelpers.springbootrest.repositories.BaseRepository;
+import com.nooul.apihelpers.springbootrest.repositories.BatchWriteRepository;
+import com.nooul.apihelpers.springbootrest.utils.CsvUtils;
+import com.nooul.apihelpers.springbootrest.utils.JSON;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+//streams rows into the repository in batches: every batch is saved in its own transaction,
+//flushed as one JDBC batch and detached afterwards so memory does not grow with the input.
+//hibernate does not batch inserts of IDENTITY ids, BatchWriteRepository does with import-multi-row-inserts
+@Service
+public class ImportService {
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int MAX_ERRORS = 100;
+
+    @Autowired
+    private Environment env;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private Validator validator;
+
+    public <T, I extends Serializable> ImportProgress importCsv(BaseRepository<T, I> repo, Class<T> clazz, InputStream stream, boolean withHeaders, char separator) throws IOException {
+        return importCsv(repo, clazz, stream, withHeaders, separator, getBatchSize(), null);
+    }
+
+    public <T, I extends Serializable> ImportProgress importCsv(BaseRepository<T, I> repo, Class<T> clazz, InputStream stream, boolean withHeaders, char separator,
+                                                                int batchSize, Consumer<ImportProgress> progressListener) throws IOException {
+        try (MappingIterator<T> rows = CsvUtils.iterate(clazz, stream, withHeaders, separator)) {
+            return importRows(repo, rows, batchSize, progressListener);
+        }
+    }
+
+    //memory maps the file and parses it on the common fork-join pool, rows are saved in file order
+    public <T, I extends Serializable> ImportProgress importCsv(BaseRepository<T, I> repo, Class<T> clazz, Path file, boolean withHeaders, char separator,
+                                                                int batchSize, Consumer<ImportProgress> progressListener) throws IOException {
+        BatchImport<T, I> batchImport = new BatchImport<>(repo, batchSize, progressListener);
+        CsvUtils.read(clazz, file, withHeaders, separator, batchSize, true, rows -> {
+            for (T row : rows) {
+                batchImport.add(row, "row " + (batchImport.rowsRead + 1));
+            }
+        });
+        return batchImport.finish();
+    }
+
+    //bulk creates posted as a json array are bound one element at a time so the payload is never held in memory
+    public <T, I extends Serializable> ImportProgress importJson(BaseRepository<T, I> repo, Class<T> clazz, InputStream stream) throws IOException {
+        return importJson(repo, clazz, stream, getBatchSize(), null);
+    }
+
+    public <T, I extends Serializable> ImportProgress importJson(BaseRepository<T, I> repo, Class<T> clazz, InputStream stream,
+                                                                 int batchSize, Consumer<ImportProgress> progressListener) throws IOException {
+        try (MappingIterator<T> items = JSON.iterate(stream, clazz)) {
+            BatchImport<T, I> batchImport = new BatchImport<>(repo, batchSize, progressListener);
+            while (items.hasNextValue()) {
+                batchImport.add(items.nextValue(), "item " + (batchImport.rowsRead + 1));
+            }
+            return batchImport.finish();
+        }
+    }
+
+    protected <T, I extends Serializable> ImportProgress importRows(BaseRepository<T, I> repo, MappingIterator<T> rows, int batchSize, Consumer<ImportProgress> progressListener) throws IOException {
+        BatchImport<T, I> batchImport = new BatchImport<>(repo, batchSize, progressListener);
+        while (rows.hasNextValue()) {
+            int line = rows.getCurrentLocation().getLineNr();
+            batchImport.add(rows.nextValue(), "line " + line);
+        }
+        return batchImport.finish();
+    }
+
+    private class BatchImport<T, I extends Serializable> {
+
+        private final BaseRepository<T, I> repo;
+        private final int batchSize;
+        private final Consumer<ImportProgress> progressListener;
+        private final long start = System.currentTimeMillis();
+        private final List<String> errors = new ArrayList<>();
+        private final List<T> batch;
+        private String from;
+        private String to;
+        private long rowsRead;
+        private long rowsSaved;
+        private long rowsSkipped;
+        private long rowsFailed;
+        private int batches;
+        private int failedBatches;
+        private ImportBatch lastBatch;
+
+        BatchImport(BaseRepository<T, I> repo, int batchSize, Consumer<ImportProgress> progressListener) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("batchSize must be positive");
+            }
+            this.repo = repo;
+            this.batchSize = batchSize;
+            this.progressListener = progressListener;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        void add(T row, String position) {
+            rowsRead++;
+            String violations = validate(row);
+            if (violations != null) {
+                rowsSkipped++;
+                if (errors.size() < MAX_ERRORS) {
+                    errors.add(position + ": " + violations);
+                }
+                return;
+            }
+
+            if (batch.isEmpty()) {
+                from = position;
+            }
+            to = position;
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                saveBatch();
+                report(progressListener, progress());
+            }
+        }
+
+        ImportProgress finish() {
+            if (!batch.isEmpty()) {
+                saveBatch();
+            }
+            ImportProgress result = progress();
+            report(progressListener, result);
+            return result;
+        }
+
+        //a batch that the database rejects is rolled back and reported, the batches before and after it are kept.
+        //every batch runs in a new transaction so a rejected batch does not mark the caller's transaction
+        //rollback-only and clearing the batch does not detach the caller's entities
+        private void saveBatch() {
+            long batchStart = System.currentTimeMillis();
+            String error = null;
+            try {
+                TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+                transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (useMultiRowInserts() && repo instanceof BatchWriteRepository) {
+                        ((BatchWriteRepository<T, I>) repo).upsertAll(batch, batchSize);
+                    } else {
+                        em.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                        repo.saveAll(batch);
+                        em.flush();
+                    }
+                    em.clear();
+                });
+            } catch (DataAccessException | PersistenceException | TransactionException e) {
+                error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            }
+            batches++;
+            if (error == null) {
+                rowsSaved += batch.size();
+            } else {
+                rowsFailed += batch.size();
+                failedBatches++;
+                if (errors.size() < MAX_ERRORS) {
+                    errors.add(from + " - " + to + ": " + error);
+                }
+            }
+            lastBatch = new ImportBatch(batches, from, to, error == null ? batch.size() : 0, error == null ? 0 : batch.size(),
+                    System.currentTimeMillis() - batchStart, error);
+            batch.clear();
+        }
+
+        private ImportProgress progress() {
+            return new ImportProgress(rowsRead, rowsSaved, rowsSkipped, rowsFailed, batches, failedBatches, System.currentTimeMillis() - start,
+                    Collections.unmodifiableList(new ArrayList<>(errors)), lastBatch);
+        }
+    }
+
+    private String validate(Object row) {
+        if (validator == null) {
+            return null;
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        List<String> messages = new ArrayList<>();
+        for (ConstraintViolation<Object> violation : violations) {
+            messages.add(violation.getPropertyPath() + " " + violation.getMessage());
+        }
+        Collections.sort(messages);
+        return String.join(", ", messages);
+    }
+
+    private void report(Consumer<ImportProgress> progressListener, ImportProgress progress) {
+        if (progressListener != null) {
+            progressListener.accept(progress);
+        }
+    }
+
+    //multi-row statements are much faster for IDENTITY ids but skip entity listeners, cascades and collections,
+    //only repositories that also extend BatchWriteRepository have them
+    private boolean useMultiRowInserts() {
+        return env.getProperty("spring-boot-rest-api-helpers.import-multi-row-inserts", Boolean.class, false);
+    }
+
+    private int getBatchSize() {
+        return env.getProperty("spring-boot-rest-api-helpers.import-batch-size", Integer.class, DEFAULT_BATCH_SIZE);
+    }
+}
@@ -0,0 +1,113 @@
+package com.nooul.apihelpers.springbootrest.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.nooul.apihelpers.springbootrest.entities.EntityChangeEvent;
+import com.nooul.apihelpers.springbootrest.exceptions.ConflictException;
+import com.nooul.apihelpers.springbootrest.exceptions.NotFoundException;
+import com.nooul.apihelpers.springbootrest.providers.ObjectMapperProvider;
+import com.nooul.apihelpers.springbootrest.repositories.BaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//partial updates from a json merge document: one UPDATE ... WHERE id = ? [AND version = ?] that sets only the
+//supplied attributes, without loading the entity first. entity listeners and cascades do not run
+@Service
+public class PatchService<T, I extends Serializable> {
+
+    @Autowired
+    private FilterService<T, I> filterService;
+
+    @Autowired
+    private ObjectMapperProvider objectMapperProvider;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public void patchById(I id, String document, BaseRepository<T, I> repo) {
+        patchById(id, document, repo, null);
+    }
+
+    public void patchById(I id, String document, BaseRepository<T, I> repo, Object expectedVersion) {
+        Map<String, Object> changes;
+        try {
+            changes = objectMapperProvider.getObjectMapper().readValue(document, new TypeReference<LinkedHashMap<String, Object>>() {});
+        } catch (IOException e) {
+            throw new IllegalArgumentException("invalid merge document: " + e.getMessage());
+        }
+        patchById(id, changes, repo, expectedVersion);
+    }
+
+    public void patchById(I id, Map<String, Object> document, BaseRepository<T, I> repo) {
+        patchById(id, document, repo, null);
+    }
+
+    //the version to check is the given one or else the one in the document, either way it gets incremented
+    //throws NotFoundException when there is no such row and ConflictException when its version is not the expected one
+    public void patchById(I id, Map<String, Object> document, BaseRepository<T, I> repo, Object expectedVersion) {
+        if (document == null || document.isEmpty()) {
+            throw new IllegalArgumentException("merge document should not be empty");
+        }
+        Class<T> clazz = filterService.domainClass(repo);
+        EntityType<T> entityType = em.getMetamodel().entity(clazz);
+        Map<String, Object> changes = new LinkedHashMap<>(filterService.camelCaseKeysHelper(document));
+
+        SingularAttribute<?, ?> idAttribute = filterService.versionOrIdHelper(entityType, false);
+        if (changes.containsKey(idAttribute.getName())) {
+            Object documentId = changes.remove(idAttribute.getName());
+            if (documentId != null && !id.equals(objectMapperProvider.getObjectMapper().convertValue(documentId, idAttribute.getJavaType()))) {
+                throw new IllegalArgumentException("the id of the document does not match " + id);
+            }
+        }
+        SingularAttribute<? super T, ?> versionAttribute = entityType.hasVersionAttribute() ? filterService.versionAttributeHelper(entityType) : null;
+        if (versionAttribute != null && changes.containsKey(versionAttribute.getName())) {
+            Object documentVersion = changes.remove(versionAttribute.getName());
+            if (expectedVersion == null) {
+                expectedVersion = documentVersion;
+            }
+        }
+        if (expectedVersion != null && versionAttribute == null) {
+            throw new IllegalArgumentException(clazz.getSimpleName() + " has no version attribute");
+        }
+        if (changes.isEmpty()) {
+            throw new IllegalArgumentException("merge document should change at least one attribute");
+        }
+
+        Object version = expectedVersion == null ? null : objectMapperProvider.getObjectMapper().convertValue(expectedVersion, versionAttribute.getJavaType());
+        long rows = filterService.bulkHelper(status -> {
+            CriteriaBuilder builder = em.getCriteriaBuilder();
+            CriteriaUpdate<T> update = builder.createCriteriaUpdate(clazz);
+            Root<T> root = update.from(clazz);
+            filterService.setChangesHelper(builder, update, root, changes);
+            Predicate predicate = builder.equal(root.get(idAttribute.getName()), id);
+            if (version != null) {
+                predicate = builder.and(predicate, builder.equal(root.get(versionAttribute.getName()), version));
+            }
+            return em.createQuery(update.where(predicate)).executeUpdate();
+        });
+
+        if (rows == 0) {
+            if (version != null && repo.existsById(id)) {
+                throw new ConflictException(clazz.getSimpleName() + " " + id + " is not at version " + version);
+            }
+            throw new NotFoundException(clazz.getSimpleName() + " " + id + " not found");
+        }
+        eventPublisher.publishEvent(new EntityChangeEvent(clazz, EntityChangeEvent.Type.UPDATE, rows));
+    }
+}
@@ -0,0 +1,98 @@
+package com.nooul.apihelpers.springbootrest.services;
+
+import com.nooul.apihelpers.springbootrest.entities.EntityChangeEvent;
+import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//ordered ids and total count of filterBy results, keyed by entity class and the normalized filter/sort/range.
+//an entry remembers every entity class its query touched (root, joins, sort paths) and is dropped as soon as
+//one of them changes. off unless spring-boot-rest-api-helpers.query-cache-size is set
+@Service
+public class QueryResultCache implements EntityChangeTracker.Listener {
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Entry {
+        private final List<Serializable> ids;
+        private final long total;
+        private final Set<Class<?>> touched;
+    }
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private EntityChangeTracker tracker;
+
+    private Map<String, Entry> entries;
+    private int size;
+
+    @PostConstruct
+    public void init() {
+        size = env.getProperty("spring-boot-rest-api-helpers.query-cache-size", Integer.class, 0);
+        entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > size;
+            }
+        };
+        if (isEnabled()) {
+            tracker.addListener(this);
+        }
+    }
+
+    public boolean isEnabled() {
+        return size > 0;
+    }
+
+    //filters with the same keys in another order are the same query
+    public String key(Class<?> clazz, QueryParamWrapper queryParamWrapper, String primaryKeyName, List<String> searchOnlyInFields) {
+        return clazz.getName() + "|" + QueryParamExtractor.normalize(queryParamWrapper) + "|" + primaryKeyName + "|" + searchOnlyInFields;
+    }
+
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    //sequence is the tracker's sequence from before the query ran: the entry is not kept when a touched class
+    //changed since then because the query may have read the rows before the change
+    public synchronized void put(String key, Entry entry, long sequence) {
+        for (Class<?> clazz : entry.getTouched()) {
+            if (tracker.version(clazz) > sequence) {
+                return;
+            }
+        }
+        entries.put(key, entry);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized void onChange(Class<?> entityClass, EntityChangeEvent.Type type, Object entity) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            for (Class<?> touched : iterator.next().getTouched()) {
+                if (touched.isAssignableFrom(entityClass)) {
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.nooul.apihelpers.springbootrest.services;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
+import com.nooul.apihelpers.springbootrest.serializers.IdReference;
+import com.nooul.apihelpers.springbootrest.specifications.InMemorySpecifications;
+import com.nooul.apihelpers.springbootrest.utils.EntityAccessors;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.Type;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+//whole tables of small, rarely changing entities held in memory so that FilterService serves their filter/sort/range
+//and counts without a query. a snapshot is an unmodifiable list of detached rows with their associations loaded, it is
+//replaced (never changed) by a new one on the first read after the entity or anything reachable from it changed
+//(EntityChangeTracker.dataVersion). readers keep the snapshot they started with. rows are shared so treat them as read-only.
+//associations are loaded resident-depth levels deep (1 = those of the rows themselves), anything deeper must be exposed
+//only as ids (@IdReference) or not at all (@JsonIgnore) - register checks it so no lazy association is left to throw later
+@Service
+public class ResidentSnapshots {
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Snapshot {
+        private final List<Object> rows;
+        private final long sequence;
+    }
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private EntityChangeTracker tracker;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private InMemorySpecifications<Object> inMemorySpecifications;
+
+    private final Set<Class<?>> resident = ConcurrentHashMap.newKeySet();
+    private final Map<Class<?>, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Object> locks = new ConcurrentHashMap<>();
+
+    //entity names (or class names) separated by commas
+    @PostConstruct
+    public void init() {
+        for (String name : StringUtils.commaDelimitedListToSet(env.getProperty("spring-boot-rest-api-helpers.resident-entities", ""))) {
+            register(entityClass(name.trim()));
+        }
+    }
+
+    public void register(Class<?> entityClass) {
+        checkDepth(entityManagerFactory.getMetamodel().entity(entityClass), 1, entityClass.getSimpleName());
+        resident.add(entityClass);
+    }
+
+    public boolean isEnabled() {
+        return !resident.isEmpty();
+    }
+
+    public boolean isResident(Class<?> entityClass) {
+        return !resident.isEmpty() && resident.contains(entityClass);
+    }
+
+    //false as well when the filter walks associations past the loaded ones, FilterService queries the table for those
+    public boolean isResident(Class<?> entityClass, QueryParamWrapper queryParamWrapper) {
+        if (!isResident(entityClass)) {
+            return false;
+        }
+        for (List<String> path : inMemorySpecifications.joinPaths((Class<Object>) entityClass, queryParamWrapper)) {
+            if (!isLoaded(entityManagerFactory.getMetamodel().entity(entityClass), path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //the same levels initialize walks: ignored associations are skipped and id references are not walked into
+    private boolean isLoaded(EntityType<?> entityType, List<String> path) {
+        for (int level = 1; level <= path.size() && entityType != null; level++) {
+            Attribute<?, ?> attribute = entityType.getAttribute(path.get(level - 1));
+            if (level > getDepth() || isIgnored(entityType, attribute) || level < path.size() && isIdReference(entityType, attribute)) {
+                return false;
+            }
+            entityType = target(attribute);
+        }
+        return true;
+    }
+
+    public <T> List<T> rows(Class<T> entityClass) {
+        Snapshot snapshot = snapshots.get(entityClass);
+        if (snapshot == null || tracker.dataVersion(entityClass) > snapshot.getSequence()) {
+            snapshot = rebuild(entityClass);
+        }
+        return (List<T>) snapshot.getRows();
+    }
+
+    //one rebuild at a time per entity, the readers that waited for it use its snapshot
+    private Snapshot rebuild(Class<?> entityClass) {
+        synchronized (locks.computeIfAbsent(entityClass, key -> new Object())) {
+            Snapshot snapshot = snapshots.get(entityClass);
+            if (snapshot != null && tracker.dataVersion(entityClass) <= snapshot.getSequence()) {
+                return snapshot;
+            }
+            long sequence = tracker.sequence();
+            snapshot = new Snapshot(Collections.unmodifiableList(load(entityClass)), sequence);
+            snapshots.put(entityClass, snapshot);
+            return snapshot;
+        }
+    }
+
+    //an entity manager of its own so the rows are never part of the persistence context of a caller
+    private List<Object> load(Class<?> entityClass) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            EntityType<?> entityType = em.getMetamodel().entity(entityClass);
+            List<Object> rows = em.createQuery("select e from " + entityType.getName() + " e", Object.class).getResultList();
+            Map<Object, Integer> initialized = new IdentityHashMap<>();
+            for (Object row : rows) {
+                initialize(row, entityType, 1, initialized);
+            }
+            return rows;
+        } finally {
+            em.close();
+        }
+    }
+
+    //an entity reached again at a shallower level is walked again so its own associations get the levels left
+    private void initialize(Object row, EntityType<?> entityType, int level, Map<Object, Integer> initialized) {
+        Integer previous = initialized.get(row);
+        if (previous != null && previous <= level) {
+            return;
+        }
+        initialized.put(row, level);
+        for (Attribute<?, ?> attribute : entityType.getAttributes()) {
+            if (!attribute.isAssociation() && !attribute.isCollection() || isIgnored(entityType, attribute)) {
+                continue;
+            }
+            Object value = EntityAccessors.read(row, attribute.getName());
+            Hibernate.initialize(value);
+            EntityType<?> target = target(attribute);
+            if (value == null || target == null || level == getDepth() || isIdReference(entityType, attribute)) {
+                continue;
+            }
+            if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    initialize(element, target, level + 1, initialized);
+                }
+            } else {
+                initialize(Hibernate.unproxy(value), target, level + 1, initialized);
+            }
+        }
+    }
+
+    //walks the associations that are serialized in full, the ones past the depth would be lazy in the snapshot
+    private void checkDepth(EntityType<?> entityType, int level, String path) {
+        for (Attribute<?, ?> attribute : entityType.getAttributes()) {
+            EntityType<?> target = target(attribute);
+            if (target == null || isIgnored(entityType, attribute)) {
+                continue;
+            }
+            if (level > getDepth()) {
+                throw new IllegalArgumentException("resident association " + path + "." + attribute.getName()
+                        + " is deeper than resident-depth " + getDepth() + ", expose " + path + " with @IdReference or raise the depth");
+            }
+            if (!isIdReference(entityType, attribute)) {
+                checkDepth(target, level + 1, path + "." + attribute.getName());
+            }
+        }
+    }
+
+    private EntityType<?> target(Attribute<?, ?> attribute) {
+        Type<?> type = attribute instanceof PluralAttribute ? ((PluralAttribute<?, ?, ?>) attribute).getElementType() : ((SingularAttribute<?, ?>) attribute).getType();
+        return type.getPersistenceType() == Type.PersistenceType.ENTITY ? (EntityType<?>) type : null;
+    }
+
+    private boolean isIdReference(EntityType<?> entityType, Attribute<?, ?> attribute) {
+        return hasAnnotation(entityType.getJavaType(), attribute.getName(), IdReference.class);
+    }
+
+    private boolean isIgnored(EntityType<?> entityType, Attribute<?, ?> attribute) {
+        return hasAnnotation(entityType.getJavaType(), attribute.getName(), JsonIgnore.class);
+    }
+
+    private boolean hasAnnotation(Class<?> clazz, String property, Class<? extends Annotation> annotation) {
+        Field field = ReflectionUtils.findField(clazz, property);
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(clazz, property);
+        return field != null && field.isAnnotationPresent(annotation)
+                || descriptor != null && descriptor.getReadMethod() != null && descriptor.getReadMethod().isAnnotationPresent(annotation);
+    }
+
+    private int getDepth() {
+        return env.getProperty("spring-boot-rest-api-helpers.resident-depth", Integer.class, 1);
+    }
+
+    private Class<?> entityClass(String name) {
+        for (EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+            if (entityType.getName().equals(name) || entityType.getJavaType().getName().equals(name)) {
+                return entityType.getJavaType();
+            }
+        }
+        throw new IllegalArgumentException("resident entity " + name + " is not an entity");
+    }
+}
@@ -0,0 +1,256 @@
+package com.nooul.apihelpers.springbootrest.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.nooul.apihelpers.springbootrest.entities.EntityChangeEvent;
+import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
+import com.nooul.apihelpers.springbootrest.exceptions.TooManyRequestsException;
+import com.nooul.apihelpers.springbootrest.providers.ObjectMapperProvider;
+import com.nooul.apihelpers.springbootrest.specifications.InMemorySpecifications;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+//live queries: the filter of a subscription is compiled into an in-memory predicate (InMemorySpecifications) that is
+//tested against every committed change EntityChangeTracker sees, matching inserts, updates and deletes are pushed
+//as server-sent events. an update that makes a row leave the filter is pushed as a delete.
+//events wait in a bounded queue per subscriber and are sent from a small pool, a subscriber that falls behind
+//loses its queue and gets a reset event instead (refetch the list). bulk changes are reset events too.
+//a subscriber whose send has blocked for longer than subscription-send-timeout-millis is dropped so it stops taking
+//pool threads, its connection is completed once that send returns
+@Service
+public class SubscriptionService implements EntityChangeTracker.Listener {
+
+    public static final String INSERT = "insert";
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+    public static final String RESET = "reset";
+
+    private static final int DEFAULT_MAX_SUBSCRIBERS = 1000;
+    private static final int DEFAULT_QUEUE_SIZE = 100;
+    private static final int DEFAULT_THREADS = 2;
+    private static final long DEFAULT_TIMEOUT_MINUTES = 30;
+    private static final long DEFAULT_SEND_TIMEOUT_MILLIS = 10000;
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Subscription {
+        private final Class<?> entityClass;
+        private final Predicate<Object> predicate;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> events;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        //when the send in progress started, 0 between sends
+        private final AtomicLong sendingSince = new AtomicLong();
+    }
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private EntityChangeTracker tracker;
+
+    @Autowired
+    private InMemorySpecifications inMemorySpecifications;
+
+    @Autowired
+    private ObjectMapperProvider objectMapperProvider;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private ExecutorService executor;
+    private int maxSubscribers;
+    private int queueSize;
+    private long timeoutMillis;
+    private long sendTimeoutMillis;
+
+    @PostConstruct
+    public void init() {
+        maxSubscribers = env.getProperty("spring-boot-rest-api-helpers.subscription-max-subscribers", Integer.class, DEFAULT_MAX_SUBSCRIBERS);
+        queueSize = env.getProperty("spring-boot-rest-api-helpers.subscription-queue-size", Integer.class, DEFAULT_QUEUE_SIZE);
+        timeoutMillis = TimeUnit.MINUTES.toMillis(env.getProperty("spring-boot-rest-api-helpers.subscription-timeout-minutes", Long.class, DEFAULT_TIMEOUT_MINUTES));
+        sendTimeoutMillis = env.getProperty("spring-boot-rest-api-helpers.subscription-send-timeout-millis", Long.class, DEFAULT_SEND_TIMEOUT_MILLIS);
+        int threads = env.getProperty("spring-boot-rest-api-helpers.subscription-threads", Integer.class, DEFAULT_THREADS);
+
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "subscription-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        tracker.addListener(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        tracker.removeListener(this);
+        executor.shutdownNow();
+        for (Subscription subscription : subscriptions) {
+            subscription.getEmitter().complete();
+        }
+        subscriptions.clear();
+    }
+
+    public <T> SseEmitter subscribe(Class<T> entityClass, QueryParamWrapper queryParamWrapper) {
+        return subscribe(entityClass, queryParamWrapper, new ArrayList<>());
+    }
+
+    //return the emitter from the controller. throws TooManyRequestsException when this node has maxSubscribers already
+    //and IllegalArgumentException for filters CustomSpecifications would reject
+    public <T> SseEmitter subscribe(Class<T> entityClass, QueryParamWrapper queryParamWrapper, List<String> searchOnlyInFields) {
+        Predicate<Object> predicate = inMemorySpecifications.predicate(entityClass, queryParamWrapper, searchOnlyInFields);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(entityClass, predicate, emitter, new ArrayBlockingQueue<>(queueSize));
+        synchronized (subscriptions) {
+            if (subscriptions.size() >= maxSubscribers) {
+                throw new TooManyRequestsException("too many subscribers, try again later");
+            }
+            subscriptions.add(subscription);
+        }
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(error -> subscriptions.remove(subscription));
+        return emitter;
+    }
+
+    public int subscribers() {
+        return subscriptions.size();
+    }
+
+    @Override
+    public void onChange(Class<?> entityClass, EntityChangeEvent.Type type, Object entity) {
+        onChange(entityClass, type, entity, null);
+    }
+
+    @Override
+    public boolean needsPrevious(Class<?> entityClass) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.getEntityClass().isAssignableFrom(entityClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onChange(Class<?> entityClass, EntityChangeEvent.Type type, Object entity, Object previous) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        String id = String.valueOf(tracker.sequence());
+        long now = System.currentTimeMillis();
+        //serialized once for all the subscribers it matches, while the session that changed it is still open
+        String entityJson = null;
+        String idJson = null;
+        for (Subscription subscription : subscriptions) {
+            long sendingSince = subscription.getSendingSince().get();
+            if (sendingSince != 0 && now - sendingSince > sendTimeoutMillis) {
+                //the emitter is locked by the blocked send, so it is completed by the sender
+                subscriptions.remove(subscription);
+                subscription.getEvents().clear();
+                continue;
+            }
+            if (!subscription.getEntityClass().isAssignableFrom(entityClass)) {
+                continue;
+            }
+            if (entity == null) {
+                enqueue(subscription, reset(id, subscription));
+                continue;
+            }
+            try {
+                String name = eventName(subscription, type, entity, previous);
+                if (name == null) {
+                    continue;
+                }
+                if (name.equals(DELETE)) {
+                    idJson = idJson != null ? idJson : json(entityManagerFactory.getPersistenceUnitUtil().getIdentifier(entity));
+                    enqueue(subscription, event(id, name, idJson));
+                } else {
+                    entityJson = entityJson != null ? entityJson : json(entity);
+                    enqueue(subscription, event(id, name, entityJson));
+                }
+            } catch (RuntimeException | JsonProcessingException e) {
+                //e.g. lazy associations of a filter or of the entity that cannot be loaded anymore
+                enqueue(subscription, reset(id, subscription));
+            }
+        }
+    }
+
+    private String eventName(Subscription subscription, EntityChangeEvent.Type type, Object entity, Object previous) {
+        boolean matches = subscription.getPredicate().test(entity);
+        if (type == EntityChangeEvent.Type.INSERT) {
+            return matches ? INSERT : null;
+        } else if (type == EntityChangeEvent.Type.DELETE) {
+            return matches ? DELETE : null;
+        } else if (matches) {
+            return UPDATE;
+        }
+        return previous != null && subscription.getPredicate().test(previous) ? DELETE : null;
+    }
+
+    private String json(Object value) throws JsonProcessingException {
+        return objectMapperProvider.getObjectMapper().writeValueAsString(value);
+    }
+
+    private SseEmitter.SseEventBuilder event(String id, String name, Object data) {
+        return SseEmitter.event().id(id).name(name).data(data, MediaType.APPLICATION_JSON);
+    }
+
+    private SseEmitter.SseEventBuilder reset(String id, Subscription subscription) {
+        return SseEmitter.event().id(id).name(RESET).data(subscription.getEntityClass().getSimpleName(), MediaType.TEXT_PLAIN);
+    }
+
+    //never blocks the committing thread: a full queue is dropped and replaced by a reset
+    private void enqueue(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        BlockingQueue<SseEmitter.SseEventBuilder> events = subscription.getEvents();
+        if (!events.offer(event)) {
+            events.clear();
+            events.offer(reset(String.valueOf(tracker.sequence()), subscription));
+        }
+        if (subscription.getSending().compareAndSet(false, true)) {
+            executor.execute(() -> send(subscription));
+        }
+    }
+
+    //one sender per subscription at a time so its events stay in order
+    private void send(Subscription subscription) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscription.getEvents().poll()) != null) {
+                try {
+                    subscription.getSendingSince().set(System.currentTimeMillis());
+                    subscription.getEmitter().send(event);
+                    subscription.getSendingSince().set(0);
+                } catch (IOException | IllegalStateException e) {
+                    subscriptions.remove(subscription);
+                    subscription.getEvents().clear();
+                    subscription.getEmitter().completeWithError(e);
+                    return;
+                }
+                if (!subscriptions.contains(subscription)) {
+                    subscription.getEmitter().complete();
+                    return;
+                }
+            }
+            subscription.getSending().set(false);
+        } while (!subscription.getEvents().isEmpty() && subscription.getSending().compareAndSet(false, true));
+    }
+}
@@ -0,0 +1,100 @@
+package com.nooul.apihelpers.springbootrest.services;
+
+import com.nooul.apihelpers.springbootrest.entities.EntityChangeEvent;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+//remembers the ids of deleted entities for a while so that changesSince can report them.
+//the horizon of an entity is the time before which deletes are not known: the start of the application,
+//the oldest tombstone dropped after the retention period or the last delete done in bulk (its ids are unknown)
+@Service
+public class TombstoneService implements EntityChangeTracker.Listener {
+
+    private static final long DEFAULT_RETENTION_MINUTES = 60;
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Tombstone {
+        private final Object id;
+        private final long deletedAt;
+    }
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private EntityChangeTracker tracker;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Map<Class<?>, Deque<Tombstone>> tombstones = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Long> horizons = new ConcurrentHashMap<>();
+    private final long startedAt = System.currentTimeMillis();
+    private long retentionMillis;
+
+    @PostConstruct
+    public void init() {
+        retentionMillis = TimeUnit.MINUTES.toMillis(env.getProperty("spring-boot-rest-api-helpers.tombstone-retention-minutes", Long.class, DEFAULT_RETENTION_MINUTES));
+        tracker.addListener(this);
+    }
+
+    @Override
+    public void onChange(Class<?> entityClass, EntityChangeEvent.Type type, Object entity) {
+        if (type != EntityChangeEvent.Type.DELETE) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Class<?> clazz = entityClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            if (entity == null) {
+                horizons.merge(clazz, now, Math::max);
+            } else {
+                tombstones.computeIfAbsent(clazz, key -> new ConcurrentLinkedDeque<>())
+                        .add(new Tombstone(entityManagerFactory.getPersistenceUnitUtil().getIdentifier(entity), now));
+            }
+            evictExpired(clazz, now);
+        }
+    }
+
+    public long horizon(Class<?> entityClass) {
+        evictExpired(entityClass, System.currentTimeMillis());
+        return Math.max(startedAt, horizons.getOrDefault(entityClass, 0L));
+    }
+
+    //ids deleted at or after the given time, in the order they were deleted
+    public List<Object> deletedSince(Class<?> entityClass, long since) {
+        List<Object> ids = new ArrayList<>();
+        for (Tombstone tombstone : tombstones.getOrDefault(entityClass, new ConcurrentLinkedDeque<>())) {
+            if (tombstone.getDeletedAt() >= since) {
+                ids.add(tombstone.getId());
+            }
+        }
+        return ids;
+    }
+
+    private void evictExpired(Class<?> entityClass, long now) {
+        Deque<Tombstone> deque = tombstones.get(entityClass);
+        if (deque == null) {
+            return;
+        }
+        Tombstone oldest;
+        while ((oldest = deque.peekFirst()) != null && now - oldest.getDeletedAt() > retentionMillis) {
+            if (deque.remove(oldest)) {
+                horizons.merge(entityClass, oldest.getDeletedAt() + 1, Math::max);
+            }
+        }
+    }
+}
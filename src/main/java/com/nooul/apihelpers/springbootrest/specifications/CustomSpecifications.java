@@ -2,6 +2,8 @@ package com.nooul.apihelpers.springbootrest.specifications;
 
 
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
@@ -20,6 +22,9 @@ public class CustomSpecifications<T> {
     @PersistenceContext
     private EntityManager em;
 
+    @Autowired
+    private Environment env;
+
     public Specification<T> customSpecificationBuilder(Map<String, Object> map) {
 
         return (Specification<T>) (root, query, builder) -> {
@@ -30,14 +35,14 @@ public class CustomSpecifications<T> {
         };
     }
 
-    public Predicate customSpecificationBuilder(CriteriaBuilder builder, CriteriaQuery query, Root root, Map<String, Object> map) {
+    public Predicate customSpecificationBuilder(CriteriaBuilder builder, AbstractQuery query, Root root, Map<String, Object> map) {
         query.distinct(true);
         List<Predicate> predicates = handleMap(builder, root, null, query, map, new ArrayList<>());
         return builder.and(predicates.toArray(new Predicate[predicates.size()]));
 
     }
 
-    public Predicate customSpecificationBuilder(CriteriaBuilder builder, CriteriaQuery query, Root root, Map<String, Object> map, List<String> includeOnlyFields) {
+    public Predicate customSpecificationBuilder(CriteriaBuilder builder, AbstractQuery query, Root root, Map<String, Object> map, List<String> includeOnlyFields) {
         query.distinct(true);
         List<Predicate> predicates = handleMap(builder, root, null, query, map, includeOnlyFields);
         return builder.and(predicates.toArray(new Predicate[predicates.size()]));
@@ -45,7 +50,7 @@ public class CustomSpecifications<T> {
 
 
 
-    public Predicate customSpecificationBuilder(CriteriaBuilder builder, CriteriaQuery query, Root root, List<Map<String, Object>> list) {
+    public Predicate customSpecificationBuilder(CriteriaBuilder builder, AbstractQuery query, Root root, List<Map<String, Object>> list) {
         query.distinct(true);
         List<Predicate> orPredicates = new ArrayList<>();
         for (Map<String, Object> map: list) {
@@ -56,9 +61,14 @@ public class CustomSpecifications<T> {
         return builder.or(orPredicates.toArray(new Predicate[orPredicates.size()]));
     }
 
-    public List<Predicate> handleMap(CriteriaBuilder builder, Root root, Join join, CriteriaQuery query, Map<String, Object> map, List<String> includeOnlyFields) {
+    public List<Predicate> handleMap(CriteriaBuilder builder, Root root, Join join, AbstractQuery query, Map<String, Object> map, List<String> includeOnlyFields) {
         if (join != null){
-            root = query.from(getJavaTypeOfClassContainingAttribute(root, join.getAttribute().getName()));
+            FilterAttribute joined = describe(join.getAttribute());
+            if (joined != null && joined.getTargetType() != null) {
+                root = query.from(joined.getTargetType());
+            } else {
+                root = query.from(getJavaTypeOfClassContainingAttribute(root, join.getAttribute().getName()));
+            }
         }
 
         List<Predicate> predicates = new ArrayList<>();
@@ -69,22 +79,41 @@ public class CustomSpecifications<T> {
             predicates.add(searchInAllAttributesPredicate(builder, root, (String) map.get("q"), includeOnlyFields));
             map.remove("q");
         }
-        Set<Attribute<? super T, ?>> attributes = root.getModel().getAttributes();
+        FilterDescriptor descriptor = FilterDescriptors.get(root.getJavaType());
         for (Map.Entry e : map.entrySet()) {
             String key = (String) e.getKey();
             Object val = e.getValue();
-            String cleanKey = cleanUpKey(key);
 
-            Attribute a = root.getModel().getAttribute(cleanKey);
-            if (attributes.contains(a)) {
-                pred = handleAllCases(builder, root, join, query, a, key, val);
-                predicates.add(pred);
-            }
+            Attribute a = getAttribute(root, descriptor, key);
+            pred = handleAllCases(builder, root, join, query, a, key, val);
+            predicates.add(pred);
         }
         return predicates;
     }
 
-    public Predicate handleAllCases(CriteriaBuilder builder, Root root, Join join, CriteriaQuery query, Attribute a, String key, Object val) {
+    //unknown keys still fail through the metamodel with an IllegalArgumentException
+    private Attribute getAttribute(Root root, FilterDescriptor descriptor, String key) {
+        String cleanKey = cleanUpKey(key);
+        if (descriptor != null) {
+            FilterAttribute described = descriptor.getAttribute(cleanKey, usesSnakeCase());
+            if (described != null) {
+                cleanKey = described.getName();
+            }
+        }
+        return root.getModel().getAttribute(cleanKey);
+    }
+
+    private boolean usesSnakeCase() {
+        String usesSnakeCase = env.getProperty("spring-boot-rest-api-helpers.use-snake-case");
+        return usesSnakeCase != null && usesSnakeCase.equals("true");
+    }
+
+    //compile time description of the attribute if FilterDescriptorProcessor ran on its entity
+    private FilterAttribute describe(Attribute attribute) {
+        return FilterDescriptors.get(attribute.getDeclaringType().getJavaType(), attribute.getName());
+    }
+
+    public Predicate handleAllCases(CriteriaBuilder builder, Root root, Join join, AbstractQuery query, Attribute a, String key, Object val) {
         boolean isValueCollection = val instanceof Collection;
         boolean isValueMap = val instanceof Map;
         String cleanKey = cleanUpKey(key);
@@ -128,19 +157,35 @@ public class CustomSpecifications<T> {
         return builder.conjunction();
     }
 
-    public Predicate handleCollection(CriteriaBuilder builder, Root root, Join join, CriteriaQuery query, Attribute a, String key, Collection values, boolean conjunction) {
+    public Predicate handleCollection(CriteriaBuilder builder, Root root, Join join, AbstractQuery query, Attribute a, String key, Collection values, boolean conjunction) {
         List<Predicate> predicates = new ArrayList<>();
 
 
         for (Object val : values) {
-            Predicate pred = handleAllCases(builder, root, join, query, a, key, val);
+            Predicate pred = conjunction ? handleConjunctionCase(builder, root, join, query, a, key, val) : handleAllCases(builder, root, join, query, a, key, val);
             predicates.add(pred);
         }
         Predicate[] predicatesArray = predicates.toArray(new Predicate[predicates.size()]);
         return (conjunction) ? builder.and(predicatesArray): builder.or(predicatesArray);
     }
 
-    public Predicate handleCleanKeyCase(CriteriaBuilder builder, Root root, Join join, CriteriaQuery query, String key, Attribute a, Object val) {
+    //every value of an xyzAnd list on a join of its own, a single join can not equal all of them at once
+    //e.g. actors that have played in all of the given movies
+    private Predicate handleConjunctionCase(CriteriaBuilder builder, Root root, Join join, AbstractQuery query, Attribute a, String key, Object val) {
+        if (val instanceof Map) {
+            val = convertMapContainingPrimaryIdToValue(val, a, root);
+        }
+        if (join != null || val instanceof Map || val instanceof Collection || isNull(a, val) || !a.isCollection()) {
+            return handleAllCases(builder, root, join, query, a, key, val);
+        }
+        if (a.isAssociation()) {
+            Object id = isPrimaryKeyOfAttributeUUID(a, root) ? UUID.fromString(val.toString()) : val;
+            return prepareJoinAssociatedPredicate(builder, root, a, id, true);
+        }
+        return builder.equal(addJoinIfNotExists(root, a, true, true), val);
+    }
+
+    public Predicate handleCleanKeyCase(CriteriaBuilder builder, Root root, Join join, AbstractQuery query, String key, Attribute a, Object val) {
         boolean isValueCollection = val instanceof Collection;
         boolean isValTextSearch = (val instanceof String) && ((String) val).contains("%");
         if (isValueCollection) {
@@ -181,8 +226,19 @@ public class CustomSpecifications<T> {
         }
         final String finalText = text;
 
-        Set<Attribute> attributes = root.getModel().getAttributes();
         List<Predicate> orPredicates = new ArrayList<>();
+        FilterDescriptor descriptor = FilterDescriptors.get(root.getJavaType());
+        if (descriptor != null) {
+            for (FilterAttribute a : descriptor.getAttributes()) {
+                boolean shouldSearch = includeOnlyFields.isEmpty() || includeOnlyFields.contains(a.getName());
+                if (a.isString() && shouldSearch) {
+                    orPredicates.add(builder.like(root.get(a.getName()), finalText));
+                }
+            }
+            return builder.or(orPredicates.toArray(new Predicate[orPredicates.size()]));
+        }
+
+        Set<Attribute> attributes = root.getModel().getAttributes();
         for (Attribute a : attributes) {
             boolean javaTypeIsString = a.getJavaType().getSimpleName().equalsIgnoreCase("string");
             boolean shouldSearch = includeOnlyFields.isEmpty() || includeOnlyFields.contains(a.getName());
@@ -287,11 +343,19 @@ public class CustomSpecifications<T> {
 
 
     private Predicate prepareJoinAssociatedPredicate(CriteriaBuilder builder, Root root, Attribute a, Object val) {
+        return prepareJoinAssociatedPredicate(builder, root, a, val, false);
+    }
 
-
-        Path rootJoinGetName = addJoinIfNotExists(root, a, false, false);
-        Class referencedClass = rootJoinGetName.getJavaType();
-        String referencedPrimaryKey = getIdAttribute(em, referencedClass).getName();
+    private Predicate prepareJoinAssociatedPredicate(CriteriaBuilder builder, Root root, Attribute a, Object val, boolean freshJoin) {
+        Path rootJoinGetName = addJoinIfNotExists(root, a, freshJoin, freshJoin);
+        FilterAttribute described = describe(a);
+        String referencedPrimaryKey;
+        if (described != null && described.getTargetIdName() != null) {
+            referencedPrimaryKey = described.getTargetIdName();
+        } else {
+            Class referencedClass = rootJoinGetName.getJavaType();
+            referencedPrimaryKey = getIdAttribute(em, referencedClass).getName();
+        }
         return builder.equal(rootJoinGetName.get(referencedPrimaryKey), val);
     }
 
@@ -324,14 +388,26 @@ public class CustomSpecifications<T> {
     }
 
     private boolean isPrimaryKeyOfAttributeUUID(Attribute a, Root root) {
+        FilterAttribute described = describe(a);
+        if (described != null && described.getTargetIdName() != null) {
+            return described.isTargetIdUUID();
+        }
         Class javaTypeOfAttribute = getJavaTypeOfClassContainingAttribute(root, a.getName());
         String primaryKeyName = getIdAttribute(em, javaTypeOfAttribute).getJavaType().getSimpleName().toLowerCase();
         return primaryKeyName.equalsIgnoreCase("uuid");
     }
 
     private Object convertMapContainingPrimaryIdToValue(Object val, Attribute a, Root root) {
-        Class javaTypeOfAttribute = getJavaTypeOfClassContainingAttribute(root, a.getName());
-        String primaryKeyName = getIdAttribute(em, javaTypeOfAttribute).getName();
+        FilterAttribute described = describe(a);
+        String primaryKeyName;
+        if (described != null && described.isAssociation() && described.getTargetIdName() != null) {
+            //the metamodel lookup used to add the join as well so keep the same joins in the query
+            addJoinIfNotExists(root, a, false, false);
+            primaryKeyName = described.getTargetIdName();
+        } else {
+            Class javaTypeOfAttribute = getJavaTypeOfClassContainingAttribute(root, a.getName());
+            primaryKeyName = getIdAttribute(em, javaTypeOfAttribute).getName();
+        }
         if (val instanceof Map && ((Map) val).keySet().size() == 1) {
             Map map = ((Map) val);
             for (Object key: map.keySet()) {
@@ -344,11 +420,19 @@ public class CustomSpecifications<T> {
     }
 
     private boolean isUUID(Attribute attribute) {
+        FilterAttribute described = describe(attribute);
+        if (described != null) {
+            return described.isUUID();
+        }
         String attributeJavaClass = attribute.getJavaType().getSimpleName().toLowerCase();
         return attributeJavaClass.equalsIgnoreCase("uuid");
     }
 
     private boolean isPrimitive(Attribute attribute) {
+        FilterAttribute described = describe(attribute);
+        if (described != null) {
+            return described.isPrimitive();
+        }
         String attributeJavaClass = attribute.getJavaType().getSimpleName().toLowerCase();
         return attributeJavaClass.startsWith("int") ||
                 attributeJavaClass.startsWith("long") ||
@@ -369,6 +453,10 @@ public class CustomSpecifications<T> {
     }
 
     private boolean isEnum(Attribute attribute) {
+        FilterAttribute described = describe(attribute);
+        if (described != null) {
+            return described.isEnum();
+        }
         String parentJavaClass = "";
         if (attribute.getJavaType().getSuperclass() != null) {
             parentJavaClass = attribute.getJavaType().getSuperclass().getSimpleName().toLowerCase();
@@ -378,8 +466,9 @@ public class CustomSpecifications<T> {
 
     private boolean isNull(Attribute attribute, Object val) {
         if (isPrimitive(attribute)) {
-            String attributeJavaClass = attribute.getJavaType().getSimpleName().toLowerCase();
-            if (attributeJavaClass.equals("string")) {
+            FilterAttribute described = describe(attribute);
+            boolean isString = (described != null) ? described.isString() : attribute.getJavaType().getSimpleName().equalsIgnoreCase("string");
+            if (isString) {
                 String valObj = (String) val;
                 return StringUtils.isBlank(valObj) || valObj.equalsIgnoreCase("null");
             }
@@ -0,0 +1,46 @@
+package com.nooul.apihelpers.springbootrest.specifications;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+//compile time description of a filterable entity attribute generated by FilterDescriptorProcessor
+@Getter
+@RequiredArgsConstructor
+public class FilterAttribute {
+
+    public enum Kind {
+        BASIC, ENUM, UUID, TO_ONE, TO_MANY, ELEMENT_COLLECTION, OTHER
+    }
+
+    private final String name;
+    private final String snakeCaseName;
+    private final Class<?> javaType;
+    private final Kind kind;
+    //same classification as the simple name checks of CustomSpecifications (int*, long*, boolean, string, float, double)
+    private final boolean primitive;
+    private final boolean string;
+    //target entity of associations or element type of element collections
+    private final Class<?> targetType;
+    private final String targetIdName;
+    private final Class<?> targetIdType;
+
+    public boolean isAssociation() {
+        return kind == Kind.TO_ONE || kind == Kind.TO_MANY;
+    }
+
+    public boolean isCollection() {
+        return kind == Kind.TO_MANY || kind == Kind.ELEMENT_COLLECTION;
+    }
+
+    public boolean isEnum() {
+        return kind == Kind.ENUM;
+    }
+
+    public boolean isUUID() {
+        return kind == Kind.UUID;
+    }
+
+    public boolean isTargetIdUUID() {
+        return targetIdType != null && targetIdType.getSimpleName().equalsIgnoreCase("uuid");
+    }
+}
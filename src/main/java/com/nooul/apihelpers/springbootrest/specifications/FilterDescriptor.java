@@ -0,0 +1,49 @@
+package com.nooul.apihelpers.springbootrest.specifications;
+
+import lombok.Getter;
+
+import java.util.*;
+
+//compile time description of a filterable entity generated by FilterDescriptorProcessor
+public class FilterDescriptor {
+
+    @Getter
+    private final Class<?> entityType;
+
+    @Getter
+    private final String idName;
+
+    @Getter
+    private final Class<?> idType;
+
+    @Getter
+    private final List<FilterAttribute> attributes;
+
+    private final Map<String, FilterAttribute> attributesByName = new HashMap<>();
+
+    private final Map<String, FilterAttribute> attributesBySnakeCaseName = new HashMap<>();
+
+    public FilterDescriptor(Class<?> entityType, String idName, Class<?> idType, FilterAttribute... attributes) {
+        this.entityType = entityType;
+        this.idName = idName;
+        this.idType = idType;
+        this.attributes = Collections.unmodifiableList(Arrays.asList(attributes));
+        for (FilterAttribute attribute : attributes) {
+            attributesByName.put(attribute.getName(), attribute);
+            attributesBySnakeCaseName.putIfAbsent(attribute.getSnakeCaseName(), attribute);
+        }
+    }
+
+    public FilterAttribute getAttribute(String name) {
+        return attributesByName.get(name);
+    }
+
+    //snake_case aliases only when the api uses snake_case, attribute names win over them
+    public FilterAttribute getAttribute(String name, boolean snakeCase) {
+        FilterAttribute attribute = attributesByName.get(name);
+        if (attribute == null && snakeCase) {
+            attribute = attributesBySnakeCaseName.get(name);
+        }
+        return attribute;
+    }
+}
@@ -0,0 +1,9 @@
+package com.nooul.apihelpers.springbootrest.specifications;
+
+import java.util.Map;
+
+//implemented by the classes generated by FilterDescriptorProcessor and found through ServiceLoader
+public interface FilterDescriptorRegistry {
+
+    Map<Class<?>, FilterDescriptor> descriptors();
+}
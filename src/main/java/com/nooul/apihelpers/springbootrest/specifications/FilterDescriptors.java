@@ -0,0 +1,36 @@
+package com.nooul.apihelpers.springbootrest.specifications;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+//descriptors generated at compile time by FilterDescriptorProcessor, loaded once
+public class FilterDescriptors {
+
+    private FilterDescriptors() {
+
+    }
+
+    private static class Holder {
+        private static final Map<Class<?>, FilterDescriptor> DESCRIPTORS = load();
+
+        private static Map<Class<?>, FilterDescriptor> load() {
+            Map<Class<?>, FilterDescriptor> descriptors = new HashMap<>();
+            for (FilterDescriptorRegistry registry : ServiceLoader.load(FilterDescriptorRegistry.class, FilterDescriptors.class.getClassLoader())) {
+                descriptors.putAll(registry.descriptors());
+            }
+            return Collections.unmodifiableMap(descriptors);
+        }
+    }
+
+    //null for entities without a generated descriptor
+    public static FilterDescriptor get(Class<?> entityType) {
+        return Holder.DESCRIPTORS.get(entityType);
+    }
+
+    public static FilterAttribute get(Class<?> entityType, String attributeName) {
+        FilterDescriptor descriptor = get(entityType);
+        return (descriptor == null) ? null : descriptor.getAttribute(attributeName);
+    }
+}
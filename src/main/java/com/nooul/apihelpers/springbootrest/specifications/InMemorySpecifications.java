@@ -0,0 +1,550 @@
+package com.nooul.apihelpers.springbootrest.specifications;
+
+import com.google.common.base.CaseFormat;
+import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
+import com.nooul.apihelpers.springbootrest.providers.NullOrderingProvider;
+import com.nooul.apihelpers.springbootrest.utils.EntityAccessors;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.proxy.HibernateProxy;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.IdentifiableType;
+import javax.persistence.metamodel.PluralAttribute;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+//the filter language of CustomSpecifications evaluated on entities in memory instead of in a query, with the sort
+//and range of FilterService.filterBy. associations behave like the inner joins of the query: an entity matches when
+//some combination of the elements of its joined associations makes the whole filter true, and comparisons with null
+//are unknown as in sql. properties are read with EntityAccessors, compiled predicates and comparators can be reused
+@Service
+public class InMemorySpecifications<T> {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Autowired
+    private Environment env;
+
+    //TRUE, FALSE or null for unknown, bound[0] is the entity and bound[i] the element of join i
+    private interface Condition {
+        Boolean test(Object[] bound);
+    }
+
+    //the joins a filter needs, in the order they are bound, each one from the entity or an earlier join
+    private static class Joins {
+        private final List<Integer> sources = new ArrayList<>();
+        private final List<Attribute> attributes = new ArrayList<>();
+
+        //reuses the join of the attribute from the same source like addJoinIfNotExists, unless a fresh one is asked
+        private int join(int source, Attribute attribute, boolean fresh) {
+            for (int i = 0; i < attributes.size() && !fresh; i++) {
+                if (sources.get(i) == source && attributes.get(i).getName().equals(attribute.getName())) {
+                    return i + 1;
+                }
+            }
+            sources.add(source);
+            attributes.add(attribute);
+            return attributes.size();
+        }
+
+        private int size() {
+            return attributes.size();
+        }
+    }
+
+    public Predicate<T> predicate(Class<T> clazz, QueryParamWrapper queryParamWrapper) {
+        return predicate(clazz, queryParamWrapper, new ArrayList<>());
+    }
+
+    //filter or filterOr of the wrapper like FilterService.filterBy, range and sort are not part of it
+    public Predicate<T> predicate(Class<T> clazz, QueryParamWrapper queryParamWrapper, List<String> includeOnlyFields) {
+        Joins joins = new Joins();
+        Condition condition = condition(clazz, queryParamWrapper, includeOnlyFields, joins);
+        if (condition == null) {
+            return entity -> true;
+        }
+        return entity -> {
+            Object[] bound = new Object[joins.size() + 1];
+            bound[0] = entity;
+            return matches(condition, joins, bound, 1);
+        };
+    }
+
+    //the association paths the filter of the wrapper walks, e.g. [movies, actors] for {movies: {actors: 5}}
+    public List<List<String>> joinPaths(Class<T> clazz, QueryParamWrapper queryParamWrapper) {
+        Joins joins = new Joins();
+        condition(clazz, queryParamWrapper, new ArrayList<>(), joins);
+        List<List<String>> paths = new ArrayList<>();
+        for (int i = 0; i < joins.size(); i++) {
+            int source = joins.sources.get(i);
+            List<String> path = new ArrayList<>(source == 0 ? Collections.emptyList() : paths.get(source - 1));
+            path.add(joins.attributes.get(i).getName());
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    private Condition condition(Class<T> clazz, QueryParamWrapper queryParamWrapper, List<String> includeOnlyFields, Joins joins) {
+        JSONObject filter = queryParamWrapper.getFilter();
+        JSONArray filterOr = queryParamWrapper.getFilterOr();
+        if (filter != null && filter.length() > 0) {
+            return handleMap(clazz, 0, joins, camelCaseKeys(filter.toMap()), includeOnlyFields);
+        } else if (filterOr != null && filterOr.length() > 0) {
+            List<Condition> conditions = new ArrayList<>();
+            for (Object map : filterOr.toList()) {
+                conditions.add(handleMap(clazz, 0, joins, (Map<String, Object>) map, new ArrayList<>()));
+            }
+            return or(conditions);
+        }
+        return null;
+    }
+
+    public Comparator<T> comparator(Class<T> clazz, QueryParamWrapper queryParamWrapper) {
+        return comparator(clazz, queryParamWrapper, "id");
+    }
+
+    //the sort of the wrapper (the primary key when there is none) with nulls where the query puts them
+    //(NullOrderingProvider, first in both directions by default), associations are sorted by their id
+    public Comparator<T> comparator(Class<T> clazz, QueryParamWrapper queryParamWrapper, String primaryKeyName) {
+        boolean nullsLast = NullOrderingProvider.nullsLast(em.getEntityManagerFactory());
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sortOrders(queryParamWrapper.getSort(), primaryKeyName)) {
+            String property = order.getProperty();
+            Comparator<Comparable> byValue = order.isDescending() ? Comparator.reverseOrder() : Comparator.naturalOrder();
+            Comparator<T> byProperty = Comparator.comparing(entity -> sortKey(EntityAccessors.readPath(entity, property)),
+                    nullsLast ? Comparator.nullsLast(byValue) : Comparator.nullsFirst(byValue));
+            comparator = comparator == null ? byProperty : comparator.thenComparing(byProperty);
+        }
+        return comparator;
+    }
+
+    public Page<T> filterBy(Collection<T> entities, Class<T> clazz, QueryParamWrapper queryParamWrapper) {
+        return filterBy(entities, clazz, queryParamWrapper, "id", new ArrayList<>());
+    }
+
+    //same result as FilterService.filterBy over the given entities instead of the table
+    public Page<T> filterBy(Collection<T> entities, Class<T> clazz, QueryParamWrapper queryParamWrapper,
+                            String primaryKeyName, List<String> searchOnlyInFields) {
+        Predicate<T> predicate = predicate(clazz, queryParamWrapper, searchOnlyInFields);
+        Comparator<T> comparator = comparator(clazz, queryParamWrapper, primaryKeyName);
+        List<T> matching = entities.stream().filter(predicate).sorted(comparator).collect(Collectors.toList());
+        return page(matching, queryParamWrapper, primaryKeyName);
+    }
+
+    //range is [page, size] like FilterService.filterBy
+    public Page<T> page(List<T> sorted, QueryParamWrapper queryParamWrapper, String primaryKeyName) {
+        JSONArray range = queryParamWrapper.getRange();
+        int page = 0;
+        int size = Integer.MAX_VALUE;
+        if (range != null && range.length() == 2) {
+            page = (Integer) range.get(0);
+            size = (Integer) range.get(1);
+        }
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(sortOrders(queryParamWrapper.getSort(), primaryKeyName)));
+        int from = (int) Math.min(sorted.size(), pageRequest.getOffset());
+        int to = (int) Math.min(sorted.size(), (long) from + size);
+        return new PageImpl<>(new ArrayList<>(sorted.subList(from, to)), pageRequest, sorted.size());
+    }
+
+    private Comparable sortKey(Object value) {
+        if (value instanceof HibernateProxy || (value != null && value.getClass().isAnnotationPresent(Entity.class))) {
+            return (Comparable) em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(value);
+        }
+        return (Comparable) value;
+    }
+
+    private List<Sort.Order> sortOrders(JSONArray sort, String primaryKeyName) {
+        List<Sort.Order> sortOrders = new ArrayList<>();
+        if (sort != null && sort.length() % 2 != 0) {
+            throw new IllegalArgumentException("sort should have even length given as array e.g ['name', 'ASC', 'birthDate', 'DESC']");
+        }
+        for (int i = 0; sort != null && i < sort.length(); i = i + 2) {
+            String sortBy = (String) sort.get(i);
+            if (usesSnakeCase()) {
+                sortBy = CaseFormat.LOWER_UNDERSCORE.to(CaseFormat.LOWER_CAMEL, sortBy);
+            }
+            sortOrders.add(new Sort.Order(Sort.Direction.valueOf((String) sort.get(i + 1)), sortBy));
+        }
+        if (sortOrders.isEmpty()) {
+            sortOrders.add(new Sort.Order(Sort.Direction.ASC, primaryKeyName));
+        }
+        return sortOrders;
+    }
+
+    private boolean matches(Condition condition, Joins joins, Object[] bound, int join) {
+        if (join > joins.size()) {
+            return Boolean.TRUE.equals(condition.test(bound));
+        }
+        for (Object element : elements(value(bound[joins.sources.get(join - 1)], joins.attributes.get(join - 1)))) {
+            bound[join] = element;
+            if (matches(condition, joins, bound, join + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Condition handleMap(Class<?> type, int source, Joins joins, Map<String, Object> map, List<String> includeOnlyFields) {
+        List<Condition> conditions = new ArrayList<>();
+        if (map.containsKey("q") && map.get("q") instanceof String) {
+            conditions.add(searchInAllAttributes(type, source, (String) map.get("q"), includeOnlyFields));
+            map = new HashMap<>(map);
+            map.remove("q");
+        }
+        FilterDescriptor descriptor = FilterDescriptors.get(type);
+        for (Map.Entry<String, Object> e : map.entrySet()) {
+            Attribute a = getAttribute(type, descriptor, e.getKey());
+            conditions.add(handleAllCases(source, joins, a, e.getKey(), e.getValue(), false));
+        }
+        return and(conditions);
+    }
+
+    private Condition handleAllCases(int source, Joins joins, Attribute a, String key, Object val, boolean freshJoin) {
+        String cleanKey = cleanUpKey(key);
+        if (val instanceof Map) {
+            val = convertMapContainingPrimaryIdToValue(val, a);
+        }
+        if (val instanceof Map && a.isAssociation()) {
+            int join = joins.join(source, a, freshJoin);
+            return handleMap(targetType(a), join, joins, (Map<String, Object>) val, new ArrayList<>());
+        }
+
+        if (cleanKey.equals(key)) {
+            return handleCleanKeyCase(source, joins, a, val, freshJoin);
+        } else if (key.endsWith("Not")) {
+            return not(handleCleanKeyCase(source, joins, a, val, freshJoin));
+        } else if (key.endsWith("And")) {
+            //every value on a join of its own, e.g. movies with all of the given actors
+            if (val instanceof Collection) {
+                return handleCollection(source, joins, a, cleanKey, (Collection) val, true);
+            }
+        } else if (key.endsWith("Lte")) {
+            return compare(source, a, val, c -> c <= 0);
+        } else if (key.endsWith("Gte")) {
+            return compare(source, a, val, c -> c >= 0);
+        } else if (key.endsWith("Lt")) {
+            return compare(source, a, val, c -> c < 0);
+        } else if (key.endsWith("Gt")) {
+            return compare(source, a, val, c -> c > 0);
+        }
+        return bound -> Boolean.TRUE;
+    }
+
+    private Condition handleCollection(int source, Joins joins, Attribute a, String key, Collection values, boolean conjunction) {
+        List<Condition> conditions = new ArrayList<>();
+        for (Object val : values) {
+            conditions.add(handleAllCases(source, joins, a, key, val, conjunction));
+        }
+        return conjunction ? and(conditions) : or(conditions);
+    }
+
+    private Condition handleCleanKeyCase(int source, Joins joins, Attribute a, Object val, boolean freshJoin) {
+        if (val instanceof Collection) {
+            return handleCollection(source, joins, a, a.getName(), (Collection) val, false);
+        } else if (val instanceof String && ((String) val).contains("%")) {
+            return like(source, a, (String) val);
+        } else if (a.isCollection() && !a.isAssociation() && !isNull(a, val)) {
+            int join = joins.join(source, a, freshJoin);
+            return bound -> equal(bound[join], val);
+        }
+        return equality(source, joins, a, val, freshJoin);
+    }
+
+    private Condition equality(int source, Joins joins, Attribute a, Object val, boolean freshJoin) {
+        if (isNull(a, val)) {
+            if (a.isCollection()) {
+                return bound -> elements(value(bound[source], a)).isEmpty();
+            }
+            return bound -> value(bound[source], a) == null;
+        } else if (isEnum(a)) {
+            Object constant = Enum.valueOf((Class) a.getJavaType(), (String) val);
+            return bound -> equal(value(bound[source], a), constant);
+        } else if (isPrimitive(a)) {
+            return bound -> equal(value(bound[source], a), val);
+        } else if (isUUID(a)) {
+            UUID uuid = UUID.fromString(val.toString());
+            return bound -> equal(value(bound[source], a), uuid);
+        } else if (a.isAssociation()) {
+            Object id = isPrimaryKeyOfAttributeUUID(a) ? UUID.fromString(val.toString()) : val;
+            int join = joins.join(source, a, freshJoin);
+            return bound -> equal(em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(bound[join]), id);
+        }
+        throw new IllegalArgumentException("equality/inequality is currently supported on primitives and enums");
+    }
+
+    private Condition like(int source, Attribute a, String val) {
+        Pattern pattern = likePattern(val);
+        return bound -> {
+            Object value = value(bound[source], a);
+            return value == null ? null : pattern.matcher(value.toString()).matches();
+        };
+    }
+
+    //strings are compared in lower case and numbers as integers like the Gt/Gte/Lt/Lte predicates of CustomSpecifications
+    private Condition compare(int source, Attribute a, Object val, IntPredicate test) {
+        if (val instanceof String) {
+            String lower = ((String) val).toLowerCase();
+            return bound -> {
+                Object value = value(bound[source], a);
+                return value == null ? null : test.test(value.toString().toLowerCase().compareTo(lower));
+            };
+        } else if (val instanceof Integer) {
+            BigDecimal number = BigDecimal.valueOf((Integer) val);
+            return bound -> {
+                Object value = value(bound[source], a);
+                return value == null ? null : test.test(decimal(value).compareTo(number));
+            };
+        }
+        throw new IllegalArgumentException("val type not supported yet");
+    }
+
+    private Condition searchInAllAttributes(Class<?> type, int source, String text, List<String> includeOnlyFields) {
+        if (!text.contains("%")) {
+            text = "%" + text + "%";
+        }
+        List<Condition> conditions = new ArrayList<>();
+        FilterDescriptor descriptor = FilterDescriptors.get(type);
+        if (descriptor != null) {
+            for (FilterAttribute a : descriptor.getAttributes()) {
+                if (a.isString() && (includeOnlyFields.isEmpty() || includeOnlyFields.contains(a.getName()))) {
+                    conditions.add(like(source, em.getMetamodel().managedType(type).getAttribute(a.getName()), text));
+                }
+            }
+            return or(conditions);
+        }
+        for (Attribute a : em.getMetamodel().managedType(type).getAttributes()) {
+            boolean javaTypeIsString = a.getJavaType().getSimpleName().equalsIgnoreCase("string");
+            if (javaTypeIsString && (includeOnlyFields.isEmpty() || includeOnlyFields.contains(a.getName()))) {
+                conditions.add(like(source, a, text));
+            }
+        }
+        return or(conditions);
+    }
+
+    private static Condition and(List<Condition> conditions) {
+        return bound -> {
+            Boolean result = Boolean.TRUE;
+            for (Condition condition : conditions) {
+                Boolean value = condition.test(bound);
+                if (Boolean.FALSE.equals(value)) {
+                    return Boolean.FALSE;
+                } else if (value == null) {
+                    result = null;
+                }
+            }
+            return result;
+        };
+    }
+
+    private static Condition or(List<Condition> conditions) {
+        return bound -> {
+            Boolean result = Boolean.FALSE;
+            for (Condition condition : conditions) {
+                Boolean value = condition.test(bound);
+                if (Boolean.TRUE.equals(value)) {
+                    return Boolean.TRUE;
+                } else if (value == null) {
+                    result = null;
+                }
+            }
+            return result;
+        };
+    }
+
+    private static Condition not(Condition condition) {
+        return bound -> {
+            Boolean value = condition.test(bound);
+            return value == null ? null : !value;
+        };
+    }
+
+    //sql equality: unknown with null, numbers by value whatever their type
+    private static Boolean equal(Object value, Object val) {
+        if (value == null || val == null) {
+            return null;
+        }
+        if (value.equals(val)) {
+            return true;
+        }
+        if (value instanceof Number && (val instanceof Number || val instanceof String)) {
+            try {
+                return decimal(value).compareTo(new BigDecimal(val.toString())) == 0;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("val type not supported yet");
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    //% is any text, _ any character and \ escapes them
+    private static Pattern likePattern(String like) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < like.length(); i++) {
+            char c = like.charAt(i);
+            if (c == '\\' && i + 1 < like.length()) {
+                regex.append(Pattern.quote(String.valueOf(like.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private Object value(Object target, Attribute a) {
+        return EntityAccessors.read(target, a.getName());
+    }
+
+    private static Collection<?> elements(Object value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        return value instanceof Collection ? (Collection<?>) value : Collections.singletonList(value);
+    }
+
+    //unknown keys fail through the metamodel with an IllegalArgumentException like CustomSpecifications
+    private Attribute getAttribute(Class<?> type, FilterDescriptor descriptor, String key) {
+        String cleanKey = cleanUpKey(key);
+        if (descriptor != null) {
+            FilterAttribute described = descriptor.getAttribute(cleanKey, usesSnakeCase());
+            if (described != null) {
+                cleanKey = described.getName();
+            }
+        }
+        return em.getMetamodel().managedType(type).getAttribute(cleanKey);
+    }
+
+    private FilterAttribute describe(Attribute attribute) {
+        return FilterDescriptors.get(attribute.getDeclaringType().getJavaType(), attribute.getName());
+    }
+
+    private Class<?> targetType(Attribute a) {
+        FilterAttribute described = describe(a);
+        if (described != null && described.getTargetType() != null) {
+            return described.getTargetType();
+        }
+        return a instanceof PluralAttribute ? ((PluralAttribute) a).getElementType().getJavaType() : a.getJavaType();
+    }
+
+    private Attribute targetIdAttribute(Attribute a) {
+        IdentifiableType<?> target = (IdentifiableType<?>) em.getMetamodel().managedType(targetType(a));
+        return target.getId(target.getIdType().getJavaType());
+    }
+
+    private Object convertMapContainingPrimaryIdToValue(Object val, Attribute a) {
+        if (!a.isAssociation()) {
+            throw new IllegalArgumentException("nested filters are supported on associations");
+        }
+        FilterAttribute described = describe(a);
+        String primaryKeyName = (described != null && described.getTargetIdName() != null)
+                ? described.getTargetIdName() : targetIdAttribute(a).getName();
+        Map map = (Map) val;
+        if (map.size() == 1 && map.containsKey(primaryKeyName)) {
+            return map.get(primaryKeyName);
+        }
+        return val;
+    }
+
+    private boolean usesSnakeCase() {
+        String usesSnakeCase = env.getProperty("spring-boot-rest-api-helpers.use-snake-case");
+        return usesSnakeCase != null && usesSnakeCase.equals("true");
+    }
+
+    private Map<String, Object> camelCaseKeys(Map<String, Object> map) {
+        if (!usesSnakeCase()) {
+            return map;
+        }
+        Map<String, Object> camelCaseMap = new HashMap<>();
+        for (Map.Entry<String, Object> e : map.entrySet()) {
+            String key = e.getKey().contains("_") ? CaseFormat.LOWER_UNDERSCORE.to(CaseFormat.LOWER_CAMEL, e.getKey()) : e.getKey();
+            camelCaseMap.put(key, e.getValue());
+        }
+        return camelCaseMap;
+    }
+
+    private String cleanUpKey(String key) {
+        List<String> postfixes = Arrays.asList("Gte", "Gt", "Lte", "Lt", "Not", "And");
+        for (String postfix : postfixes) {
+            if (key.endsWith(postfix)) {
+                return key.substring(0, key.length() - postfix.length());
+            }
+        }
+        return key;
+    }
+
+    private boolean isPrimaryKeyOfAttributeUUID(Attribute a) {
+        FilterAttribute described = describe(a);
+        if (described != null && described.getTargetIdName() != null) {
+            return described.isTargetIdUUID();
+        }
+        return targetIdAttribute(a).getJavaType().getSimpleName().equalsIgnoreCase("uuid");
+    }
+
+    private boolean isUUID(Attribute attribute) {
+        FilterAttribute described = describe(attribute);
+        if (described != null) {
+            return described.isUUID();
+        }
+        return attribute.getJavaType().getSimpleName().equalsIgnoreCase("uuid");
+    }
+
+    private boolean isPrimitive(Attribute attribute) {
+        FilterAttribute described = describe(attribute);
+        if (described != null) {
+            return described.isPrimitive();
+        }
+        String attributeJavaClass = attribute.getJavaType().getSimpleName().toLowerCase();
+        return attributeJavaClass.startsWith("int") ||
+                attributeJavaClass.startsWith("long") ||
+                attributeJavaClass.equals("boolean") ||
+                attributeJavaClass.equals("string") ||
+                attributeJavaClass.equals("float") ||
+                attributeJavaClass.equals("double");
+    }
+
+    private boolean isEnum(Attribute attribute) {
+        FilterAttribute described = describe(attribute);
+        if (described != null) {
+            return described.isEnum();
+        }
+        return attribute.getJavaType().isEnum();
+    }
+
+    private boolean isNull(Attribute attribute, Object val) {
+        if (isPrimitive(attribute)) {
+            FilterAttribute described = describe(attribute);
+            boolean isString = (described != null) ? described.isString() : attribute.getJavaType().getSimpleName().equalsIgnoreCase("string");
+            if (isString) {
+                return StringUtils.isBlank((String) val) || ((String) val).equalsIgnoreCase("null");
+            }
+        }
+        return val == null;
+    }
+}
@@ -1,22 +1,86 @@
 package com.nooul.apihelpers.springbootrest.utils;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
 import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.Value;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 public class CsvUtils {
 
+    //mapper, schemas, readers and writers are immutable once built so they are shared by all callers
+    private static final CsvMapper MAPPER = mapper();
+    private static final ConcurrentMap<SchemaKey, CsvSchema> READ_SCHEMAS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<SchemaKey, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<SchemaKey, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
     private CsvUtils() {
 
     }
 
     public static <T> List<T> read(Class<T> clazz, InputStream stream, boolean withHeaders, char separator) throws IOException {
+        return CsvUtils.<T>iterate(clazz, stream, withHeaders, separator).readAll();
+    }
+
+    //reads one row at a time so files of any size can be processed in constant memory
+    public static <T> MappingIterator<T> iterate(Class<T> clazz, InputStream stream, boolean withHeaders, char separator) throws IOException {
+        return reader(clazz, withHeaders, separator).readValues(stream);
+    }
+
+    //parses a file in chunks of about chunkSize bytes on the given pool and passes the rows to the sink in batches, see ParallelCsvReader
+    public static <T> long read(Class<T> clazz, Path file, boolean withHeaders, char separator, ForkJoinPool pool, long chunkSize,
+                                int batchSize, boolean ordered, Consumer<List<T>> sink) throws IOException {
+        ParallelCsvReader<T> reader = new ParallelCsvReader<>(reader(clazz, withHeaders, separator), readSchema(clazz, withHeaders, separator), pool, chunkSize);
+        return reader.read(file, batchSize, ordered, sink);
+    }
+
+    public static <T> long read(Class<T> clazz, Path file, boolean withHeaders, char separator,
+                                int batchSize, boolean ordered, Consumer<List<T>> sink) throws IOException {
+        return read(clazz, file, withHeaders, separator, ForkJoinPool.commonPool(), ParallelCsvReader.DEFAULT_CHUNK_SIZE, batchSize, ordered, sink);
+    }
+
+    //the stream is flushed but left open
+    public static <T> void write(Class<T> clazz, Iterable<T> values, OutputStream stream, boolean withHeaders, char separator) throws IOException {
+        try (SequenceWriter sequenceWriter = writer(clazz, withHeaders, separator).writeValues(stream)) {
+            sequenceWriter.writeAll(values);
+        }
+    }
+
+    public static ObjectReader reader(Class<?> clazz, boolean withHeaders, char separator) {
+        return READERS.computeIfAbsent(new SchemaKey(clazz, normalize(separator), withHeaders),
+                key -> MAPPER.readerFor(key.getClazz()).with(readSchema(key.getClazz(), key.isWithHeaders(), key.getSeparator())));
+    }
+
+    //columns are written in declaration order, with a header line when withHeaders is set
+    public static ObjectWriter writer(Class<?> clazz, boolean withHeaders, char separator) {
+        if (separator == '"' || separator == '\n' || separator == '\r') {
+            throw new IllegalArgumentException("cannot write csv separated by " + (int) separator);
+        }
+        return WRITERS.computeIfAbsent(new SchemaKey(clazz, separator, withHeaders),
+                key -> MAPPER.writerFor(key.getClazz()).with(schema(key.getClazz(), key.isWithHeaders(), key.getSeparator())));
+    }
+
+    private static CsvSchema readSchema(Class<?> clazz, boolean withHeaders, char separator) {
+        return READ_SCHEMAS.computeIfAbsent(new SchemaKey(clazz, normalize(separator), withHeaders),
+                key -> schema(key.getClazz(), key.isWithHeaders(), key.getSeparator()).withColumnReordering(true));
+    }
+
+    private static CsvMapper mapper() {
         CsvMapper mapper = new CsvMapper();
 
         mapper.enable(CsvParser.Feature.TRIM_SPACES);
@@ -24,21 +88,31 @@ public class CsvUtils {
         mapper.enable(CsvParser.Feature.INSERT_NULLS_FOR_MISSING_COLUMNS);
         mapper.enable(CsvParser.Feature.SKIP_EMPTY_LINES);
         mapper.disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
-        CsvSchema schema = mapper.schemaFor(clazz).withColumnReordering(true);
-        ObjectReader reader;
-        if (separator == '\t') {
-            schema = schema.withColumnSeparator('\t');
-        }
-        else {
-            schema = schema.withColumnSeparator(',');
-        }
+        mapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return mapper;
+    }
+
+    private static CsvSchema schema(Class<?> clazz, boolean withHeaders, char separator) {
+        CsvSchema schema = MAPPER.schemaFor(clazz).withColumnSeparator(separator);
         if (withHeaders) {
             schema = schema.withHeader();
         }
         else {
             schema = schema.withoutHeader();
         }
-        reader = mapper.readerFor(clazz).with(schema);
-        return reader.<T>readValues(stream).readAll();
+        return schema;
+    }
+
+    //anything but a tab is read as a comma like before the readers were cached. writers keep the separator they are
+    //given, there is one per separator a caller actually writes with
+    private static char normalize(char separator) {
+        return separator == '\t' ? '\t' : ',';
+    }
+
+    @Value
+    private static class SchemaKey {
+        Class<?> clazz;
+        char separator;
+        boolean withHeaders;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package com.nooul.apihelpers.springbootrest.utils;
+
+import org.hibernate.Hibernate;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+//property readers generated once per class and property: getters are bound into a Function with LambdaMetafactory
+//(as fast as a direct call), fields without getters get a MethodHandle. nothing is looked up per row
+public class EntityAccessors {
+
+    private static final Map<Class<?>, Map<String, Function<Object, Object>>> ACCESSORS = new ConcurrentHashMap<>();
+
+    private EntityAccessors() {
+
+    }
+
+    public static Function<Object, Object> get(Class<?> clazz, String property) {
+        return ACCESSORS.computeIfAbsent(clazz, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(property, key -> create(clazz, key));
+    }
+
+    //reads the property of an entity, unwrapping hibernate proxies first
+    public static Object read(Object target, String property) {
+        if (target == null) {
+            return null;
+        }
+        if (target instanceof HibernateProxy) {
+            target = Hibernate.unproxy(target);
+        }
+        return get(target.getClass(), property).apply(target);
+    }
+
+    //dot separated paths like director.firstName, null as soon as a part is null
+    public static Object readPath(Object target, String path) {
+        Object value = target;
+        for (String part : path.split("\\.")) {
+            value = read(value, part);
+        }
+        return value;
+    }
+
+    private static Function<Object, Object> create(Class<?> clazz, String property) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(clazz, property);
+        Field field = ReflectionUtils.findField(clazz, property);
+        if ((descriptor == null || descriptor.getReadMethod() == null) && field == null) {
+            throw new IllegalArgumentException("no property " + property + " in " + clazz.getName());
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+            if (descriptor != null && descriptor.getReadMethod() != null) {
+                MethodHandle getter = lookup.unreflect(descriptor.getReadMethod());
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class), getter, getter.type().wrap());
+                return (Function<Object, Object>) site.getTarget().invoke();
+            }
+            MethodHandle handle = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+            return target -> {
+                try {
+                    return handle.invokeExact(target);
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (Throwable e) {
+            throw new IllegalStateException("cannot read " + property + " of " + clazz.getName(), e);
+        }
+    }
+}
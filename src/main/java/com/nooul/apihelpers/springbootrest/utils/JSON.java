@@ -1,17 +1,26 @@
 package com.nooul.apihelpers.springbootrest.utils;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nooul.apihelpers.springbootrest.providers.ObjectMapperProvider;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -19,6 +28,20 @@ public class JSON {
 
     protected static final Log logger = LogFactory.getLog(JSON.class);
 
+    //ObjectReader/ObjectWriter are immutable and thread-safe so they are shared between calls
+    //in order to keep Jackson's (de)serializer caches warm
+    private static volatile Codec codec = new Codec(false, ObjectMapperProvider.Profile.DEFAULT);
+
+    public static void configure(boolean useSnakeCase) {
+        configure(useSnakeCase, ObjectMapperProvider.Profile.DEFAULT);
+    }
+
+    public static void configure(boolean useSnakeCase, ObjectMapperProvider.Profile profile) {
+        if (codec.useSnakeCase != useSnakeCase || codec.profile != profile) {
+            codec = new Codec(useSnakeCase, profile);
+        }
+    }
+
     public static JSONObject toJsonObject(String str) {
         JSONObject jsonObj = new JSONObject(str);
         return jsonObj;
@@ -36,12 +59,10 @@ public class JSON {
     }
 
     public static String toJsonString(Object obj) {
-        ObjectMapper mapper = new ObjectMapper();
-
         //Object to JSON in String
         String jsonString = "";
         try {
-            jsonString = mapper.writeValueAsString(obj);
+            jsonString = codec.writer.writeValueAsString(obj);
         } catch (JsonProcessingException e) {
             logger.error(e);
         }
@@ -50,10 +71,9 @@ public class JSON {
 
     public static <T>  T toObject(String jsonString, Class<T> clazz) {
         //JSON from String to Object
-        ObjectMapper mapper = new ObjectMapper();
         T obj = null;
         try {
-            obj = mapper.readValue(jsonString, clazz);
+            obj = codec.readerFor(clazz).readValue(jsonString);
         } catch (IOException e) {
             logger.error(e);
         }
@@ -62,11 +82,9 @@ public class JSON {
 
     public static <T>  List<T> toListOfObjects(String jsonString, Class<T[]> clazz) {
         //JSON from String to Object
-        ObjectMapper mapper = new ObjectMapper();
-        T obj = null;
         List<T> listOfObjects = new ArrayList<>();
         try {
-            T[] objects = mapper.readValue(jsonString, clazz);
+            T[] objects = codec.readerFor(clazz).readValue(jsonString);
             listOfObjects = Arrays.asList(objects);
         } catch (IOException e) {
             logger.error(e);
@@ -74,12 +92,21 @@ public class JSON {
         return listOfObjects;
     }
 
+    //reads a top level array (or a sequence of root values) one element at a time instead of
+    //binding the whole payload, errors are thrown so a failed element does not look like the end of input
+    public static <T> MappingIterator<T> iterate(InputStream stream, Class<T> clazz) throws IOException {
+        return codec.readerFor(clazz).readValues(stream);
+    }
+
     public static boolean isValid(final String json) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+        //token scan of the first root value without building a tree
         boolean valid;
-        try {
-            objectMapper.readTree(json);
+        try (JsonParser parser = codec.factory.createParser(json)) {
+            parser.enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
+            JsonToken token = parser.nextToken();
+            if (token != null) {
+                parser.skipChildren();
+            }
             valid = true;
         } catch (IOException e) {
             valid = false;
@@ -87,4 +114,25 @@ public class JSON {
         }
         return valid;
     }
+
+    private static class Codec {
+        private final boolean useSnakeCase;
+        private final ObjectMapperProvider.Profile profile;
+        private final ObjectMapper mapper;
+        private final JsonFactory factory;
+        private final ObjectWriter writer;
+        private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+        private Codec(boolean useSnakeCase, ObjectMapperProvider.Profile profile) {
+            this.useSnakeCase = useSnakeCase;
+            this.profile = profile;
+            this.mapper = ObjectMapperProvider.configure(new ObjectMapper(), useSnakeCase, profile);
+            this.factory = mapper.getFactory();
+            this.writer = mapper.writer();
+        }
+
+        private ObjectReader readerFor(Class<?> clazz) {
+            return readers.computeIfAbsent(clazz, mapper::readerFor);
+        }
+    }
 }
@@ -0,0 +1,218 @@
+package com.nooul.apihelpers.springbootrest.utils;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+//memory maps a csv file, splits it into chunks at record boundaries and parses the chunks in parallel
+//boundaries are found with one sequential scan that tracks quoted fields, so they may contain line breaks
+//rows reach the sink in batches on the calling thread, in file order when ordered is set
+class ParallelCsvReader<T> {
+
+    static final long DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final long SCAN_REGION_SIZE = 64 * 1024 * 1024;
+
+    private final ObjectReader reader;
+    private final boolean withHeaders;
+    private final int quoteChar;
+    private final int separator;
+    private final ForkJoinPool pool;
+    private final long chunkSize;
+
+    ParallelCsvReader(ObjectReader reader, CsvSchema schema, ForkJoinPool pool, long chunkSize) {
+        this.reader = reader.with(schema);
+        this.withHeaders = schema.usesHeader();
+        this.quoteChar = schema.getQuoteChar();
+        this.separator = schema.getColumnSeparator();
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    long read(Path file, int batchSize, boolean ordered, Consumer<List<T>> sink) throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Long> boundaries = split(channel);
+            int first = 0;
+            ObjectReader chunkReader = reader;
+            if (withHeaders) {
+                if (boundaries.size() < 2) {
+                    return 0;
+                }
+                chunkReader = withHeaderColumns(channel, boundaries.get(1));
+                first = 1;
+            }
+            return parse(channel, boundaries, first, chunkReader, batchSize, ordered, sink);
+        }
+    }
+
+    private long parse(FileChannel channel, List<Long> boundaries, int first, ObjectReader chunkReader,
+                       int batchSize, boolean ordered, Consumer<List<T>> sink) throws IOException {
+        //a bounded window of chunks in flight keeps memory independent of the file size
+        int window = pool.getParallelism() * 2;
+        int chunks = boundaries.size() - 1;
+        Deque<Future<List<T>>> pending = new ArrayDeque<>();
+        CompletionService<List<T>> completion = ordered ? null : new ExecutorCompletionService<>(pool);
+        List<T> batch = new ArrayList<>(batchSize);
+        long rows = 0;
+        int next = first;
+        try {
+            while (next < chunks || !pending.isEmpty()) {
+                while (pending.size() < window && next < chunks) {
+                    Callable<List<T>> task = chunkTask(channel, chunkReader, boundaries.get(next), boundaries.get(next + 1));
+                    pending.add(ordered ? pool.submit(task) : completion.submit(task));
+                    next++;
+                }
+                Future<List<T>> done;
+                if (ordered) {
+                    done = pending.poll();
+                } else {
+                    done = completion.take();
+                    pending.remove(done);
+                }
+                for (T row : done.get()) {
+                    batch.add(row);
+                    rows++;
+                    if (batch.size() == batchSize) {
+                        sink.accept(batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while reading csv", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            for (Future<List<T>> future : pending) {
+                future.cancel(true);
+            }
+        }
+        if (!batch.isEmpty()) {
+            sink.accept(batch);
+        }
+        return rows;
+    }
+
+    private Callable<List<T>> chunkTask(FileChannel channel, ObjectReader chunkReader, long start, long end) {
+        return () -> {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            try (MappingIterator<T> rows = chunkReader.readValues(new ByteBufferInputStream(buffer))) {
+                return rows.readAll();
+            }
+        };
+    }
+
+    //record boundaries starting with 0 and ending with the file size, the first one after the header when there is one
+    private List<Long> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        boolean quoted = false;
+        //a quote only opens a field at its start (after the spaces TRIM_SPACES skips) like the parser reads it,
+        //elsewhere it is part of the value. a quote right after the closing one is an escaped quote ("")
+        boolean fieldStart = true;
+        boolean closed = false;
+        long target = withHeaders ? 0 : chunkSize;
+        for (long position = 0; position < size; position += SCAN_REGION_SIZE) {
+            long regionSize = Math.min(SCAN_REGION_SIZE, size - position);
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+            for (int i = 0; i < regionSize; i++) {
+                byte b = region.get(i);
+                boolean quote = b == quoteChar && quoteChar >= 0;
+                if (quoted) {
+                    quoted = !quote;
+                    closed = quote;
+                    continue;
+                }
+                if (quote && (fieldStart || closed)) {
+                    quoted = true;
+                } else if (b == '\n') {
+                    if (position + i >= target) {
+                        long boundary = position + i + 1;
+                        boundaries.add(boundary);
+                        target = boundary + chunkSize;
+                    }
+                    fieldStart = true;
+                } else if (b == separator) {
+                    fieldStart = true;
+                } else if (b != ' ' && b != '\t') {
+                    fieldStart = false;
+                }
+                closed = false;
+                if (quoted) {
+                    fieldStart = false;
+                }
+            }
+        }
+        if (boundaries.get(boundaries.size() - 1) < size) {
+            boundaries.add(size);
+        }
+        return boundaries;
+    }
+
+    //chunks after the first have no header line so they are read with the columns the header declared
+    private ObjectReader withHeaderColumns(FileChannel channel, long headerEnd) throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+        try (MappingIterator<T> rows = reader.readValues(new ByteBufferInputStream(header))) {
+            rows.hasNextValue();
+            CsvSchema schema = ((CsvParser) rows.getParser()).getSchema();
+            return reader.with(schema.withoutHeader());
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
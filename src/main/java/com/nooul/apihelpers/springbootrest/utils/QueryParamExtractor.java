@@ -1,5 +1,8 @@
 package com.nooul.apihelpers.springbootrest.utils;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONArray;
@@ -8,9 +11,12 @@ import org.json.JSONTokener;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.util.Arrays;
 
 public class QueryParamExtractor {
 
+    private static final ObjectMapper keyMapper = new ObjectMapper().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
     public static QueryParamWrapper extract(String filterStr, String rangeStr, String sortStr) {
 
 
@@ -54,4 +60,25 @@ public class QueryParamExtractor {
 
         return new QueryParamWrapper(filter, filterOr, range, sort);
     }
+
+    //the same string for the same query however its json was written: map keys are ordered
+    public static String normalize(QueryParamWrapper queryParamWrapper) {
+        try {
+            return keyMapper.writeValueAsString(Arrays.asList(
+                    toJava(queryParamWrapper.getFilter()), toJava(queryParamWrapper.getFilterOr()),
+                    toJava(queryParamWrapper.getSort()), toJava(queryParamWrapper.getRange())));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+
+    private static Object toJava(Object json) {
+        if (json instanceof JSONObject) {
+            return ((JSONObject) json).toMap();
+        }
+        if (json instanceof JSONArray) {
+            return ((JSONArray) json).toList();
+        }
+        return json;
+    }
 }
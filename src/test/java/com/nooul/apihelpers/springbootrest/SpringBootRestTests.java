@@ -1,7 +1,12 @@
 package com.nooul.apihelpers.springbootrest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.nooul.apihelpers.springbootrest.providers.ObjectMapperProvider;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -11,10 +16,26 @@ import org.springframework.test.context.junit4.SpringRunner;
 @SpringBootTest(classes = {TestSpringBootApp.class})
 public class SpringBootRestTests {
 
+    @Autowired
+    private ObjectMapperProvider objectMapperProvider;
+
     @Test
     public void contextLoads() {
     }
 
+    @Test
+    public void object_mapper_is_shared() {
+        Assert.assertSame(objectMapperProvider.getObjectMapper(), objectMapperProvider.getObjectMapper());
+    }
+
+    @Test
+    public void copies_of_the_object_mapper_do_not_change_the_shared_one() {
+        ObjectMapper copy = objectMapperProvider.copyObjectMapper();
+        copy.setPropertyNamingStrategy(PropertyNamingStrategy.SNAKE_CASE);
+        Assert.assertNotSame(objectMapperProvider.getObjectMapper(), copy);
+        Assert.assertNull(objectMapperProvider.getObjectMapper().getPropertyNamingStrategy());
+    }
+
 
 
 }
@@ -1,12 +1,39 @@
 package com.nooul.apihelpers.springbootrest;
 
+import com.nooul.apihelpers.springbootrest.controllerAdvices.ResponseCacheFilter;
+import com.nooul.apihelpers.springbootrest.providers.ObjectMapperProvider;
+import com.nooul.apihelpers.springbootrest.repositories.BaseRepositoryImpl;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 @SpringBootApplication
+@EnableJpaRepositories(repositoryBaseClass = BaseRepositoryImpl.class)
 public class TestSpringBootApp {
 
+    @Autowired
+    private ObjectMapperProvider objMapperProvider;
+
     public static void main(String[] args) {
         SpringApplication.run(TestSpringBootApp.class, args);
     }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return objMapperProvider.getSmileHttpMessageConverter();
+    }
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter() {
+        return new ResponseCacheFilter();
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return objMapperProvider.getCborHttpMessageConverter();
+    }
 }
@@ -0,0 +1,80 @@
+package com.nooul.apihelpers.springbootrest.benchmarks;
+
+import com.nooul.apihelpers.springbootrest.TestSpringBootApp;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//saveAll (one INSERT per IDENTITY entity) against insertAll (multi-row INSERT statements) on the in memory H2 of the tests
+//run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.nooul.apihelpers.springbootrest.benchmarks.BatchInsertBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchInsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private DirectorRepository repository;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(TestSpringBootApp.class)
+                .profiles("test")
+                //the test profile traces every statement and bound value which would dominate the measurement
+                .run("--logging.level.org.hibernate.SQL=WARN", "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        repository = context.getBean(DirectorRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        repository.deleteAllInBatch();
+    }
+
+    @Benchmark
+    public int saveAll() {
+        return repository.saveAll(directors()).size();
+    }
+
+    @Benchmark
+    public int insertAll() {
+        return repository.insertAll(directors()).size();
+    }
+
+    private List<Director> directors() {
+        List<Director> directors = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Director director = new Director();
+            director.setFirstName("Lana " + i);
+            director.setLastName("Wachowski");
+            director.setBirthYear(1900 + i % 100);
+            directors.add(director);
+        }
+        return directors;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BatchInsertBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
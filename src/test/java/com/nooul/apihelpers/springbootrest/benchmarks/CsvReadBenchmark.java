@@ -0,0 +1,81 @@
+package com.nooul.apihelpers.springbootrest.benchmarks;
+
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.utils.CsvUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//single threaded CsvUtils.read against the memory mapped parallel read of the same file
+//run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.nooul.apihelpers.springbootrest.benchmarks.CsvReadBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvReadBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("csv-benchmark", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("id,firstName,lastName,birthYear\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write(i + ",Lana " + i + ",\"Wachowski, " + i + "\"," + (1900 + i % 100) + "\n");
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public int sequential() throws IOException {
+        try (InputStream stream = Files.newInputStream(file)) {
+            List<Director> directors = CsvUtils.read(Director.class, stream, true, ',');
+            return directors.size();
+        }
+    }
+
+    @Benchmark
+    public long parallelOrdered() throws IOException {
+        AtomicLong count = new AtomicLong();
+        CsvUtils.read(Director.class, file, true, ',', ForkJoinPool.commonPool(), 1024 * 1024, 1000, true, batch -> count.addAndGet(batch.size()));
+        return count.get();
+    }
+
+    @Benchmark
+    public long parallelUnordered() throws IOException {
+        AtomicLong count = new AtomicLong();
+        CsvUtils.read(Director.class, file, true, ',', ForkJoinPool.commonPool(), 1024 * 1024, 1000, false, batch -> count.addAndGet(batch.size()));
+        return count.get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CsvReadBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
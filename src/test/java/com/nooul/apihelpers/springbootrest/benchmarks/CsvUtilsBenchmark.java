@@ -0,0 +1,49 @@
+package com.nooul.apihelpers.springbootrest.benchmarks;
+
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.utils.CsvUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//many small uploads: the cost of CsvUtils.read is dominated by setting up mapper, schema and reader
+//run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.nooul.apihelpers.springbootrest.benchmarks.CsvUtilsBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvUtilsBenchmark {
+
+    private byte[] upload;
+
+    @Setup
+    public void setup() {
+        StringBuilder csv = new StringBuilder("firstName,lastName,birthYear\n");
+        for (int i = 0; i < 10; i++) {
+            csv.append("Lana ").append(i).append(",Wachowski,").append(1965 + i).append("\n");
+        }
+        upload = csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Director> readSmallUpload() throws IOException {
+        return CsvUtils.read(Director.class, new ByteArrayInputStream(upload), true, ',');
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CsvUtilsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,89 @@
+package com.nooul.apihelpers.springbootrest.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.utils.JSON;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//compares the shared readers/writers of JSON against a new ObjectMapper per call
+//run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.nooul.apihelpers.springbootrest.benchmarks.JsonBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    private Director director;
+    private String directorJson;
+    private String directorsJson;
+
+    @Setup
+    public void setup() {
+        director = new Director();
+        director.setId(1);
+        director.setFirstName("Lana");
+        director.setLastName("Wachowski");
+        director.setBirthYear(1965);
+        directorJson = JSON.toJsonString(director);
+        directorsJson = "[" + directorJson + "," + directorJson + "," + directorJson + "]";
+    }
+
+    @Benchmark
+    public String toJsonStringNewMapper() throws IOException {
+        return new ObjectMapper().writeValueAsString(director);
+    }
+
+    @Benchmark
+    public String toJsonStringShared() {
+        return JSON.toJsonString(director);
+    }
+
+    @Benchmark
+    public Director toObjectNewMapper() throws IOException {
+        return new ObjectMapper().readValue(directorJson, Director.class);
+    }
+
+    @Benchmark
+    public Director toObjectShared() {
+        return JSON.toObject(directorJson, Director.class);
+    }
+
+    @Benchmark
+    public Director[] toListOfObjectsNewMapper() throws IOException {
+        return new ObjectMapper().readValue(directorsJson, Director[].class);
+    }
+
+    @Benchmark
+    public Object toListOfObjectsShared() {
+        return JSON.toListOfObjects(directorsJson, Director[].class);
+    }
+
+    @Benchmark
+    public Object isValidReadTree() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+        return objectMapper.readTree(directorsJson);
+    }
+
+    @Benchmark
+    public boolean isValidStreaming() {
+        return JSON.isValid(directorsJson);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JsonBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
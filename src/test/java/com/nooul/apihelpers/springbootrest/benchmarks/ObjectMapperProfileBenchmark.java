@@ -0,0 +1,98 @@
+package com.nooul.apihelpers.springbootrest.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nooul.apihelpers.springbootrest.helpers.entities.*;
+import com.nooul.apihelpers.springbootrest.providers.ObjectMapperProvider;
+import com.nooul.apihelpers.springbootrest.serializers.EntitySerializersModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//serialization throughput of the test entities for each ObjectMapperProvider profile
+//run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.nooul.apihelpers.springbootrest.benchmarks.ObjectMapperProfileBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectMapperProfileBenchmark {
+
+    @Param({"DEFAULT", "FAST"})
+    private ObjectMapperProvider.Profile profile;
+
+    @Param({"false", "true"})
+    private boolean useSnakeCase;
+
+    //serializers generated at compile time by EntitySerializerProcessor
+    @Param({"false", "true"})
+    private boolean generatedSerializers;
+
+    private ObjectWriter writer;
+    private List<Movie> movies;
+    private List<Actor> actors;
+
+    @Setup
+    public void setup() {
+        ObjectMapper mapper = ObjectMapperProvider.configure(new ObjectMapper(), useSnakeCase, profile);
+        if (generatedSerializers) {
+            mapper.registerModule(new EntitySerializersModule(useSnakeCase, null));
+        }
+        writer = mapper.writer();
+
+        Director director = new Director();
+        director.setId(1);
+        director.setFirstName("Lana");
+        director.setLastName("Wachowski");
+        director.setBirthYear(1965);
+
+        Category category = new Category();
+        category.setId(1);
+        category.setName("Sci-Fi");
+
+        movies = new ArrayList<>();
+        actors = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Movie movie = new Movie();
+            movie.setId(i);
+            movie.setName("The Matrix " + i);
+            movie.setYearReleased(1999 + i % 20);
+            movie.setDirector(director);
+            movie.setCategory(category);
+            movie.getAgeRatings().add("PG-13");
+            movies.add(movie);
+
+            Actor actor = new Actor();
+            actor.setId(i);
+            actor.setFirstName("Keanu " + i);
+            actor.setLastName("Reeves");
+            actor.setBirthYear(1964);
+            actors.add(actor);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeMovies() throws JsonProcessingException {
+        return writer.writeValueAsBytes(movies);
+    }
+
+    @Benchmark
+    public byte[] serializeActors() throws JsonProcessingException {
+        return writer.writeValueAsBytes(actors);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ObjectMapperProfileBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,8 @@
+package com.nooul.apihelpers.springbootrest.helpers.controllerAdvices;
+
+import com.nooul.apihelpers.springbootrest.controllerAdvices.BodyAdvice;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+
+@ControllerAdvice
+public class TestBodyAdvice extends BodyAdvice {
+}
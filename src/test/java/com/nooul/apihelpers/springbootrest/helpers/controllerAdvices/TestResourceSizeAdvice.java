@@ -0,0 +1,8 @@
+package com.nooul.apihelpers.springbootrest.helpers.controllerAdvices;
+
+import com.nooul.apihelpers.springbootrest.controllerAdvices.ResourceSizeAdvice;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+
+@ControllerAdvice
+public class TestResourceSizeAdvice extends ResourceSizeAdvice {
+}
@@ -1,14 +1,13 @@
 package com.nooul.apihelpers.springbootrest.helpers.controllers;
 
+import com.nooul.apihelpers.springbootrest.entities.ChangeSet;
 import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
 import com.nooul.apihelpers.springbootrest.helpers.repositories.CategoryRepository;
 import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.services.PatchService;
 import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 import com.nooul.apihelpers.springbootrest.helpers.entities.Category;
 
 import java.util.Arrays;
@@ -24,6 +23,9 @@ public class CategoryController {
     @Autowired
     private FilterService<Category, Long> filterService;
 
+    @Autowired
+    private PatchService<Category, Long> patchService;
+
     @GetMapping
     public Iterable<Category> filterBy(
             @RequestParam(required = false, name = "filter") String filterStr,
@@ -31,4 +33,18 @@ public class CategoryController {
         QueryParamWrapper wrapper = QueryParamExtractor.extract(filterStr, rangeStr, sortStr);
         return filterService.filterBy(wrapper, repository, Arrays.asList("name"));
     }
+
+    @GetMapping("changes")
+    public ChangeSet<Category> changesSince(
+            @RequestParam(required = false, name = "filter") String filterStr,
+            @RequestParam(required = false, name = "sort") String sortStr, @RequestParam(required = false, name = "since") String since) {
+        QueryParamWrapper wrapper = QueryParamExtractor.extract(filterStr, null, sortStr);
+        return filterService.changesSince(wrapper, repository, since, "id", Arrays.asList("name"));
+    }
+
+    @PatchMapping("{id}")
+    public Category patch(@PathVariable long id, @RequestBody String document) {
+        patchService.patchById(id, document, repository);
+        return repository.findById(id).orElse(null);
+    }
 }
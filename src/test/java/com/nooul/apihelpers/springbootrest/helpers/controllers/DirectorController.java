@@ -1,16 +1,26 @@
 package com.nooul.apihelpers.springbootrest.helpers.controllers;
 
+import com.nooul.apihelpers.springbootrest.entities.ExportJob;
+import com.nooul.apihelpers.springbootrest.entities.ImportProgress;
 import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
 import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
 import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import com.nooul.apihelpers.springbootrest.services.ETagService;
+import com.nooul.apihelpers.springbootrest.services.ExportJobService;
 import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.services.ImportService;
+import com.nooul.apihelpers.springbootrest.services.SubscriptionService;
 import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 
 @RestController
@@ -24,11 +34,79 @@ public class DirectorController {
     @Autowired
     private FilterService<Director, Long> filterService;
 
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private ETagService eTagService;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
     @GetMapping
     public Iterable<Director> filterBy(
             @RequestParam(required = false, name = "filter") String filterStr,
-            @RequestParam(required = false, name = "range") String rangeStr, @RequestParam(required = false, name="sort") String sortStr) {
+            @RequestParam(required = false, name = "range") String rangeStr, @RequestParam(required = false, name="sort") String sortStr,
+            WebRequest request) {
         QueryParamWrapper wrapper = QueryParamExtractor.extract(filterStr, rangeStr, sortStr);
+        if (eTagService.checkNotModified(Director.class, wrapper, request)) {
+            return null;
+        }
         return filterService.filterBy(wrapper, repository, Arrays.asList("firstName", "lastName"));
     }
+
+    @GetMapping("localized")
+    public ResponseEntity<Iterable<Director>> filterByLocalized(@RequestParam(required = false, name = "filter") String filterStr) {
+        QueryParamWrapper wrapper = QueryParamExtractor.extract(filterStr, null, null);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_LANGUAGE, "en")
+                .header(HttpHeaders.SET_COOKIE, "seen=1")
+                .body(filterService.filterBy(wrapper, repository));
+    }
+
+    @GetMapping(value = "live", produces = "text/event-stream")
+    public SseEmitter subscribe(@RequestParam(required = false, name = "filter") String filterStr) {
+        QueryParamWrapper wrapper = QueryParamExtractor.extract(filterStr, null, null);
+        return subscriptionService.subscribe(Director.class, wrapper, Arrays.asList("firstName", "lastName"));
+    }
+
+    @PostMapping(value = "bulk", consumes = "application/json")
+    public ImportProgress bulkCreate(InputStream body) throws IOException {
+        return importService.importJson(repository, Director.class, body);
+    }
+
+    @GetMapping(value = "export", produces = "text/csv")
+    public StreamingResponseBody exportCsv(
+            @RequestParam(required = false, name = "filter") String filterStr,
+            @RequestParam(required = false, name = "range") String rangeStr, @RequestParam(required = false, name="sort") String sortStr) {
+        QueryParamWrapper wrapper = QueryParamExtractor.extract(filterStr, rangeStr, sortStr);
+        return stream -> filterService.exportCsvBy(wrapper, Director.class, "id", Arrays.asList("firstName", "lastName"), stream, true, ',');
+    }
+
+    @PostMapping("exports")
+    public ResponseEntity<ExportJob> submitExport(
+            @RequestParam(required = false, name = "filter") String filterStr,
+            @RequestParam(required = false, name="sort") String sortStr,
+            @RequestParam(defaultValue = "CSV", name = "format") ExportJob.Format format) throws IOException {
+        QueryParamWrapper wrapper = QueryParamExtractor.extract(filterStr, null, sortStr);
+        return ResponseEntity.accepted().body(exportJobService.submit(filterService, repository, Director.class, wrapper, "id", Arrays.asList("firstName", "lastName"), format));
+    }
+
+    @GetMapping("exports/{id}")
+    public ExportJob exportStatus(@PathVariable String id) {
+        return exportJobService.getJob(id);
+    }
+
+    @GetMapping("exports/{id}/download")
+    public ResponseEntity<?> downloadExport(@PathVariable String id) {
+        return exportJobService.download(id);
+    }
+
+    @DeleteMapping("exports/{id}")
+    public ExportJob cancelExport(@PathVariable String id) {
+        return exportJobService.cancel(id);
+    }
 }
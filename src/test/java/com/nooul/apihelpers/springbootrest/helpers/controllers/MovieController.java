@@ -7,10 +7,12 @@ import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import com.nooul.apihelpers.springbootrest.helpers.entities.Movie;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.Arrays;
 
 @RestController
@@ -31,5 +33,11 @@ public class MovieController {
         QueryParamWrapper wrapper = QueryParamExtractor.extract(filterStr, rangeStr, sortStr);
         return filterService.filterBy(wrapper, repository, Arrays.asList("name"));
     }
+
+    @RequestMapping(value = "exists", method = RequestMethod.HEAD)
+    public void exists(@RequestParam(required = false, name = "filter") String filterStr, HttpServletResponse response) {
+        QueryParamWrapper wrapper = QueryParamExtractor.extract(filterStr, null, null);
+        filterService.existsResponse(wrapper, repository, Arrays.asList("name"), response);
+    }
 }
 
@@ -8,9 +8,11 @@ import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.Arrays;
 import java.util.UUID;
 
@@ -30,4 +32,10 @@ public class UUIDEntityController {
         QueryParamWrapper wrapper = QueryParamExtractor.extract(filterStr, rangeStr, sortStr);
         return filterService.filterBy(wrapper, repository, "uuid", Arrays.asList("uuid"));
     }
+
+    @RequestMapping(value = "exists", method = RequestMethod.HEAD)
+    public void exists(@RequestParam(required = false, name = "filter") String filterStr, HttpServletResponse response) {
+        QueryParamWrapper wrapper = QueryParamExtractor.extract(filterStr, null, null);
+        filterService.existsResponse(wrapper, repository, "uuid", Arrays.asList("uuid"), response);
+    }
 }
@@ -1,5 +1,6 @@
 package com.nooul.apihelpers.springbootrest.helpers.entities;
 
+import com.nooul.apihelpers.springbootrest.serializers.IdReference;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -25,6 +26,7 @@ public class Actor {
     private int birthYear;
 
     @ManyToMany
+    @IdReference
     private List<Movie> movies = new ArrayList<>();
 
 }
@@ -3,9 +3,11 @@ package com.nooul.apihelpers.springbootrest.helpers.entities;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 @Entity
@@ -19,6 +21,12 @@ public class Category {
 
     private String name;
 
+    @Version
+    private long version;
+
+    @UpdateTimestamp
+    private Date updatedAt;
+
     @OneToMany(mappedBy="category")
     List<Movie> movies = new ArrayList<>();
 
@@ -0,0 +1,48 @@
+package com.nooul.apihelpers.springbootrest.helpers.entities;
+
+import com.nooul.apihelpers.springbootrest.serializers.IdReference;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+@Entity
+@Setter
+@Getter
+@NoArgsConstructor
+public class Review {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    private String text;
+
+    //no foreign keys, h2 drops the tables in name order and would keep movie and the tables it references between contexts
+    @ManyToOne
+    @JoinColumn(foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Movie movie;
+
+    @ManyToOne
+    @JoinColumn(foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Actor author;
+
+    public String getText() {
+        return text == null ? null : text.trim();
+    }
+
+    @IdReference(wrapped = false)
+    public Actor getAuthor() {
+        return author;
+    }
+
+    public int getLength() {
+        return text == null ? 0 : text.length();
+    }
+
+    @IdReference
+    public Movie getFeatured() {
+        return movie;
+    }
+}
@@ -0,0 +1,36 @@
+package com.nooul.apihelpers.springbootrest.helpers.entities;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+
+@Entity
+@Setter
+@Getter
+@NoArgsConstructor
+public class Screening {
+
+    public enum Format {
+        IMAX, STANDARD, THREE_D
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    private String cinema;
+
+    @Enumerated(EnumType.STRING)
+    private Format format;
+
+    private boolean subtitled;
+
+    private Integer seats;
+}
@@ -2,6 +2,7 @@ package com.nooul.apihelpers.springbootrest.helpers.repositories;
 
 import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
 import com.nooul.apihelpers.springbootrest.repositories.BaseRepository;
+import com.nooul.apihelpers.springbootrest.repositories.BatchWriteRepository;
 
-public interface DirectorRepository extends BaseRepository<Director,Long> {
+public interface DirectorRepository extends BaseRepository<Director,Long>, BatchWriteRepository<Director,Long> {
 }
@@ -1,7 +1,8 @@
 package com.nooul.apihelpers.springbootrest.helpers.repositories;
 
 import com.nooul.apihelpers.springbootrest.repositories.BaseRepository;
+import com.nooul.apihelpers.springbootrest.repositories.BatchWriteRepository;
 import com.nooul.apihelpers.springbootrest.helpers.entities.Movie;
 
-public interface MovieRepository extends BaseRepository<Movie,Long> {
+public interface MovieRepository extends BaseRepository<Movie,Long>, BatchWriteRepository<Movie,Long> {
 }
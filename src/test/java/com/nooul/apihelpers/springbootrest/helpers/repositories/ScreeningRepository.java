@@ -0,0 +1,7 @@
+package com.nooul.apihelpers.springbootrest.helpers.repositories;
+
+import com.nooul.apihelpers.springbootrest.helpers.entities.Screening;
+import com.nooul.apihelpers.springbootrest.repositories.BaseRepository;
+
+public interface ScreeningRepository extends BaseRepository<Screening,Long> {
+}
@@ -0,0 +1,192 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.entities.Aggregation;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Actor;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Category;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Movie;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.ActorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.CategoryRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.MovieRepository;
+import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring-boot-rest-api-helpers.aggregate-max-combinations=5"
+})
+@ActiveProfiles(profiles = "test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class aggregateTests {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private FilterService<Movie, Long> filterService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Director lana;
+    private Director christopher;
+    private Category fiction;
+    private Actor keanu;
+
+    @Before
+    public void createMovies() {
+        lana = director("Lana");
+        christopher = director("Christopher");
+        fiction = new Category();
+        fiction.setName("fiction");
+        fiction = categoryRepository.save(fiction);
+
+        Movie matrix = movie("The Matrix", 1999, lana, fiction);
+        Movie reloaded = movie("The Matrix Reloaded", 2003, lana, fiction);
+        movie("Inception", 2010, christopher, fiction);
+        Movie constantine = movie("Constantine", 2005, null, null);
+        movie("IT", 2017, null, null);
+
+        keanu = actor("Keanu", matrix, reloaded, constantine);
+        actor("Carrie-Anne", matrix, reloaded);
+    }
+
+    @Test
+    public void facets_and_metrics_come_from_one_query() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long queries = statistics.getQueryExecutionCount();
+        Aggregation aggregation = filterService.aggregateBy(QueryParamExtractor.extract("{yearReleasedGt: 2000}", null, null), movieRepository,
+                Arrays.asList("director", "category", "yearReleased:10"), Arrays.asList("min:yearReleased", "max:yearReleased", "sum:yearReleased", "count:director"));
+        Assert.assertEquals(queries + 1, statistics.getQueryExecutionCount());
+
+        Assert.assertEquals(4, aggregation.getCount());
+        Assert.assertEquals(2003, aggregation.getMetrics().get("min:yearReleased"));
+        Assert.assertEquals(2017, aggregation.getMetrics().get("max:yearReleased"));
+        Assert.assertEquals(2003L + 2010 + 2005 + 2017, aggregation.getMetrics().get("sum:yearReleased"));
+        Assert.assertEquals(2L, aggregation.getMetrics().get("count:director"));
+
+        List<Aggregation.Bucket> directors = aggregation.getFacets().get("director");
+        Assert.assertEquals(Arrays.asList(null, lana.getId(), christopher.getId()), values(directors));
+        Assert.assertEquals(Arrays.asList(2L, 1L, 1L), counts(directors));
+        Assert.assertEquals(2017, directors.get(0).getMetrics().get("max:yearReleased"));
+
+        List<Aggregation.Bucket> categories = aggregation.getFacets().get("category");
+        Assert.assertEquals(Arrays.asList(null, fiction.getId()), values(categories));
+        Assert.assertEquals(Arrays.asList(2L, 2L), counts(categories));
+
+        List<Aggregation.Bucket> decades = aggregation.getFacets().get("yearReleased:10");
+        Assert.assertEquals(Arrays.asList(2000, 2010), values(decades));
+        Assert.assertEquals(Arrays.asList(2L, 2L), counts(decades));
+    }
+
+    @Test
+    public void too_many_combinations_fall_back_to_a_query_per_facet() {
+        movie("Speed Racer", 2008, lana, null);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long queries = statistics.getQueryExecutionCount();
+        Aggregation aggregation = filterService.aggregateBy(QueryParamExtractor.extract(null, null, null), movieRepository,
+                Arrays.asList("director", "name"), Arrays.asList("sum:yearReleased"));
+        Assert.assertEquals(queries + 1 + 2, statistics.getQueryExecutionCount());
+
+        Assert.assertEquals(6, aggregation.getCount());
+        Assert.assertEquals(1999L + 2003 + 2010 + 2005 + 2017 + 2008, aggregation.getMetrics().get("sum:yearReleased"));
+        Assert.assertEquals(Arrays.asList(null, lana.getId(), christopher.getId()), values(aggregation.getFacets().get("director")));
+        Assert.assertEquals(Arrays.asList(2L, 3L, 1L), counts(aggregation.getFacets().get("director")));
+        Assert.assertEquals(6, aggregation.getFacets().get("name").size());
+    }
+
+    @Test
+    public void joins_of_the_filter_do_not_multiply_rows() {
+        Aggregation aggregation = filterService.aggregateBy(QueryParamExtractor.extract("{actors: {firstName: '%a%'}}", null, null), movieRepository,
+                Arrays.asList("director.firstName"), Arrays.asList("sum:yearReleased"));
+        Assert.assertEquals(3, aggregation.getCount());
+        Assert.assertEquals(1999L + 2003 + 2005, aggregation.getMetrics().get("sum:yearReleased"));
+        List<Aggregation.Bucket> directors = aggregation.getFacets().get("director.firstName");
+        Assert.assertEquals(Arrays.asList(null, "Lana"), values(directors));
+        Assert.assertEquals(Arrays.asList(1L, 2L), counts(directors));
+
+        Aggregation none = filterService.aggregateBy(QueryParamExtractor.extract("{name: 'Solaris'}", null, null), movieRepository,
+                Arrays.asList("director"), Arrays.asList("max:yearReleased"));
+        Assert.assertEquals(0, none.getCount());
+        Assert.assertNull(none.getMetrics().get("max:yearReleased"));
+        Assert.assertTrue(none.getFacets().get("director").isEmpty());
+    }
+
+    @Test
+    public void negative_values_are_in_the_range_below_them() {
+        movie("Before", -3, null, null);
+        movie("Long before", -10, null, null);
+        movie("Even longer before", -11, null, null);
+        Aggregation aggregation = filterService.aggregateBy(QueryParamExtractor.extract("{yearReleasedLt: 0}", null, null), movieRepository,
+                Arrays.asList("yearReleased:10"), new ArrayList<>());
+        List<Aggregation.Bucket> ranges = aggregation.getFacets().get("yearReleased:10");
+        Assert.assertEquals(Arrays.asList(-20, -10), values(ranges));
+        Assert.assertEquals(Arrays.asList(1L, 2L), counts(ranges));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ranges_need_integral_attributes() {
+        filterService.aggregateBy(QueryParamExtractor.extract(null, null, null), movieRepository, Arrays.asList("name:10"), new ArrayList<>());
+    }
+
+    private List<Object> values(List<Aggregation.Bucket> buckets) {
+        List<Object> values = new ArrayList<>();
+        buckets.forEach(bucket -> values.add(bucket.getValue()));
+        return values;
+    }
+
+    private List<Long> counts(List<Aggregation.Bucket> buckets) {
+        List<Long> counts = new ArrayList<>();
+        buckets.forEach(bucket -> counts.add(bucket.getCount()));
+        return counts;
+    }
+
+    private Director director(String firstName) {
+        Director director = new Director();
+        director.setFirstName(firstName);
+        return directorRepository.save(director);
+    }
+
+    private Movie movie(String name, int year, Director director, Category category) {
+        Movie movie = new Movie();
+        movie.setName(name);
+        movie.setYearReleased(year);
+        movie.setDirector(director);
+        movie.setCategory(category);
+        return movieRepository.save(movie);
+    }
+
+    private Actor actor(String firstName, Movie... movies) {
+        Actor actor = new Actor();
+        actor.setFirstName(firstName);
+        actor.setMovies(Arrays.asList(movies));
+        return actorRepository.save(actor);
+    }
+}
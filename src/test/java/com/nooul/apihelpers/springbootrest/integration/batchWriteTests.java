@@ -0,0 +1,107 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Movie;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.MovieRepository;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles(profiles = "test")
+public class batchWriteTests {
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void multi_row_inserts_return_identity_ids() {
+        List<Director> directors = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            directors.add(director("Lana" + i, 1900 + i % 100));
+        }
+
+        List<Long> ids = directorRepository.insertAll(directors, 500);
+
+        Assert.assertEquals(1200, ids.size());
+        Assert.assertEquals(1200, directorRepository.count());
+        for (int i = 0; i < directors.size(); i++) {
+            Assert.assertEquals(ids.get(i).longValue(), directors.get(i).getId());
+            if (i > 0) {
+                Assert.assertTrue(ids.get(i) > ids.get(i - 1));
+            }
+        }
+        Director stored = directorRepository.findById(ids.get(1101)).get();
+        Assert.assertEquals("Lana1101", stored.getFirstName());
+        Assert.assertEquals(1901, stored.getBirthYear());
+
+        Movie matrix = new Movie();
+        matrix.setName("The Matrix");
+        matrix.setYearReleased(1999);
+        matrix.setDirector(directors.get(0));
+        long matrixId = movieRepository.insertAll(Arrays.asList(matrix)).get(0);
+        Assert.assertEquals(directors.get(0).getId(), movieRepository.findById(matrixId).get().getDirector().getId());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void upserts_overwrite_existing_rows_and_insert_new_ones() {
+        Director lana = directorRepository.save(director("Lana", 1965));
+        Director lilly = directorRepository.save(director("Lilly", 1967));
+
+        lana.setLastName("Wachowski-Upserted");
+        Director steven = director("Steven", 1946);
+        List<Long> ids = directorRepository.upsertAll(Arrays.asList(lana, steven));
+
+        Assert.assertEquals(Arrays.asList(lana.getId(), steven.getId()), ids);
+        Assert.assertNotEquals(0, steven.getId());
+        Assert.assertEquals(3, directorRepository.count());
+        Assert.assertEquals("Wachowski-Upserted", directorRepository.findById(lana.getId()).get().getLastName());
+        Assert.assertEquals("Wachowski", directorRepository.findById(lilly.getId()).get().getLastName());
+        Assert.assertEquals("Steven", directorRepository.findById(steven.getId()).get().getFirstName());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void upserts_replace_managed_copies_of_the_rows() {
+        long lanaId = directorRepository.save(director("Lana", 1965)).getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Assert.assertEquals("Wachowski", directorRepository.findById(lanaId).get().getLastName());
+            Director upserted = director("Lana", 1965);
+            upserted.setId(lanaId);
+            upserted.setLastName("Wachowski-Upserted");
+            directorRepository.upsertAll(Arrays.asList(upserted));
+            Assert.assertEquals("Wachowski-Upserted", directorRepository.findById(lanaId).get().getLastName());
+        });
+        Assert.assertEquals("Wachowski-Upserted", directorRepository.findById(lanaId).get().getLastName());
+    }
+
+    private Director director(String firstName, int birthYear) {
+        Director director = new Director();
+        director.setFirstName(firstName);
+        director.setLastName("Wachowski");
+        director.setBirthYear(birthYear);
+        return director;
+    }
+}
@@ -0,0 +1,201 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.entities.EntityChangeEvent;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Actor;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Movie;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.ActorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.MovieRepository;
+import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles(profiles = "test")
+public class bulkTests {
+
+    @TestConfiguration
+    static class Events {
+        @Bean
+        public List<EntityChangeEvent> entityChangeEvents() {
+            return new ArrayList<>();
+        }
+
+        @EventListener
+        public void onChange(EntityChangeEvent event) {
+            entityChangeEvents().add(event);
+        }
+    }
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private FilterService<Movie, Long> movieFilterService;
+
+    @Autowired
+    private FilterService<Actor, Long> actorFilterService;
+
+    @Autowired
+    private List<EntityChangeEvent> entityChangeEvents;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Director lana;
+    private Director steven;
+    private Movie matrix;
+    private Movie constantine;
+    private Movie jaws;
+
+    @Before
+    public void clearEvents() {
+        entityChangeEvents.clear();
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void movies_matching_the_filter_are_updated_in_one_statement() {
+        createMovies();
+
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("name", "Remastered");
+        changes.put("director", steven.getId());
+        long updated = movieFilterService.updateBy(QueryParamExtractor.extract("{yearReleasedGte: 2000}", null, null), changes, movieRepository);
+
+        Assert.assertEquals(1, updated);
+        Movie reloaded = movieRepository.findById(constantine.getId()).get();
+        Assert.assertEquals("Remastered", reloaded.getName());
+        Assert.assertEquals(steven.getId(), reloaded.getDirector().getId());
+        Assert.assertEquals("The Matrix", movieRepository.findById(matrix.getId()).get().getName());
+
+        Assert.assertEquals(1, entityChangeEvents.size());
+        Assert.assertEquals(Movie.class, entityChangeEvents.get(0).getEntityClass());
+        Assert.assertEquals(EntityChangeEvent.Type.UPDATE, entityChangeEvents.get(0).getType());
+        Assert.assertEquals(1, entityChangeEvents.get(0).getRows());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void association_filters_are_evaluated_in_a_subquery() {
+        createMovies();
+        Actor keanu = createActor("Keanu", matrix, constantine);
+        Actor roy = createActor("Roy", jaws);
+        Actor carrie = createActor("Carrie", matrix);
+
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("lastName", "Matrix cast");
+        long updated = actorFilterService.updateBy(QueryParamExtractor.extract("{movies: [" + matrix.getId() + "]}", null, null), changes, actorRepository);
+        Assert.assertEquals(2, updated);
+        Assert.assertEquals("Matrix cast", actorRepository.findById(keanu.getId()).get().getLastName());
+        Assert.assertEquals("Matrix cast", actorRepository.findById(carrie.getId()).get().getLastName());
+        Assert.assertNull(actorRepository.findById(roy.getId()).get().getLastName());
+
+        long deleted = actorFilterService.deleteBy(QueryParamExtractor.extract("{movies: [" + jaws.getId() + "]}", null, null), actorRepository);
+        Assert.assertEquals(1, deleted);
+        Assert.assertFalse(actorRepository.findById(roy.getId()).isPresent());
+        Assert.assertEquals(2, actorRepository.count());
+
+        Assert.assertEquals(Arrays.asList(EntityChangeEvent.Type.UPDATE, EntityChangeEvent.Type.DELETE),
+                Arrays.asList(entityChangeEvents.get(0).getType(), entityChangeEvents.get(1).getType()));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void every_row_is_deleted_only_on_purpose() {
+        createMovies();
+        createActor("Keanu", matrix, constantine);
+        createActor("Roy", jaws);
+
+        try {
+            actorFilterService.deleteBy(QueryParamExtractor.extract(null, null, null), actorRepository);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(2, actorRepository.count());
+        }
+
+        Assert.assertEquals(2, actorFilterService.deleteAll(actorRepository));
+        Assert.assertEquals(0, actorRepository.count());
+        Assert.assertEquals(EntityChangeEvent.Type.DELETE, entityChangeEvents.get(0).getType());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void entities_of_the_callers_transaction_stay_managed() {
+        createMovies();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Movie loaded = movieRepository.findById(matrix.getId()).get();
+            Map<String, Object> changes = new HashMap<>();
+            changes.put("name", "Remastered");
+            movieFilterService.updateBy(QueryParamExtractor.extract("{yearReleasedGte: 2000}", null, null), changes, movieRepository);
+            movieFilterService.deleteBy(QueryParamExtractor.extract("{name: 'Jaws'}", null, null), movieRepository);
+            Assert.assertTrue(entityManager.contains(loaded));
+        });
+        Assert.assertEquals(2, movieRepository.count());
+    }
+
+    private void createMovies() {
+        lana = new Director();
+        lana.setFirstName("Lana");
+        lana.setLastName("Wachowski");
+        directorRepository.save(lana);
+
+        steven = new Director();
+        steven.setFirstName("Steven");
+        steven.setLastName("Spielberg");
+        directorRepository.save(steven);
+
+        matrix = createMovie("The Matrix", 1999, lana);
+        constantine = createMovie("Constantine", 2005, lana);
+        jaws = createMovie("Jaws", 1975, steven);
+    }
+
+    private Movie createMovie(String name, int yearReleased, Director director) {
+        Movie movie = new Movie();
+        movie.setName(name);
+        movie.setYearReleased(yearReleased);
+        movie.setDirector(director);
+        return movieRepository.save(movie);
+    }
+
+    private Actor createActor(String firstName, Movie... movies) {
+        Actor actor = new Actor();
+        actor.setFirstName(firstName);
+        actor.setMovies(new ArrayList<>(Arrays.asList(movies)));
+        return actorRepository.save(actor);
+    }
+}
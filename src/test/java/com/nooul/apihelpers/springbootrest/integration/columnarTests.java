@@ -0,0 +1,142 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Screening;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.ScreeningRepository;
+import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.specifications.InMemorySpecifications;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring-boot-rest-api-helpers.columnar-entities=Screening"
+})
+@ActiveProfiles(profiles = "test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class columnarTests {
+
+    @Autowired
+    private ScreeningRepository screeningRepository;
+
+    @Autowired
+    private FilterService<Screening, Long> filterService;
+
+    @Autowired
+    private InMemorySpecifications<Screening> inMemorySpecifications;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Screening rex;
+
+    @Before
+    public void createScreenings() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        rex = save("Rex", Screening.Format.IMAX, false, 300);
+        save("Odeon Central", Screening.Format.STANDARD, true, 120);
+        save("Odeon West", Screening.Format.THREE_D, false, 120);
+        save("Paris", Screening.Format.STANDARD, false, null);
+        save(null, Screening.Format.IMAX, true, 250);
+        save("Studio", null, true, 80);
+    }
+
+    @Test
+    public void filters_sort_and_range_match_in_memory_evaluation() {
+        filterService.countBy(QueryParamExtractor.extract(null, null, null), screeningRepository);
+        String[] filters = {
+                null,
+                "{format: 'IMAX'}",
+                "{formatNot: 'IMAX'}",
+                "{format: ['IMAX', 'THREE_D']}",
+                "{subtitled: true}",
+                "{subtitledNot: true, seatsGte: 120}",
+                "{seats: null}",
+                "{seatsNot: null}",
+                "{seatsLt: 150}",
+                "{cinema: '%Odeon%'}",
+                "{cinemaNot: 'Rex'}",
+                "{cinema: null}",
+                "{cinemaGt: 'p'}",
+                "{q: 'od'}",
+                "{id: [" + rex.getId() + ", " + (rex.getId() + 2) + "]}",
+                "[{format: 'STANDARD'}, {seatsGt: 200}]"
+        };
+        String[][] sortsAndRanges = {
+                {null, null},
+                {"['seats', 'DESC']", null},
+                {"['format', 'ASC', 'cinema', 'DESC']", null},
+                {"['cinema', 'ASC']", "[1, 2]"},
+                {"['subtitled', 'DESC', 'seats', 'ASC']", "[0, 3]"}
+        };
+        for (String filter : filters) {
+            for (String[] sortAndRange : sortsAndRanges) {
+                QueryParamWrapper wrapper = QueryParamExtractor.extract(filter, sortAndRange[1], sortAndRange[0]);
+                Page<Screening> expected = inMemorySpecifications.filterBy(screeningRepository.findAll(), Screening.class, wrapper);
+
+                long queries = statistics.getQueryExecutionCount();
+                Page<Screening> actual = filterService.filterBy(wrapper, screeningRepository);
+                long count = filterService.countBy(wrapper, screeningRepository);
+                String message = filter + " " + sortAndRange[0] + " " + sortAndRange[1];
+                Assert.assertEquals(message, queries, statistics.getQueryExecutionCount());
+                Assert.assertEquals(message, ids(expected.getContent()), ids(actual.getContent()));
+                Assert.assertEquals(message, expected.getTotalElements(), actual.getTotalElements());
+                Assert.assertEquals(message, expected.getTotalElements(), count);
+            }
+        }
+    }
+
+    @Test
+    public void changes_are_applied_without_reloading() {
+        Assert.assertEquals(2, filterService.countBy(QueryParamExtractor.extract("{format: 'IMAX'}", null, null), screeningRepository));
+
+        rex.setFormat(Screening.Format.STANDARD);
+        screeningRepository.save(rex);
+        screeningRepository.delete(screeningRepository.findById(rex.getId() + 1).get());
+        Screening added = save("Rex", Screening.Format.IMAX, true, 300);
+
+        long queries = statistics.getQueryExecutionCount();
+        Page<Screening> page = filterService.filterBy(QueryParamExtractor.extract("{format: ['IMAX', 'STANDARD']}", null, "['id', 'ASC']"), screeningRepository);
+        Assert.assertEquals(Arrays.asList(rex.getId(), rex.getId() + 3, rex.getId() + 4, added.getId()), ids(page.getContent()));
+        Assert.assertEquals(Screening.Format.STANDARD, page.getContent().get(0).getFormat());
+        Assert.assertEquals(2, filterService.countBy(QueryParamExtractor.extract("{subtitled: true, cinemaNot: null}", null, null), screeningRepository));
+        Assert.assertEquals(queries, statistics.getQueryExecutionCount());
+
+        //a filter the columns cannot answer goes to the database
+        Assert.assertEquals(2, filterService.countBy(QueryParamExtractor.extract("{seats: '300'}", null, null), screeningRepository));
+        Assert.assertTrue(statistics.getQueryExecutionCount() > queries);
+    }
+
+    private Screening save(String cinema, Screening.Format format, boolean subtitled, Integer seats) {
+        Screening screening = new Screening();
+        screening.setCinema(cinema);
+        screening.setFormat(format);
+        screening.setSubtitled(subtitled);
+        screening.setSeats(seats);
+        return screeningRepository.save(screening);
+    }
+
+    private List<Long> ids(List<Screening> screenings) {
+        List<Long> ids = new ArrayList<>();
+        screenings.forEach(screening -> ids.add(screening.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,96 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Movie;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.MovieRepository;
+import com.nooul.apihelpers.springbootrest.providers.ObjectMapperProvider;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles(profiles = "test")
+@WithMockUser
+public class contentNegotiationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ObjectMapperProvider objectMapperProvider;
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void list_endpoints_negotiate_smile() throws Exception {
+        createMovies();
+
+        MvcResult result = mockMvc.perform(get("/movies").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andReturn();
+
+        Assert.assertEquals("application/x-jackson-smile", result.getResponse().getContentType());
+        JsonNode tree = objectMapperProvider.getSmileObjectMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertSameEnvelope(tree);
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void list_endpoints_negotiate_cbor() throws Exception {
+        createMovies();
+
+        MvcResult result = mockMvc.perform(get("/movies").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andReturn();
+
+        Assert.assertEquals(MediaType.APPLICATION_CBOR_VALUE, result.getResponse().getContentType());
+        JsonNode tree = objectMapperProvider.getCborObjectMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertSameEnvelope(tree);
+    }
+
+    private void assertSameEnvelope(JsonNode binaryTree) throws Exception {
+        MvcResult jsonResult = mockMvc.perform(get("/movies").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode jsonTree = objectMapperProvider.getObjectMapper().readTree(jsonResult.getResponse().getContentAsByteArray());
+
+        Assert.assertTrue(binaryTree.has("content"));
+        Assert.assertEquals(jsonTree.get("content").findValuesAsText("name"), binaryTree.get("content").findValuesAsText("name"));
+        Assert.assertEquals(2, binaryTree.get("content").findValuesAsText("name").size());
+    }
+
+    private void createMovies() {
+        Movie matrix = new Movie();
+        matrix.setName("The Matrix");
+        matrix.setYearReleased(1999);
+        movieRepository.save(matrix);
+
+        Movie constantine = new Movie();
+        constantine.setName("Constantine");
+        constantine.setYearReleased(2005);
+        movieRepository.save(constantine);
+    }
+}
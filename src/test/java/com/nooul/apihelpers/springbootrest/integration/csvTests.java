@@ -0,0 +1,84 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.utils.CsvUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class csvTests {
+
+    @Test
+    public void readers_and_writers_are_cached() {
+        Assert.assertSame(CsvUtils.reader(Director.class, true, ','), CsvUtils.reader(Director.class, true, ','));
+        Assert.assertSame(CsvUtils.reader(Director.class, true, ','), CsvUtils.reader(Director.class, true, ';'));
+        Assert.assertNotSame(CsvUtils.reader(Director.class, true, ','), CsvUtils.reader(Director.class, false, ','));
+        Assert.assertNotSame(CsvUtils.reader(Director.class, true, ','), CsvUtils.reader(Director.class, true, '\t'));
+        Assert.assertSame(CsvUtils.writer(Director.class, true, '\t'), CsvUtils.writer(Director.class, true, '\t'));
+    }
+
+    @Test
+    public void other_separators_are_written_as_given() throws Exception {
+        Director director = new Director();
+        director.setId(1);
+        director.setFirstName("Lana");
+        director.setLastName("Wachowski");
+        director.setBirthYear(1965);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvUtils.write(Director.class, Arrays.asList(director), out, false, ';');
+        Assert.assertEquals("1;Lana;Wachowski;1965", out.toString("UTF-8").trim());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quotes_cannot_separate_columns() {
+        CsvUtils.writer(Director.class, false, '"');
+    }
+
+    @Test
+    public void written_csv_is_read_back() throws Exception {
+        List<Director> directors = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Director director = new Director();
+            director.setId(i + 1);
+            director.setFirstName("Lana " + i);
+            director.setLastName("Wachowski, \"the elder\"");
+            director.setBirthYear(1965 + i);
+            directors.add(director);
+        }
+
+        for (char separator : new char[]{',', '\t'}) {
+            for (boolean withHeaders : new boolean[]{true, false}) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                CsvUtils.write(Director.class, directors, out, withHeaders, separator);
+                List<Director> read = CsvUtils.read(Director.class, new ByteArrayInputStream(out.toByteArray()), withHeaders, separator);
+
+                Assert.assertEquals(3, read.size());
+                for (int i = 0; i < 3; i++) {
+                    Assert.assertEquals(directors.get(i).getId(), read.get(i).getId());
+                    Assert.assertEquals(directors.get(i).getFirstName(), read.get(i).getFirstName());
+                    Assert.assertEquals(directors.get(i).getLastName(), read.get(i).getLastName());
+                    Assert.assertEquals(directors.get(i).getBirthYear(), read.get(i).getBirthYear());
+                }
+            }
+        }
+    }
+
+    //jackson-dataformat-csv 2.10 loses the start of a record at its input buffer boundaries when SKIP_EMPTY_LINES is on
+    @Test
+    public void records_across_parser_buffers_are_read() throws Exception {
+        StringBuilder csv = new StringBuilder("id,firstName,lastName,birthYear\n");
+        for (int i = 0; i < 20000; i++) {
+            csv.append(i).append(",Lana ").append(i).append(",\"Wachowski, ").append(i).append("\",").append(1900 + i % 100).append("\n");
+        }
+
+        List<Director> read = CsvUtils.read(Director.class, new ByteArrayInputStream(csv.toString().getBytes()), true, ',');
+
+        Assert.assertEquals(20000, read.size());
+        Assert.assertEquals("Wachowski, 19999", read.get(19999).getLastName());
+    }
+}
@@ -0,0 +1,221 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.nooul.apihelpers.springbootrest.helpers.entities.*;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.*;
+import com.nooul.apihelpers.springbootrest.providers.ObjectMapperProvider;
+import com.nooul.apihelpers.springbootrest.serializers.EntitySerializersModule;
+import com.nooul.apihelpers.springbootrest.serializers.GeneratedEntitySerializer;
+import com.nooul.apihelpers.springbootrest.serializers.IdReferenceModule;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles(profiles = "test")
+public class entitySerializerTests {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ObjectMapperProvider objectMapperProvider;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void provider_uses_generated_serializers() throws Exception {
+        Assert.assertTrue(objectMapperProvider.getObjectMapper().getSerializerProviderInstance()
+                .findValueSerializer(Movie.class) instanceof GeneratedEntitySerializer);
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void generated_serializers_write_the_same_json_as_reflection() throws Exception {
+        Movie matrix = createMatrix();
+
+        for (boolean useSnakeCase : new boolean[]{false, true}) {
+            for (Boolean associationsWrapped : new Boolean[]{null, true, false}) {
+                ObjectMapper reflective = ObjectMapperProvider.configure(new ObjectMapper(), useSnakeCase);
+                ObjectMapper generated = ObjectMapperProvider.configure(new ObjectMapper(), useSnakeCase)
+                        .registerModule(new EntitySerializersModule(useSnakeCase, associationsWrapped));
+                if (associationsWrapped != null) {
+                    reflective.registerModule(new IdReferenceModule(associationsWrapped));
+                    generated.registerModule(new IdReferenceModule(associationsWrapped));
+                }
+
+                JsonNode expected = reflective.readTree(reflective.writeValueAsString(matrix));
+                JsonNode actual = generated.readTree(generated.writeValueAsString(matrix));
+                Assert.assertEquals(expected, actual);
+                Assert.assertEquals(reflective.writeValueAsString(matrix), generated.writeValueAsString(matrix));
+            }
+        }
+    }
+
+    //Review reads through custom getters, has a getter-only property and @IdReference on getters
+    @Test
+    public void every_entity_is_written_like_the_reflective_serializer() throws Exception {
+        for (EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> clazz = entityType.getJavaType();
+            Object entity = sample(clazz, true);
+            for (boolean useSnakeCase : new boolean[]{false, true}) {
+                for (Boolean associationsWrapped : new Boolean[]{null, true, false}) {
+                    ObjectMapper reflective = ObjectMapperProvider.configure(new ObjectMapper(), useSnakeCase);
+                    ObjectMapper generated = ObjectMapperProvider.configure(new ObjectMapper(), useSnakeCase)
+                            .registerModule(new EntitySerializersModule(useSnakeCase, associationsWrapped));
+                    if (associationsWrapped != null) {
+                        reflective.registerModule(new IdReferenceModule(associationsWrapped));
+                        generated.registerModule(new IdReferenceModule(associationsWrapped));
+                    }
+                    String message = clazz.getSimpleName() + " " + useSnakeCase + " " + associationsWrapped;
+                    Assert.assertTrue(message, generated.getSerializerProviderInstance().findValueSerializer(clazz) instanceof GeneratedEntitySerializer);
+                    Assert.assertEquals(message, reflective.writeValueAsString(entity), generated.writeValueAsString(entity));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void mapper_configuration_is_followed() throws Exception {
+        Director lana = new Director();
+        lana.setFirstName("Lana");
+        Movie matrix = new Movie();
+        matrix.setName("The Matrix");
+        matrix.setDirector(lana);
+
+        List<Consumer<ObjectMapper>> configurations = Arrays.asList(
+                mapper -> mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL),
+                mapper -> mapper.addMixIn(Director.class, DirectorMixIn.class),
+                mapper -> mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL),
+                mapper -> mapper.configure(MapperFeature.DEFAULT_VIEW_INCLUSION, false)
+        );
+        for (Consumer<ObjectMapper> configuration : configurations) {
+            ObjectMapper reflective = ObjectMapperProvider.configure(new ObjectMapper(), false);
+            ObjectMapper generated = ObjectMapperProvider.configure(new ObjectMapper(), false)
+                    .registerModule(new EntitySerializersModule(false, null));
+            configuration.accept(reflective);
+            configuration.accept(generated);
+
+            for (Object value : new Object[]{lana, matrix}) {
+                Assert.assertEquals(reflective.writeValueAsString(value), generated.writeValueAsString(value));
+                Assert.assertEquals(reflective.writerWithView(Object.class).writeValueAsString(value),
+                        generated.writerWithView(Object.class).writeValueAsString(value));
+            }
+        }
+    }
+
+    private abstract static class DirectorMixIn {
+        @JsonIgnore
+        private String lastName;
+    }
+
+    //every field set to a value of its type, associations only on the first level
+    private Object sample(Class<?> clazz, boolean withAssociations) throws Exception {
+        Object entity = clazz.getDeclaredConstructor().newInstance();
+        for (Field field : clazz.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            Object value = sampleValue(field, withAssociations);
+            if (value != null) {
+                field.set(entity, value);
+            }
+        }
+        return entity;
+    }
+
+    private Object sampleValue(Field field, boolean withAssociations) throws Exception {
+        Class<?> type = field.getType();
+        if (type == String.class) {
+            return " " + field.getName() + " ";
+        } else if (type == long.class || type == Long.class) {
+            return 7L;
+        } else if (type == int.class || type == Integer.class) {
+            return 7;
+        } else if (type == boolean.class || type == Boolean.class) {
+            return true;
+        } else if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        } else if (type == java.util.UUID.class) {
+            return java.util.UUID.fromString("7dc53df5-703e-49b3-8670-b1c468f47f1f");
+        } else if (type == Date.class) {
+            return new Date(0);
+        } else if (type.isAnnotationPresent(Entity.class)) {
+            return withAssociations ? sample(type, false) : null;
+        } else if (Collection.class.isAssignableFrom(type)) {
+            Class<?> elementType = (Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+            Collection<Object> values = List.class.isAssignableFrom(type) ? new ArrayList<>() : new HashSet<>();
+            if (!elementType.isAnnotationPresent(Entity.class)) {
+                values.add("value");
+            } else if (withAssociations) {
+                values.add(sample(elementType, false));
+            }
+            return values;
+        }
+        return null;
+    }
+
+    private Movie createMatrix() {
+        Director lana = new Director();
+        lana.setFirstName("Lana");
+        lana.setLastName("Wachowski");
+        lana.setBirthYear(1965);
+        directorRepository.save(lana);
+
+        Category sciFi = new Category();
+        sciFi.setName("Sci-Fi");
+        categoryRepository.save(sciFi);
+
+        Movie matrix = new Movie();
+        matrix.setName("The Matrix");
+        matrix.setYearReleased(1999);
+        matrix.setDirector(lana);
+        matrix.setCategory(sciFi);
+        matrix.getAgeRatings().add("PG-13");
+        movieRepository.save(matrix);
+
+        Actor keanu = new Actor();
+        keanu.setFirstName("Keanu");
+        keanu.setLastName("Reeves");
+        keanu.setMovies(Arrays.asList(matrix));
+        actorRepository.save(keanu);
+        matrix.getActors().add(keanu);
+        return matrix;
+    }
+}
@@ -0,0 +1,101 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles(profiles = "test")
+@WithMockUser
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class etagTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Director lana;
+
+    @Before
+    public void createDirectors() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        lana = new Director();
+        lana.setFirstName("Lana");
+        lana.setLastName("Wachowski");
+        lana = directorRepository.save(lana);
+    }
+
+    @Test
+    public void unchanged_lists_are_not_modified() throws Exception {
+        MvcResult first = mockMvc.perform(get("/directors").param("filter", "{firstName: 'Lana', lastName: 'Wachowski'}"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        Assert.assertTrue(etag.startsWith("W/\""));
+        long queries = statistics.getQueryExecutionCount();
+
+        MvcResult notModified = mockMvc.perform(get("/directors").param("filter", "{lastName: 'Wachowski', firstName: 'Lana'}")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn();
+        Assert.assertEquals(0, notModified.getResponse().getContentLength());
+        Assert.assertEquals(first.getResponse().getHeaders(HttpHeaders.VARY), notModified.getResponse().getHeaders(HttpHeaders.VARY));
+        Assert.assertEquals(queries, statistics.getQueryExecutionCount());
+
+        //other queries and representations have their own etags
+        mockMvc.perform(get("/directors").param("filter", "{firstName: 'Lilly'}").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/directors").param("filter", "{firstName: 'Lana', lastName: 'Wachowski'}")
+                .accept("application/x-jackson-smile").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void changes_give_a_new_etag() throws Exception {
+        String etag = mockMvc.perform(get("/directors"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        lana.setLastName("Wachowskis");
+        directorRepository.save(lana);
+
+        MvcResult changed = mockMvc.perform(get("/directors").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        Assert.assertTrue(changed.getResponse().getContentAsString().contains("Wachowskis"));
+        Assert.assertNotEquals(etag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+        mockMvc.perform(get("/directors").header(HttpHeaders.IF_NONE_MATCH, changed.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+}
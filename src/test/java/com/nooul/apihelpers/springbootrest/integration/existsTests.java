@@ -0,0 +1,110 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.helpers.entities.Actor;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Movie;
+import com.nooul.apihelpers.springbootrest.helpers.entities.UUIDEntity;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.ActorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.MovieRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.UUIDEntityRepository;
+import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles(profiles = "test")
+@WithMockUser
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class existsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private UUIDEntityRepository uuidEntityRepository;
+
+    @Autowired
+    private FilterService<Movie, Long> filterService;
+
+    @Before
+    public void createMovies() {
+        Movie matrix = movie("The Matrix", 1999);
+        Movie reloaded = movie("The Matrix Reloaded", 2003);
+        movie("Inception", 2010);
+
+        Actor keanu = new Actor();
+        keanu.setFirstName("Keanu");
+        keanu.setMovies(Arrays.asList(matrix, reloaded));
+        actorRepository.save(keanu);
+    }
+
+    @Test
+    public void matches_like_count_does() {
+        String[] filters = {
+                null,
+                "{name: 'Inception'}",
+                "{name: 'Solaris'}",
+                "{yearReleasedGt: 2005}",
+                "{yearReleasedGt: 2010}",
+                "{actors: {firstName: 'Keanu'}}",
+                "{actors: {firstName: 'Carrie-Anne'}}",
+                "{q: 'matrix'}",
+                "[{name: 'Solaris'}, {yearReleasedLt: 2000}]"
+        };
+        for (String filter : filters) {
+            long count = filterService.countBy(QueryParamExtractor.extract(filter, null, null), movieRepository);
+            Assert.assertEquals(filter, count > 0, filterService.existsBy(QueryParamExtractor.extract(filter, null, null), movieRepository));
+        }
+    }
+
+    @Test
+    public void head_answers_with_the_status_only() throws Exception {
+        mockMvc.perform(head("/movies/exists").param("filter", "{q: 'Incep'}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+        mockMvc.perform(head("/movies/exists").param("filter", "{name: 'Solaris'}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void head_selects_the_given_primary_key() throws Exception {
+        UUIDEntity entity = uuidEntityRepository.save(new UUIDEntity());
+
+        mockMvc.perform(head("/uuidentity/exists").param("filter", "{uuid: '" + entity.getUuid() + "'}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(head("/uuidentity/exists").param("filter", "{uuid: '" + UUID.randomUUID() + "'}"))
+                .andExpect(status().isNotFound());
+    }
+
+    private Movie movie(String name, int year) {
+        Movie movie = new Movie();
+        movie.setName(name);
+        movie.setYearReleased(year);
+        return movieRepository.save(movie);
+    }
+}
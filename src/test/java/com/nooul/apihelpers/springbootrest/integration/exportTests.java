@@ -0,0 +1,195 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.nooul.apihelpers.springbootrest.entities.ExportJob;
+import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import com.nooul.apihelpers.springbootrest.providers.ObjectMapperProvider;
+import com.nooul.apihelpers.springbootrest.services.ExportJobService;
+import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles(profiles = "test")
+@WithMockUser
+public class exportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private FilterService<Director, Long> filterService;
+
+    @Autowired
+    private ObjectMapperProvider objectMapperProvider;
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void scroll_applies_filter_sort_and_range() {
+        createDirectors();
+
+        List<String> names = new ArrayList<>();
+        long rows = filterService.scrollBy(QueryParamExtractor.extract("{birthYearGte: 1965}", "[0, 2]", "[\"birthYear\", \"DESC\"]"),
+                Director.class, "id", new ArrayList<>(), 1, director -> names.add(director.getFirstName()));
+
+        Assert.assertEquals(2, rows);
+        Assert.assertEquals("Lilly", names.get(0));
+        Assert.assertEquals("Lana", names.get(1));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void filtered_rows_are_streamed_as_csv() throws Exception {
+        createDirectors();
+
+        MvcResult started = mockMvc.perform(get("/directors/export").param("filter", "{q: 'Wachowski'}").param("sort", "[\"firstName\", \"ASC\"]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        Assert.assertEquals("id,firstName,lastName,birthYear\n" +
+                "1,Lana,Wachowski,1965\n" +
+                "2,Lilly,Wachowski,1967\n", result.getResponse().getContentAsString());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void keyset_pages_follow_the_sort_order() {
+        createDirectors();
+        Director sameYear = new Director();
+        sameYear.setFirstName("Andy");
+        sameYear.setLastName("Wachowski");
+        sameYear.setBirthYear(1967);
+        directorRepository.save(sameYear);
+
+        QueryParamWrapper wrapper = QueryParamExtractor.extract("{lastName: 'Wachowski'}", null, "[\"birthYear\", \"DESC\"]");
+        List<String> names = new ArrayList<>();
+        Director last = null;
+        List<Director> page;
+        do {
+            page = filterService.filterAfter(wrapper, Director.class, "id", new ArrayList<>(), last, 2);
+            for (Director director : page) {
+                names.add(director.getFirstName());
+                last = director;
+            }
+        } while (page.size() == 2);
+
+        Assert.assertEquals(Arrays.asList("Lilly", "Andy", "Lana"), names);
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void background_exports_are_spooled_and_downloaded() throws Exception {
+        createDirectors();
+
+        String csv = runExport("CSV");
+        Assert.assertEquals("id,firstName,lastName,birthYear\n" +
+                "2,Lilly,Wachowski,1967\n" +
+                "1,Lana,Wachowski,1965\n" +
+                "3,Steven,Spielberg,1946\n", csv);
+
+        String ndjson = runExport("NDJSON");
+        String[] lines = ndjson.split("\n");
+        Assert.assertEquals(3, lines.length);
+        Assert.assertTrue(ndjson.endsWith("\n"));
+        Assert.assertEquals("Lilly", objectMapperProvider.getObjectMapper().readTree(lines[0]).get("firstName").asText());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void cancelled_exports_do_not_stay_running() throws Exception {
+        createDirectors();
+
+        List<ExportJob> jobs = new ArrayList<>();
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 5; i++) {
+                ExportJob job = exportJobService.submit(filterService, directorRepository, Director.class,
+                        QueryParamExtractor.extract(null, null, null), ExportJob.Format.CSV);
+                exportJobService.cancel(job.getId());
+                jobs.add(job);
+            }
+            Thread.sleep(50);
+        }
+        Thread.sleep(200);
+        //a job may be done before its cancel comes
+        for (ExportJob job : jobs) {
+            Assert.assertTrue(job.getStatus().name(), job.getStatus() == ExportJob.Status.CANCELLED || job.getStatus() == ExportJob.Status.DONE);
+            Assert.assertEquals(job.getStatus() == ExportJob.Status.DONE, Files.exists(job.getFile()));
+        }
+    }
+
+    private String runExport(String format) throws Exception {
+        MvcResult submitted = mockMvc.perform(post("/directors/exports").with(csrf())
+                .param("sort", "[\"birthYear\", \"DESC\"]").param("format", format))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        String id = objectMapperProvider.getObjectMapper().readTree(submitted.getResponse().getContentAsString()).get("id").asText();
+
+        mockMvc.perform(get("/directors/exports/" + id + "/download")).andExpect(status().is(anyOf(is(200), is(409))));
+        JsonNode job = null;
+        for (int i = 0; i < 100; i++) {
+            job = objectMapperProvider.getObjectMapper().readTree(mockMvc.perform(get("/directors/exports/" + id))
+                    .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+            if (!job.get("status").asText().equals("QUEUED") && !job.get("status").asText().equals("RUNNING")) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        Assert.assertEquals("DONE", job.get("status").asText());
+        Assert.assertEquals(3, job.get("rowsWritten").asLong());
+        Assert.assertEquals(3, job.get("total").asLong());
+        Assert.assertEquals(1.0, job.get("progress").asDouble(), 0.0);
+
+        return mockMvc.perform(get("/directors/exports/" + id + "/download"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private void createDirectors() {
+        String[][] directors = {{"Lana", "Wachowski", "1965"}, {"Lilly", "Wachowski", "1967"}, {"Steven", "Spielberg", "1946"}};
+        for (String[] values : directors) {
+            Director director = new Director();
+            director.setFirstName(values[0]);
+            director.setLastName(values[1]);
+            director.setBirthYear(Integer.parseInt(values[2]));
+            directorRepository.save(director);
+        }
+    }
+}
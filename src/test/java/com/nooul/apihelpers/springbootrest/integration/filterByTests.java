@@ -2,6 +2,9 @@ package com.nooul.apihelpers.springbootrest.integration;
 
 import com.nooul.apihelpers.springbootrest.helpers.entities.*;
 import com.nooul.apihelpers.springbootrest.helpers.repositories.*;
+import com.nooul.apihelpers.springbootrest.repositories.BaseRepository;
+import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
 import com.nooul.apihelpers.springbootrest.utils.UrlUtils;
 import com.nooul.apihelpers.springbootrest.helpers.controllers.ActorController;
 import com.nooul.apihelpers.springbootrest.helpers.controllers.MovieController;
@@ -13,10 +16,12 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.Set;
 
@@ -46,6 +51,9 @@ public class filterByTests {
     @Autowired
     private MovieController movieController;
 
+    @Autowired
+    private FilterService<Movie, Long> filterService;
+
     @Autowired
     private ActorController actorController;
 
@@ -1241,4 +1249,16 @@ public class filterByTests {
         Iterable<Movie> allMovies2 = movieController.filterBy(null, null, null);
         Assert.assertEquals(3, IterableUtil.sizeOf(allMovies2));
     }
+
+    @Test(expected = InvalidDataAccessApiUsageException.class)
+    public void snake_case_keys_need_use_snake_case() {
+        movieController.filterBy("{director: {first_name:Lana}}", null, null);
+    }
+
+    @Test
+    public void repositories_without_a_resolvable_entity_class_work_without_snapshots() {
+        BaseRepository<Movie, Long> repo = (BaseRepository<Movie, Long>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{BaseRepository.class}, (proxy, method, args) -> method.getName().equals("count") ? 7L : null);
+        Assert.assertEquals(7, filterService.countBy(QueryParamExtractor.extract(null, null, null), repo));
+    }
 }
@@ -0,0 +1,80 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.helpers.controllers.MovieController;
+import com.nooul.apihelpers.springbootrest.helpers.entities.*;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.*;
+import com.nooul.apihelpers.springbootrest.specifications.FilterAttribute;
+import com.nooul.apihelpers.springbootrest.specifications.FilterDescriptor;
+import com.nooul.apihelpers.springbootrest.specifications.FilterDescriptors;
+import org.assertj.core.util.IterableUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring-boot-rest-api-helpers.use-snake-case=true")
+@ActiveProfiles(profiles = "test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class filterDescriptorTests {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private MovieController movieController;
+
+    @Test
+    public void descriptors_are_generated_for_entities() {
+        FilterDescriptor descriptor = FilterDescriptors.get(Movie.class);
+        Assert.assertNotNull(descriptor);
+        Assert.assertEquals("id", descriptor.getIdName());
+
+        FilterAttribute director = descriptor.getAttribute("director");
+        Assert.assertEquals(FilterAttribute.Kind.TO_ONE, director.getKind());
+        Assert.assertEquals(Director.class, director.getTargetType());
+        Assert.assertEquals("id", director.getTargetIdName());
+
+        Assert.assertNull(descriptor.getAttribute("year_released"));
+        FilterAttribute yearReleased = descriptor.getAttribute("year_released", true);
+        Assert.assertEquals("yearReleased", yearReleased.getName());
+        Assert.assertFalse(yearReleased.isString());
+
+        Assert.assertEquals(FilterAttribute.Kind.TO_MANY, descriptor.getAttribute("actors").getKind());
+        Assert.assertEquals(FilterAttribute.Kind.ELEMENT_COLLECTION, descriptor.getAttribute("ageRatings").getKind());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void nested_snake_case_keys_are_resolved_through_descriptors() {
+        Director lana = new Director();
+        lana.setFirstName("Lana");
+        lana.setLastName("Wachowski");
+        directorRepository.save(lana);
+
+        Director other = new Director();
+        other.setFirstName("other");
+        other.setLastName("other");
+        directorRepository.save(other);
+
+        Movie matrix = new Movie();
+        matrix.setName("The Matrix");
+        matrix.setDirector(lana);
+        movieRepository.save(matrix);
+
+        Movie it = new Movie();
+        it.setName("IT");
+        it.setDirector(other);
+        movieRepository.save(it);
+
+        Iterable<Movie> lanaMovies = movieController.filterBy("{director: {first_name:Lana}}", null, null);
+        Assert.assertEquals(1, IterableUtil.sizeOf(lanaMovies));
+    }
+}
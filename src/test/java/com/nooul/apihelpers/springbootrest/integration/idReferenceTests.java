@@ -0,0 +1,108 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nooul.apihelpers.springbootrest.helpers.entities.*;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.*;
+import com.nooul.apihelpers.springbootrest.providers.ObjectMapperProvider;
+import com.nooul.apihelpers.springbootrest.serializers.IdReferenceModule;
+import org.hibernate.Hibernate;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles(profiles = "test")
+public class idReferenceTests {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private UUIDEntityRepository uuidEntityRepository;
+
+    @Autowired
+    private UUIDRelationshipRepository uuidRelationshipRepository;
+
+    @Autowired
+    private ObjectMapperProvider objectMapperProvider;
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void annotated_association_is_written_as_wrapped_ids() throws Exception {
+        Movie matrix = new Movie();
+        matrix.setName("The Matrix");
+        movieRepository.save(matrix);
+
+        Movie constantine = new Movie();
+        constantine.setName("Constantine");
+        movieRepository.save(constantine);
+
+        Actor keanu = new Actor();
+        keanu.setFirstName("Keanu");
+        keanu.setMovies(Arrays.asList(matrix, constantine));
+        actorRepository.save(keanu);
+
+        JsonNode tree = objectMapperProvider.getObjectMapper().valueToTree(keanu);
+        Assert.assertEquals(2, tree.get("movies").size());
+        Assert.assertEquals(matrix.getId(), tree.get("movies").get(0).get("id").asLong());
+        Assert.assertEquals(constantine.getId(), tree.get("movies").get(1).get("id").asLong());
+    }
+
+    @Test
+    @Transactional
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void global_bare_ids_do_not_initialize_proxies() throws Exception {
+        Director lana = new Director();
+        lana.setFirstName("Lana");
+        directorRepository.save(lana);
+        em.flush();
+        em.clear();
+
+        Director proxy = em.getReference(Director.class, lana.getId());
+        Movie matrix = new Movie();
+        matrix.setName("The Matrix");
+        matrix.setDirector(proxy);
+
+        ObjectMapper mapper = ObjectMapperProvider.configure(new ObjectMapper(), false)
+                .registerModule(new IdReferenceModule(false));
+        JsonNode tree = mapper.valueToTree(matrix);
+        Assert.assertEquals(lana.getId(), tree.get("director").asLong());
+        Assert.assertFalse(Hibernate.isInitialized(proxy));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void uuid_ids_are_written_with_their_attribute_name() throws Exception {
+        UUIDEntity entity = new UUIDEntity();
+        uuidEntityRepository.save(entity);
+
+        UUIDRelationship relationship = new UUIDRelationship();
+        relationship.setUuidEntity(entity);
+        uuidRelationshipRepository.save(relationship);
+
+        ObjectMapper mapper = ObjectMapperProvider.configure(new ObjectMapper(), true)
+                .registerModule(new IdReferenceModule(true));
+        JsonNode tree = mapper.valueToTree(relationship);
+        Assert.assertEquals(entity.getUuid().toString(), tree.get("uuid_entity").get("uuid").asText());
+    }
+}
@@ -0,0 +1,199 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.entities.ImportBatch;
+import com.nooul.apihelpers.springbootrest.entities.ImportProgress;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import com.nooul.apihelpers.springbootrest.services.ImportService;
+import com.nooul.apihelpers.springbootrest.utils.CsvUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles(profiles = "test")
+public class importTests {
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void csv_is_imported_in_batches() throws Exception {
+        StringBuilder csv = new StringBuilder("firstName,lastName,birthYear\n");
+        for (int i = 0; i < 25; i++) {
+            csv.append("Lana").append(i).append(",Wachowski,").append(1965 + i).append("\n");
+        }
+
+        List<ImportProgress> reports = new ArrayList<>();
+        ImportProgress result = importService.importCsv(directorRepository, Director.class,
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), true, ',', 10, reports::add);
+
+        Assert.assertEquals(25, result.getRowsRead());
+        Assert.assertEquals(25, result.getRowsSaved());
+        Assert.assertEquals(0, result.getRowsSkipped());
+        Assert.assertEquals(3, result.getBatches());
+        Assert.assertEquals(3, reports.size());
+        Assert.assertEquals(10, reports.get(0).getRowsSaved());
+        Assert.assertEquals(20, reports.get(1).getRowsSaved());
+        Assert.assertEquals(25, directorRepository.count());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void json_array_is_imported_in_batches_and_failed_batches_are_reported() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 25; i++) {
+            //too long for the column so the second batch is rejected by the database
+            String firstName = i == 12 ? String.join("", Collections.nCopies(300, "a")) : "Lana" + i;
+            json.append(i == 0 ? "" : ",").append("{\"firstName\":\"").append(firstName).append("\",\"lastName\":\"Wachowski\",\"birthYear\":").append(1965 + i).append("}");
+        }
+        json.append("]");
+
+        List<ImportProgress> reports = new ArrayList<>();
+        ImportProgress result = importService.importJson(directorRepository, Director.class,
+                new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)), 10, reports::add);
+
+        Assert.assertEquals(25, result.getRowsRead());
+        Assert.assertEquals(15, result.getRowsSaved());
+        Assert.assertEquals(10, result.getRowsFailed());
+        Assert.assertEquals(3, result.getBatches());
+        Assert.assertEquals(3, reports.size());
+        Assert.assertEquals(1, result.getFailedBatches());
+        Assert.assertEquals(10, reports.get(0).getLastBatch().getRowsSaved());
+        ImportBatch failed = reports.get(1).getLastBatch();
+        Assert.assertEquals("item 11", failed.getFrom());
+        Assert.assertEquals("item 20", failed.getTo());
+        Assert.assertEquals(0, failed.getRowsSaved());
+        Assert.assertEquals(10, failed.getRowsFailed());
+        Assert.assertNotNull(failed.getError());
+        Assert.assertEquals(1, result.getErrors().size());
+        Assert.assertEquals(5, result.getLastBatch().getRowsSaved());
+        Assert.assertEquals(15, directorRepository.count());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    public void import_inside_a_transaction_does_not_affect_the_callers_transaction() {
+        String json = "[{\"firstName\":\"" + String.join("", Collections.nCopies(300, "a")) + "\",\"lastName\":\"Wachowski\",\"birthYear\":1965}," +
+                "{\"firstName\":\"Lilly\",\"lastName\":\"Wachowski\",\"birthYear\":1967}]";
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Director director = new Director();
+            director.setFirstName("Christopher");
+            director.setLastName("Nolan");
+            director = directorRepository.save(director);
+
+            ImportProgress result;
+            try {
+                result = importService.importJson(directorRepository, Director.class,
+                        new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 10, null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            Assert.assertEquals(2, result.getRowsFailed());
+            Assert.assertFalse(status.isRollbackOnly());
+            Assert.assertTrue(entityManager.contains(director));
+        });
+
+        Assert.assertEquals(1, directorRepository.count());
+        Assert.assertEquals("Christopher", directorRepository.findAll().get(0).getFirstName());
+    }
+
+    @Test
+    public void parallel_csv_read_matches_sequential_read() throws Exception {
+        StringBuilder csv = new StringBuilder("lastName,birthYear,firstName\n");
+        //larger than the parser buffers so records span buffer boundaries
+        for (int i = 0; i < 2000; i++) {
+            csv.append("\"Wachowski, ").append(i).append("\nsecond \"\"line\"\"\",").append(1900 + i).append(",Lana").append(i).append("\n");
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        Path file = Files.createTempFile("directors", ".csv");
+        try {
+            Files.write(file, bytes);
+            List<Director> expected = CsvUtils.read(Director.class, new ByteArrayInputStream(bytes), true, ',');
+
+            List<Director> actual = new ArrayList<>();
+            List<Integer> batchSizes = new ArrayList<>();
+            long rows = CsvUtils.read(Director.class, file, true, ',', new ForkJoinPool(4), 4096, 30, true, batch -> {
+                batchSizes.add(batch.size());
+                actual.addAll(batch);
+            });
+
+            Assert.assertEquals(2000, rows);
+            Assert.assertEquals(2000, expected.size());
+            Assert.assertEquals(67, batchSizes.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertEquals(expected.get(i).getFirstName(), actual.get(i).getFirstName());
+                Assert.assertEquals(expected.get(i).getLastName(), actual.get(i).getLastName());
+                Assert.assertEquals(expected.get(i).getBirthYear(), actual.get(i).getBirthYear());
+            }
+            Assert.assertEquals("Wachowski, 7\nsecond \"line\"", actual.get(7).getLastName());
+
+            List<Director> unordered = Collections.synchronizedList(new ArrayList<>());
+            CsvUtils.read(Director.class, file, true, ',', new ForkJoinPool(4), 4096, 30, false, unordered::addAll);
+            Assert.assertEquals(2000, unordered.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void quotes_inside_unquoted_values_do_not_move_the_chunk_boundaries() throws Exception {
+        StringBuilder csv = new StringBuilder("lastName,birthYear,firstName\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append("O\"Brien ").append(i).append(",").append(1900 + i).append(",\"Lana\nsecond line ").append(i).append("\"\n");
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        Path file = Files.createTempFile("directors", ".csv");
+        try {
+            Files.write(file, bytes);
+            List<Director> expected = CsvUtils.read(Director.class, new ByteArrayInputStream(bytes), true, ',');
+            List<Director> actual = new ArrayList<>();
+            CsvUtils.read(Director.class, file, true, ',', new ForkJoinPool(4), 4096, 30, true, actual::addAll);
+
+            Assert.assertEquals(1000, expected.size());
+            Assert.assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertEquals(expected.get(i).getLastName(), actual.get(i).getLastName());
+                Assert.assertEquals(expected.get(i).getFirstName(), actual.get(i).getFirstName());
+            }
+            Assert.assertEquals("O\"Brien 7", actual.get(7).getLastName());
+            Assert.assertEquals("Lana\nsecond line 7", actual.get(7).getFirstName());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Actor;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Category;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Movie;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.ActorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.CategoryRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.MovieRepository;
+import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.specifications.InMemorySpecifications;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles(profiles = "test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class inMemoryTests {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private FilterService<Movie, Long> filterService;
+
+    @Autowired
+    private InMemorySpecifications<Movie> inMemorySpecifications;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Director lana;
+    private Actor keanu;
+    private Actor carrie;
+    private Actor leo;
+    private Movie matrix;
+    private Movie inception;
+
+    @Before
+    public void createMovies() {
+        lana = director("Lana");
+        Director christopher = director("Christopher");
+        Category fiction = new Category();
+        fiction.setName("fiction");
+        fiction = categoryRepository.save(fiction);
+
+        matrix = movie("The Matrix", 1999, lana, fiction, "PG-13");
+        Movie constantine = movie("Constantine", 2005, null, null, "R");
+        inception = movie("Inception", 2010, christopher, fiction, "PG-13", "R");
+        movie("IT", 2017, null, null);
+
+        keanu = actor("Keanu", matrix, constantine);
+        carrie = actor("Carrie-Anne", matrix);
+        leo = actor("Leonardo", inception);
+    }
+
+    @Test
+    public void filters_match_the_database() {
+        String[] filters = {
+                "{name: 'The Matrix'}",
+                "{nameNot: 'The Matrix'}",
+                "{name: '%on%'}",
+                "{yearReleasedGte: 2005}",
+                "{yearReleasedLt: 2005, nameNot: 'IT'}",
+                "{nameGt: 'inc'}",
+                "{director: null}",
+                "{directorNot: null}",
+                "{director: " + lana.getId() + "}",
+                "{director: {firstName: 'Lana'}}",
+                "{director: {id: " + lana.getId() + "}}",
+                "{actors: " + keanu.getId() + "}",
+                "{actors: [" + keanu.getId() + ", " + leo.getId() + "]}",
+                "{actors: {firstName: '%on%'}}",
+                "{actors: null}",
+                "{ageRatings: 'R'}",
+                "{ageRatings: ['PG-13', 'R']}",
+                "{ageRatingsAnd: ['PG-13', 'R']}",
+                "{actorsAnd: [" + keanu.getId() + ", " + carrie.getId() + "]}",
+                "{q: 'on'}",
+                "{id: [" + matrix.getId() + ", " + inception.getId() + "]}",
+                "{category: {name: 'fiction'}, yearReleasedGt: 2000}",
+                "[{name: 'IT'}, {yearReleasedGt: 2006}]",
+                "[{director: " + lana.getId() + "}, {actors: " + leo.getId() + "}]"
+        };
+        for (String filter : filters) {
+            assertSameResult(filter, "['name', 'ASC']", null);
+        }
+    }
+
+    @Test
+    public void sort_and_range_match_the_database() {
+        assertSameResult(null, "['yearReleased', 'DESC']", null);
+        assertSameResult(null, "['director.firstName', 'ASC', 'id', 'DESC']", null);
+        //nulls come first in both directions
+        assertSameResult(null, "['director.firstName', 'DESC', 'id', 'ASC']", null);
+        assertSameResult(null, "['category', 'DESC', 'id', 'ASC']", null);
+        assertSameResult("{yearReleasedGt: 1990}", "['yearReleased', 'ASC']", "[1, 2]");
+        assertSameResult(null, null, "[0, 3]");
+    }
+
+    @Test
+    public void conjunctions_need_every_value() {
+        List<String> names = transactionTemplate.execute(status -> inMemorySpecifications.filterBy(movieRepository.findAll(), Movie.class,
+                QueryParamExtractor.extract("{ageRatingsAnd: ['PG-13', 'R']}", null, null))
+                .getContent().stream().map(Movie::getName).collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList("Inception"), names);
+    }
+
+    private void assertSameResult(String filter, String sort, String range) {
+        QueryParamWrapper wrapper = QueryParamExtractor.extract(filter, range, sort);
+        transactionTemplate.execute(status -> {
+            Page<Movie> expected = filterService.filterBy(wrapper, movieRepository);
+            Page<Movie> actual = inMemorySpecifications.filterBy(movieRepository.findAll(), Movie.class, wrapper);
+            String message = filter + " " + sort + " " + range;
+            Assert.assertEquals(message, ids(expected), ids(actual));
+            Assert.assertEquals(message, expected.getTotalElements(), actual.getTotalElements());
+            return null;
+        });
+        //the compiled predicate alone gives the same rows
+        transactionTemplate.execute(status -> {
+            List<Long> expected = ids(filterService.filterBy(QueryParamExtractor.extract(filter, null, null), movieRepository));
+            List<Long> actual = ids(movieRepository.findAll().stream().filter(inMemorySpecifications.predicate(Movie.class, wrapper))
+                    .collect(Collectors.toList()));
+            Assert.assertEquals(filter, new HashSet<>(expected), new HashSet<>(actual));
+            return null;
+        });
+    }
+
+    private List<Long> ids(Iterable<Movie> movies) {
+        List<Long> ids = new ArrayList<>();
+        movies.forEach(movie -> ids.add(movie.getId()));
+        return ids;
+    }
+
+    private Director director(String firstName) {
+        Director director = new Director();
+        director.setFirstName(firstName);
+        return directorRepository.save(director);
+    }
+
+    private Movie movie(String name, int year, Director director, Category category, String... ageRatings) {
+        Movie movie = new Movie();
+        movie.setName(name);
+        movie.setYearReleased(year);
+        movie.setDirector(director);
+        movie.setCategory(category);
+        movie.setAgeRatings(new HashSet<>(Arrays.asList(ageRatings)));
+        return movieRepository.save(movie);
+    }
+
+    private Actor actor(String firstName, Movie... movies) {
+        Actor actor = new Actor();
+        actor.setFirstName(firstName);
+        actor.setMovies(Arrays.asList(movies));
+        return actorRepository.save(actor);
+    }
+}
@@ -0,0 +1,105 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.exceptions.ConflictException;
+import com.nooul.apihelpers.springbootrest.exceptions.NotFoundException;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Category;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.CategoryRepository;
+import com.nooul.apihelpers.springbootrest.services.PatchService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring-boot-rest-api-helpers.use-snake-case=true")
+@AutoConfigureMockMvc
+@ActiveProfiles(profiles = "test")
+@WithMockUser
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class patchTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PatchService<Category, Long> patchService;
+
+    private Category fiction;
+    private Category horror;
+
+    @Before
+    public void createCategories() {
+        fiction = new Category();
+        fiction.setName("fiction");
+        fiction = categoryRepository.save(fiction);
+        horror = new Category();
+        horror.setName("horror");
+        horror = categoryRepository.save(horror);
+    }
+
+    @Test
+    public void only_the_supplied_attributes_are_updated() throws Exception {
+        mockMvc.perform(patch("/categories/" + horror.getId()).with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"parent_category\": " + fiction.getId() + "}"))
+                .andExpect(status().isOk());
+
+        Category patched = categoryRepository.findById(horror.getId()).get();
+        Assert.assertEquals("horror", patched.getName());
+        Assert.assertEquals(fiction.getId(), patched.getParentCategory().getId());
+        Assert.assertEquals(horror.getVersion() + 1, patched.getVersion());
+
+        patchService.patchById(horror.getId(), Collections.singletonMap("parent_category", null), categoryRepository);
+        Assert.assertNull(categoryRepository.findById(horror.getId()).get().getParentCategory());
+    }
+
+    @Test
+    public void stale_versions_are_rejected() throws Exception {
+        mockMvc.perform(patch("/categories/" + horror.getId()).with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"thriller\", \"version\": " + (horror.getVersion() + 1) + "}"))
+                .andExpect(status().isConflict());
+        Assert.assertEquals("horror", categoryRepository.findById(horror.getId()).get().getName());
+
+        patchService.patchById(horror.getId(), "{\"name\": \"thriller\"}", categoryRepository, horror.getVersion());
+        Assert.assertEquals("thriller", categoryRepository.findById(horror.getId()).get().getName());
+        try {
+            patchService.patchById(horror.getId(), "{\"name\": \"slasher\"}", categoryRepository, horror.getVersion());
+            Assert.fail();
+        } catch (ConflictException e) {
+            Assert.assertEquals("thriller", categoryRepository.findById(horror.getId()).get().getName());
+        }
+    }
+
+    @Test
+    public void missing_rows_are_not_found() throws Exception {
+        mockMvc.perform(patch("/categories/" + (horror.getId() + 100)).with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"thriller\"}"))
+                .andExpect(status().isNotFound());
+        try {
+            patchService.patchById(horror.getId() + 100, "{\"name\": \"thriller\"}", categoryRepository, 0);
+            Assert.fail();
+        } catch (NotFoundException e) {
+            //expected
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.helpers.entities.Actor;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Movie;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.ActorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.MovieRepository;
+import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring-boot-rest-api-helpers.query-cache-size=100",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@ActiveProfiles(profiles = "test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class queryCacheTests {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private FilterService<Movie, Long> filterService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Director lana;
+    private Movie matrix;
+
+    @Before
+    public void createMovies() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        lana = new Director();
+        lana.setFirstName("Lana");
+        lana.setLastName("Wachowski");
+        lana = directorRepository.save(lana);
+
+        matrix = createMovie("The Matrix", 1999, lana);
+        createMovie("Cloud Atlas", 2012, lana);
+        createMovie("Jaws", 1975, null);
+    }
+
+    @Test
+    public void repeated_queries_load_the_cached_ids() {
+        Assert.assertEquals(2, moviesByLana().getTotalElements());
+        long queries = statistics.getQueryExecutionCount();
+
+        Page<Movie> cached = filterService.filterBy(QueryParamExtractor.extract("{director: {firstName: 'Lana'}, yearReleasedGte: 1990}", "[0, 10]", "['name', 'ASC']"), movieRepository);
+        Assert.assertEquals(queries, statistics.getQueryExecutionCount());
+        Assert.assertEquals(2, cached.getTotalElements());
+        Assert.assertEquals("Cloud Atlas", cached.getContent().get(0).getName());
+        Assert.assertEquals("The Matrix", cached.getContent().get(1).getName());
+        Assert.assertEquals("Lana", cached.getContent().get(1).getDirector().getFirstName());
+
+        //actors are not part of the query
+        Actor keanu = new Actor();
+        keanu.setFirstName("Keanu");
+        actorRepository.save(keanu);
+        moviesByLana();
+        Assert.assertEquals(queries, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    public void changes_to_any_touched_entity_invalidate_the_query() {
+        moviesByLana();
+        long queries = statistics.getQueryExecutionCount();
+
+        lana.setFirstName("Lilly");
+        directorRepository.save(lana);
+        Assert.assertEquals(0, moviesByLana().getTotalElements());
+        Assert.assertTrue(statistics.getQueryExecutionCount() > queries);
+
+        lana.setFirstName("Lana");
+        directorRepository.save(lana);
+        Assert.assertEquals(2, moviesByLana().getTotalElements());
+        createMovie("Bound", 1996, lana);
+        Assert.assertEquals(3, moviesByLana().getTotalElements());
+
+        filterService.updateBy(QueryParamExtractor.extract("{id: " + matrix.getId() + "}", null, null), Collections.singletonMap("yearReleased", 1980), movieRepository);
+        Assert.assertEquals(2, moviesByLana().getTotalElements());
+
+        movieRepository.deleteById(matrix.getId());
+        queries = statistics.getQueryExecutionCount();
+        Page<Movie> all = filterService.filterBy(QueryParamExtractor.extract(null, null, null), movieRepository);
+        Assert.assertEquals(3, all.getTotalElements());
+        Assert.assertTrue(statistics.getQueryExecutionCount() > queries);
+    }
+
+    private Page<Movie> moviesByLana() {
+        return filterService.filterBy(QueryParamExtractor.extract("{yearReleasedGte: 1990, director: {firstName: 'Lana'}}", "[0, 10]", "['name', 'ASC']"), movieRepository);
+    }
+
+    private Movie createMovie(String name, int yearReleased, Director director) {
+        Movie movie = new Movie();
+        movie.setName(name);
+        movie.setYearReleased(yearReleased);
+        movie.setDirector(director);
+        return movieRepository.save(movie);
+    }
+}
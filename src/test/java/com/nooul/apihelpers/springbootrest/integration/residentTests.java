@@ -0,0 +1,162 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.helpers.entities.Actor;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Category;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Movie;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.ActorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.MovieRepository;
+import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.services.ResidentSnapshots;
+import com.nooul.apihelpers.springbootrest.utils.JSON;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring-boot-rest-api-helpers.resident-entities=Director"
+})
+@ActiveProfiles(profiles = "test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class residentTests {
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private FilterService<Director, Long> filterService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ResidentSnapshots residentSnapshots;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private FilterService<Actor, Long> actorFilterService;
+
+    private Statistics statistics;
+
+    @Before
+    public void createDirectors() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        save("Lana", "Wachowski", 1965);
+        save("Lilly", "Wachowski", 1967);
+        save("Christopher", "Nolan", 1970);
+    }
+
+    @Test
+    public void lists_and_counts_are_served_from_memory() {
+        Assert.assertEquals(3, filterService.filterBy(QueryParamExtractor.extract(null, null, null), directorRepository).getTotalElements());
+        long queries = statistics.getQueryExecutionCount();
+
+        Page<Director> page = filterService.filterBy(QueryParamExtractor.extract("{lastName: 'Wachowski'}", "[0, 1]", "['birthYear', 'DESC']"), directorRepository);
+        Assert.assertEquals(Arrays.asList("Lilly"), firstNames(page.getContent()));
+        Assert.assertEquals(2, page.getTotalElements());
+        Assert.assertEquals(Arrays.asList("Christopher", "Lana"), firstNames(filterService.filterBy(
+                QueryParamExtractor.extract("{q: 'an'}", null, "['firstName', 'ASC']"), directorRepository).getContent()));
+        Assert.assertEquals(1, filterService.countBy(QueryParamExtractor.extract("{birthYearGt: 1966, lastName: 'Wachowski'}", null, null), directorRepository));
+        Assert.assertEquals(queries, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    public void changes_replace_the_snapshot() {
+        List<Director> before = filterService.filterBy(QueryParamExtractor.extract(null, null, null), directorRepository).getContent();
+        save("Greta", "Gerwig", 1983);
+
+        long queries = statistics.getQueryExecutionCount();
+        List<Director> after = filterService.filterBy(QueryParamExtractor.extract(null, null, "['firstName', 'ASC']"), directorRepository).getContent();
+        Assert.assertEquals(Arrays.asList("Christopher", "Greta", "Lana", "Lilly"), firstNames(after));
+        Assert.assertEquals(queries + 1, statistics.getQueryExecutionCount());
+        //the previous snapshot is left as it was
+        Assert.assertEquals(3, before.size());
+
+        filterService.countBy(QueryParamExtractor.extract("{lastName: 'Gerwig'}", null, null), directorRepository);
+        Assert.assertEquals(queries + 1, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    public void associations_are_loaded_for_detached_rows() {
+        residentSnapshots.register(Actor.class);
+        Movie movie = new Movie();
+        movie.setName("The Matrix");
+        movie = movieRepository.save(movie);
+        Actor actor = new Actor();
+        actor.setFirstName("Keanu");
+        actor.getMovies().add(movie);
+        actorRepository.save(actor);
+
+        List<Actor> actors = actorFilterService.filterBy(QueryParamExtractor.extract(null, null, null), actorRepository).getContent();
+        Assert.assertEquals(movie.getId(), actors.get(0).getMovies().get(0).getId());
+        Assert.assertTrue(JSON.toJsonString(actors).contains("\"movies\":[{\"id\":" + movie.getId() + "}]"));
+    }
+
+    //Actor.movies is an id reference, so the age ratings of the movies are not loaded in the snapshot
+    @Test
+    public void filters_past_the_loaded_associations_query_the_table() {
+        Movie matrix = new Movie();
+        matrix.setName("The Matrix");
+        matrix.getAgeRatings().add("R");
+        matrix = movieRepository.save(matrix);
+        Actor keanu = new Actor();
+        keanu.setFirstName("Keanu");
+        keanu.getMovies().add(matrix);
+        actorRepository.save(keanu);
+        Actor tom = new Actor();
+        tom.setFirstName("Tom");
+        actorRepository.save(tom);
+        String filter = "{movies: {ageRatings: 'R'}}";
+        List<Long> fromTable = actorIds(actorFilterService.filterBy(QueryParamExtractor.extract(filter, null, null), actorRepository).getContent());
+        long countFromTable = actorFilterService.countBy(QueryParamExtractor.extract(filter, null, null), actorRepository);
+
+        residentSnapshots.register(Actor.class);
+        Assert.assertEquals(fromTable, actorIds(actorFilterService.filterBy(QueryParamExtractor.extract(filter, null, null), actorRepository).getContent()));
+        Assert.assertEquals(countFromTable, actorFilterService.countBy(QueryParamExtractor.extract(filter, null, null), actorRepository));
+    }
+
+    //Category.movies is serialized in full, so the movies' own associations would be lazy in the snapshot
+    @Test(expected = IllegalArgumentException.class)
+    public void associations_past_the_depth_must_be_id_references() {
+        residentSnapshots.register(Category.class);
+    }
+
+    private void save(String firstName, String lastName, int birthYear) {
+        Director director = new Director();
+        director.setFirstName(firstName);
+        director.setLastName(lastName);
+        director.setBirthYear(birthYear);
+        directorRepository.save(director);
+    }
+
+    private List<Long> actorIds(List<Actor> actors) {
+        return actors.stream().map(Actor::getId).collect(Collectors.toList());
+    }
+
+    private List<String> firstNames(List<Director> directors) {
+        return directors.stream().map(Director::getFirstName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,198 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Movie;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.MovieRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.StreamUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring-boot-rest-api-helpers.response-cache-size=100",
+        "spring-boot-rest-api-helpers.response-cache-gzip=true",
+        "spring-boot-rest-api-helpers.response-cache-max-entry-bytes=4096",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureMockMvc
+@ActiveProfiles(profiles = "test")
+@WithMockUser
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class responseCacheTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Director lana;
+
+    @Before
+    public void createMovies() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        lana = new Director();
+        lana.setFirstName("Lana");
+        lana.setLastName("Wachowski");
+        lana = directorRepository.save(lana);
+        for (String name : new String[]{"The Matrix", "Cloud Atlas", "Bound"}) {
+            Movie movie = new Movie();
+            movie.setName(name);
+            movie.setDirector(lana);
+            movieRepository.save(movie);
+        }
+    }
+
+    @Test
+    public void repeated_requests_are_answered_from_the_cached_bytes() throws Exception {
+        MvcResult first = mockMvc.perform(get("/movies").param("filter", "{name: 'Bound'}").param("sort", "['name','ASC']"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String body = first.getResponse().getContentAsString();
+        Assert.assertTrue(body.contains("Bound"));
+        long queries = statistics.getQueryExecutionCount();
+
+        MvcResult second = mockMvc.perform(get("/movies").param("sort", "['name','ASC']").param("filter", "{name: 'Bound'}"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+        Assert.assertEquals(body, second.getResponse().getContentAsString());
+        Assert.assertEquals(first.getResponse().getContentType(), second.getResponse().getContentType());
+
+        MvcResult gzipped = mockMvc.perform(get("/movies").param("filter", "{name: 'Bound'}").param("sort", "['name','ASC']").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        byte[] unzipped = StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray())));
+        Assert.assertArrayEquals(first.getResponse().getContentAsByteArray(), unzipped);
+        Assert.assertTrue(gzipped.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+
+        Assert.assertEquals(queries, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    public void cached_responses_keep_their_headers_but_not_cookies() throws Exception {
+        MvcResult first = mockMvc.perform(get("/directors/localized")).andExpect(status().isOk()).andReturn();
+        long queries = statistics.getQueryExecutionCount();
+        MvcResult second = mockMvc.perform(get("/directors/localized"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.SET_COOKIE))
+                .andReturn();
+        Assert.assertEquals(queries, statistics.getQueryExecutionCount());
+        for (String header : first.getResponse().getHeaderNames()) {
+            if (!header.equals(HttpHeaders.SET_COOKIE)) {
+                Assert.assertEquals(header, first.getResponse().getHeaders(header), second.getResponse().getHeaders(header));
+            }
+        }
+        Assert.assertEquals("en", second.getResponse().getHeader(HttpHeaders.CONTENT_LANGUAGE));
+    }
+
+    @Test
+    public void responses_past_the_entry_limit_are_not_cached() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            Movie movie = new Movie();
+            movie.setName("Sequel " + i);
+            movieRepository.save(movie);
+        }
+        mockMvc.perform(get("/movies")).andExpect(status().isOk());
+        long queries = statistics.getQueryExecutionCount();
+        mockMvc.perform(get("/movies")).andExpect(status().isOk());
+        Assert.assertTrue(statistics.getQueryExecutionCount() > queries);
+    }
+
+    @Test
+    public void changes_to_reachable_entities_are_served_fresh() throws Exception {
+        mockMvc.perform(get("/movies")).andExpect(status().isOk());
+        long queries = statistics.getQueryExecutionCount();
+
+        lana.setLastName("Wachowskis");
+        directorRepository.save(lana);
+        String body = mockMvc.perform(get("/movies"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Assert.assertTrue(statistics.getQueryExecutionCount() > queries);
+        Assert.assertTrue(body.contains("Wachowskis"));
+
+        Movie speedRacer = new Movie();
+        speedRacer.setName("Speed Racer");
+        movieRepository.save(speedRacer);
+        body = mockMvc.perform(get("/movies"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Assert.assertTrue(body.contains("Speed Racer"));
+    }
+
+    @Test
+    public void cached_responses_keep_answering_conditional_requests() throws Exception {
+        String etag = mockMvc.perform(get("/directors"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        long queries = statistics.getQueryExecutionCount();
+
+        mockMvc.perform(get("/directors"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get("/directors").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        Assert.assertEquals(queries, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    public void streamed_responses_pass_through() throws Exception {
+        MvcResult live = mockMvc.perform(get("/directors/live").param("filter", "{lastName: 'Nolan'}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Director christopher = new Director();
+        christopher.setFirstName("Christopher");
+        christopher.setLastName("Nolan");
+        directorRepository.save(christopher);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!live.getResponse().getContentAsString().contains("event:insert") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assert.assertTrue(live.getResponse().getContentAsString().contains("\"lastName\":\"Nolan\""));
+
+        for (int i = 0; i < 2; i++) {
+            lana.setBirthYear(1965 + i);
+            directorRepository.save(lana);
+            MvcResult started = mockMvc.perform(get("/directors/export").param("filter", "{lastName: 'Wachowski'}"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String csv = mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            Assert.assertTrue(csv.contains("Lana,Wachowski," + (1965 + i)));
+        }
+    }
+}
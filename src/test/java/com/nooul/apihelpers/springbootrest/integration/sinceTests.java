@@ -0,0 +1,142 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nooul.apihelpers.springbootrest.entities.ChangeSet;
+import com.nooul.apihelpers.springbootrest.entities.QueryParamWrapper;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Category;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.CategoryRepository;
+import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring-boot-rest-api-helpers.since-overlap-millis=0")
+@AutoConfigureMockMvc
+@ActiveProfiles(profiles = "test")
+@WithMockUser
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class sinceTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private FilterService<Category, Long> filterService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Category fiction;
+    private Category horror;
+    private Category drama;
+
+    @Before
+    public void createCategories() throws InterruptedException {
+        fiction = save("fiction");
+        horror = save("horror");
+        drama = save("drama");
+        //rows saved in the same millisecond as the first cursor would come again
+        Thread.sleep(5);
+    }
+
+    @Test
+    public void only_changes_since_the_cursor_are_returned() throws Exception {
+        JsonNode first = changes(null);
+        Assert.assertTrue(first.get("reset").asBoolean());
+        Assert.assertEquals(3, first.get("rows").size());
+        String cursor = first.get("cursor").asText();
+        Thread.sleep(5);
+
+        mockMvc.perform(patch("/categories/" + horror.getId()).with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"thriller\"}"))
+                .andExpect(status().isOk());
+        Category comedy = save("comedy");
+        categoryRepository.delete(drama);
+
+        JsonNode changes = changes(cursor);
+        Assert.assertFalse(changes.get("reset").asBoolean());
+        Assert.assertEquals(Arrays.asList("comedy", "thriller"), names(changes));
+        Assert.assertEquals(1, changes.get("deleted").size());
+        Assert.assertEquals(drama.getId(), changes.get("deleted").get(0).asLong());
+
+        Thread.sleep(5);
+        JsonNode none = changes(changes.get("cursor").asText());
+        Assert.assertFalse(none.get("reset").asBoolean());
+        Assert.assertEquals(0, none.get("rows").size());
+        Assert.assertEquals(0, none.get("deleted").size());
+        Assert.assertNotNull(comedy);
+    }
+
+    @Test
+    public void filters_apply_and_bulk_deletes_reset() throws Exception {
+        QueryParamWrapper wrapper = QueryParamExtractor.extract("{name: 'fiction'}", null, null);
+        ChangeSet<Category> first = filterService.changesSince(wrapper, categoryRepository, null);
+        String cursor = first.getCursor();
+        Thread.sleep(5);
+
+        filterService.updateBy(QueryParamExtractor.extract("{}", null, null), Collections.singletonMap("name", "fiction"), categoryRepository);
+        ChangeSet<Category> updated = filterService.changesSince(wrapper, categoryRepository, cursor);
+        Assert.assertFalse(updated.isReset());
+        Assert.assertEquals(3, updated.getRows().size());
+        Thread.sleep(5);
+
+        filterService.deleteBy(QueryParamExtractor.extract("{id: " + fiction.getId() + "}", null, null), categoryRepository);
+        ChangeSet<Category> afterBulkDelete = filterService.changesSince(wrapper, categoryRepository, updated.getCursor());
+        Assert.assertTrue(afterBulkDelete.isReset());
+        Assert.assertEquals(2, afterBulkDelete.getRows().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalid_cursors_are_rejected() {
+        filterService.changesSince(QueryParamExtractor.extract(null, null, null), categoryRepository, "yesterday");
+    }
+
+    private Category save(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return categoryRepository.save(category);
+    }
+
+    private JsonNode changes(String since) throws Exception {
+        String body = mockMvc.perform(since == null ? get("/categories/changes").param("sort", "['name', 'ASC']")
+                : get("/categories/changes").param("sort", "['name', 'ASC']").param("since", since))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private List<String> names(JsonNode changes) {
+        List<String> names = new ArrayList<>();
+        for (JsonNode row : changes.get("rows")) {
+            names.add(row.get("name").asText());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,129 @@
+package com.nooul.apihelpers.springbootrest.integration;
+
+import com.nooul.apihelpers.springbootrest.entities.EntityChangeEvent;
+import com.nooul.apihelpers.springbootrest.helpers.entities.Director;
+import com.nooul.apihelpers.springbootrest.helpers.repositories.DirectorRepository;
+import com.nooul.apihelpers.springbootrest.services.EntityChangeTracker;
+import com.nooul.apihelpers.springbootrest.services.FilterService;
+import com.nooul.apihelpers.springbootrest.utils.QueryParamExtractor;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring-boot-rest-api-helpers.subscription-max-subscribers=2")
+@AutoConfigureMockMvc
+@ActiveProfiles(profiles = "test")
+@WithMockUser
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class subscriptionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private FilterService<Director, Long> filterService;
+
+    @Autowired
+    private EntityChangeTracker tracker;
+
+    @Test
+    public void matching_changes_are_pushed() throws Exception {
+        MvcResult result = mockMvc.perform(get("/directors/live").param("filter", "{lastName: 'Wachowski', birthYearGte: 1960}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        Director lana = save("Lana", "Wachowski", 1965);
+        save("Christopher", "Nolan", 1970);
+        save("Lilly", "Wachowski", 1950);
+        lana.setFirstName("Lana S.");
+        lana = directorRepository.save(lana);
+        lana.setLastName("Wachowskis");
+        directorRepository.save(lana);
+        filterService.deleteBy(QueryParamExtractor.extract("{firstName: 'Christopher'}", null, null), directorRepository);
+
+        String events = await(result, "event:reset");
+        Assert.assertEquals(4, count(events, "event:"));
+        Assert.assertTrue(events.indexOf("event:insert") < events.indexOf("event:update"));
+        Assert.assertTrue(events.indexOf("event:update") < events.indexOf("event:delete"));
+        Assert.assertTrue(events.contains("\"firstName\":\"Lana S.\""));
+        Assert.assertTrue(events.contains("event:delete\ndata:" + lana.getId()));
+        Assert.assertFalse(events.contains("Nolan"));
+        Assert.assertFalse(events.contains("Lilly"));
+    }
+
+    @Test
+    public void subscribers_are_limited_per_node() throws Exception {
+        mockMvc.perform(get("/directors/live")).andExpect(request().asyncStarted());
+        mockMvc.perform(get("/directors/live").param("filter", "{q: 'Nolan'}")).andExpect(request().asyncStarted());
+        mockMvc.perform(get("/directors/live")).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    public void previous_state_is_copied_only_when_a_listener_needs_it() throws Exception {
+        List<Object> previous = new ArrayList<>();
+        tracker.addListener(new EntityChangeTracker.Listener() {
+            @Override
+            public void onChange(Class<?> entityClass, EntityChangeEvent.Type type, Object entity) {
+            }
+
+            @Override
+            public void onChange(Class<?> entityClass, EntityChangeEvent.Type type, Object entity, Object previousEntity) {
+                if (type == EntityChangeEvent.Type.UPDATE) {
+                    previous.add(previousEntity);
+                }
+            }
+        });
+        Director lana = save("Lana", "Wachowski", 1965);
+        lana.setFirstName("Lana S.");
+        lana = directorRepository.save(lana);
+        Assert.assertNull(previous.get(0));
+
+        mockMvc.perform(get("/directors/live")).andExpect(request().asyncStarted());
+        lana.setFirstName("Lana");
+        directorRepository.save(lana);
+        Assert.assertEquals("Lana S.", ((Director) previous.get(1)).getFirstName());
+    }
+
+    private Director save(String firstName, String lastName, int birthYear) {
+        Director director = new Director();
+        director.setFirstName(firstName);
+        director.setLastName(lastName);
+        director.setBirthYear(birthYear);
+        return directorRepository.save(director);
+    }
+
+    //events are sent from the subscription threads
+    private String await(MvcResult result, String last) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String events = result.getResponse().getContentAsString();
+        while (!events.contains(last) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            events = result.getResponse().getContentAsString();
+        }
+        return events;
+    }
+
+    private int count(String text, String part) {
+        return text.split(part, -1).length - 1;
+    }
+}